@@ -0,0 +1,341 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8;
+
+import static com.android.tools.r8.utils.FileUtils.CLASS_EXTENSION;
+import static com.android.tools.r8.utils.FileUtils.isArchive;
+
+import com.android.tools.r8.ProgramResource.Kind;
+import com.android.tools.r8.errors.CompilationError;
+import com.android.tools.r8.origin.ArchiveEntryOrigin;
+import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.origin.PathOrigin;
+import com.android.tools.r8.utils.DescriptorUtils;
+import com.android.tools.r8.utils.FileUtils;
+import com.android.tools.r8.utils.ZipUtils;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Cache of class-file archives that can be shared by many compilations running in the same JVM.
+ *
+ * <p>Compiler daemons that run many D8 or R8 compilations against the same library and classpath
+ * archives, such as android.jar, can use this cache to avoid reopening, indexing and inflating the
+ * archives for each compilation. The providers returned by {@link #getProvider(Path)} are passed to
+ * the compilation as library or classpath resource providers, for example using {@code
+ * D8Command.Builder.addLibraryResourceProvider}, and must be closed once the compilation has
+ * finished.
+ *
+ * <p>Archives are keyed on the SHA-256 hash of their content, so two paths with identical content
+ * share the same entry and an archive that is modified on disk gets a new entry. The entry of the
+ * previous content is removed once no path refers to it anymore. The cache holds at most a fixed
+ * number of archives, and the least recently used archive is removed when this limit is exceeded.
+ * An archive that is removed from the cache is only closed when all providers for it have been
+ * closed, so removal never affects a running compilation. The cached data is immutable after it has
+ * been read and the cache is safe to use from concurrent compilations. The cache must be closed
+ * when it is no longer used.
+ */
+@Keep
+public class ArchiveClassFileProviderCache implements Closeable {
+
+  private static final int DEFAULT_MAX_ARCHIVES = 16;
+
+  private final int maxArchives;
+
+  // The archives in least recently used order. Guarded by this.
+  private final LinkedHashMap<HashCode, CachedArchive> archives =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  // Memoization of the content hash for each path. The hash is recomputed if the size or the last
+  // modified time of the file changes. Guarded by this.
+  private final Map<Path, FileStamp> fileStamps = new HashMap<>();
+
+  private ArchiveClassFileProviderCache(int maxArchives) {
+    this.maxArchives = maxArchives;
+  }
+
+  /** Create a new empty cache that holds up to 16 archives. */
+  public static ArchiveClassFileProviderCache create() {
+    return create(DEFAULT_MAX_ARCHIVES);
+  }
+
+  /**
+   * Create a new empty cache.
+   *
+   * @param maxArchives Maximum number of distinct archives held by the cache.
+   */
+  public static ArchiveClassFileProviderCache create(int maxArchives) {
+    if (maxArchives <= 0) {
+      throw new IllegalArgumentException("Expected a positive number of archives: " + maxArchives);
+    }
+    return new ArchiveClassFileProviderCache(maxArchives);
+  }
+
+  /**
+   * Get a class-file resource provider for the archive at the given path.
+   *
+   * <p>The returned provider is cheap to create and must be closed when it is no longer used. The
+   * underlying archive remains open until it has been removed from this cache and all of its
+   * providers have been closed.
+   *
+   * @param archive Zip archive to provide resources from.
+   */
+  public Provider getProvider(Path archive) throws IOException {
+    if (!isArchive(archive)) {
+      throw new IllegalArgumentException("Expected a zip or jar archive: " + archive);
+    }
+    HashCode contentHash = getContentHash(archive);
+    List<CachedArchive> evicted = new ArrayList<>();
+    CachedArchive cachedArchive;
+    synchronized (this) {
+      cachedArchive = archives.get(contentHash);
+      if (cachedArchive == null) {
+        cachedArchive = new CachedArchive(archive);
+        archives.put(contentHash, cachedArchive);
+        evictLeastRecentlyUsed(evicted);
+      }
+      // Retain the archive while holding the lock, since the reference of this cache to the
+      // archive may otherwise be released concurrently.
+      cachedArchive.retain();
+    }
+    releaseAll(evicted);
+    return new Provider(cachedArchive, new PathOrigin(archive));
+  }
+
+  /** Number of distinct archives currently held by this cache. */
+  public synchronized int size() {
+    return archives.size();
+  }
+
+  @Override
+  public void close() throws IOException {
+    List<CachedArchive> released;
+    synchronized (this) {
+      released = new ArrayList<>(archives.values());
+      archives.clear();
+      fileStamps.clear();
+    }
+    releaseAll(released);
+  }
+
+  private HashCode getContentHash(Path archive) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+    Path key = archive.toAbsolutePath().normalize();
+    synchronized (this) {
+      FileStamp stamp = fileStamps.get(key);
+      if (stamp != null && stamp.matches(attributes)) {
+        return stamp.contentHash;
+      }
+    }
+    // Hash the content outside the lock since it reads the entire archive.
+    HashCode contentHash =
+        com.google.common.io.Files.asByteSource(archive.toFile()).hash(Hashing.sha256());
+    CachedArchive stale = null;
+    synchronized (this) {
+      FileStamp previous = fileStamps.put(key, new FileStamp(attributes, contentHash));
+      if (previous != null
+          && !previous.contentHash.equals(contentHash)
+          && !isReferenced(previous.contentHash)) {
+        // The archive at this path changed in place and no other path has the old content.
+        stale = archives.remove(previous.contentHash);
+      }
+    }
+    if (stale != null) {
+      stale.release();
+    }
+    return contentHash;
+  }
+
+  private boolean isReferenced(HashCode contentHash) {
+    for (FileStamp stamp : fileStamps.values()) {
+      if (stamp.contentHash.equals(contentHash)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void evictLeastRecentlyUsed(List<CachedArchive> evicted) {
+    Iterator<Entry<HashCode, CachedArchive>> iterator = archives.entrySet().iterator();
+    while (archives.size() > maxArchives) {
+      Entry<HashCode, CachedArchive> eldest = iterator.next();
+      HashCode contentHash = eldest.getKey();
+      evicted.add(eldest.getValue());
+      iterator.remove();
+      fileStamps.values().removeIf(stamp -> stamp.contentHash.equals(contentHash));
+    }
+  }
+
+  private static void releaseAll(List<CachedArchive> archives) throws IOException {
+    IOException exception = null;
+    for (CachedArchive archive : archives) {
+      try {
+        archive.release();
+      } catch (IOException e) {
+        exception = e;
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private static class FileStamp {
+
+    private final long size;
+    private final long lastModified;
+    private final HashCode contentHash;
+
+    private FileStamp(BasicFileAttributes attributes, HashCode contentHash) {
+      this.size = attributes.size();
+      this.lastModified = attributes.lastModifiedTime().toMillis();
+      this.contentHash = contentHash;
+    }
+
+    private boolean matches(BasicFileAttributes attributes) {
+      return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+    }
+  }
+
+  /**
+   * An open archive, which is closed when the cache and all providers have released it. The cache
+   * holds one reference while the archive is in the cache, and each provider holds one reference
+   * until it is closed.
+   */
+  private static class CachedArchive {
+
+    private final ZipFile zipFile;
+    private final Set<String> descriptors;
+    private final Map<String, byte[]> classFileContent = new ConcurrentHashMap<>();
+
+    // Guarded by this.
+    private int references = 1;
+
+    private CachedArchive(Path archive) throws IOException {
+      try {
+        zipFile = FileUtils.createZipFile(archive.toFile(), StandardCharsets.UTF_8);
+      } catch (IOException e) {
+        if (!Files.exists(archive)) {
+          NoSuchFileException exception = new NoSuchFileException(archive.toString());
+          exception.initCause(e);
+          throw exception;
+        } else {
+          throw e;
+        }
+      }
+      ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        String name = entries.nextElement().getName();
+        if (ZipUtils.isClassFile(name)) {
+          builder.add(DescriptorUtils.guessTypeDescriptor(name));
+        }
+      }
+      descriptors = builder.build();
+    }
+
+    private byte[] getClassFileContent(String descriptor, Origin origin) {
+      byte[] content = classFileContent.get(descriptor);
+      if (content != null) {
+        return content;
+      }
+      // Concurrent requests for the same descriptor may both read the entry. This is harmless
+      // since the content is identical, and avoids holding a lock while inflating.
+      try (InputStream inputStream = zipFile.getInputStream(getZipEntry(descriptor))) {
+        content = ByteStreams.toByteArray(inputStream);
+      } catch (IOException e) {
+        throw new CompilationError("Failed to read '" + descriptor + "'", origin);
+      }
+      byte[] existing = classFileContent.putIfAbsent(descriptor, content);
+      return existing != null ? existing : content;
+    }
+
+    private ZipEntry getZipEntry(String descriptor) {
+      return zipFile.getEntry(getEntryName(descriptor));
+    }
+
+    private synchronized void retain() {
+      assert references > 0;
+      references++;
+    }
+
+    private void release() throws IOException {
+      synchronized (this) {
+        assert references > 0;
+        if (--references > 0) {
+          return;
+        }
+      }
+      classFileContent.clear();
+      zipFile.close();
+    }
+  }
+
+  private static String getEntryName(String descriptor) {
+    return descriptor.substring(1, descriptor.length() - 1) + CLASS_EXTENSION;
+  }
+
+  /** Class-file resource provider for an archive in an {@link ArchiveClassFileProviderCache}. */
+  @Keep
+  public static class Provider implements ClassFileResourceProvider, Closeable {
+
+    private final CachedArchive archive;
+    private final Origin origin;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Provider(CachedArchive archive, Origin origin) {
+      this.archive = archive;
+      this.origin = origin;
+    }
+
+    /** Release the archive of this provider. The provider must not be used after it is closed. */
+    @Override
+    public void close() throws IOException {
+      if (closed.compareAndSet(false, true)) {
+        archive.release();
+      }
+    }
+
+    @Override
+    public Set<String> getClassDescriptors() {
+      return archive.descriptors;
+    }
+
+    @Override
+    public ProgramResource getProgramResource(String descriptor) {
+      if (!archive.descriptors.contains(descriptor)) {
+        return null;
+      }
+      return ProgramResource.fromBytes(
+          new ArchiveEntryOrigin(getEntryName(descriptor), origin),
+          Kind.CF,
+          archive.getClassFileContent(descriptor, origin),
+          Collections.singleton(descriptor));
+    }
+  }
+}
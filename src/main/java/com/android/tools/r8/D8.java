@@ -329,7 +329,8 @@ public final class D8 {
       new KotlinMetadataRewriter(appView).runForD8(executor);
 
       if (options.isGeneratingClassFiles()) {
-        new CfApplicationWriter(appView, marker).write(options.getClassFileConsumer(), inputApp);
+        new CfApplicationWriter(appView, marker)
+            .write(options.getClassFileConsumer(), executor, inputApp);
       } else {
         if (options.apiModelingOptions().enableStubbingOfClasses) {
           new ApiReferenceStubber(appView).run(executor);
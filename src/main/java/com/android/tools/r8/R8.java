@@ -221,7 +221,8 @@ public class R8 {
       Set<Marker> markers = new HashSet<>(appView.dexItemFactory().extractMarkers());
       markers.remove(marker);
       if (options.isGeneratingClassFiles()) {
-        new CfApplicationWriter(appView, marker).write(options.getClassFileConsumer(), inputApp);
+        new CfApplicationWriter(appView, marker)
+            .write(options.getClassFileConsumer(), executorService, inputApp);
       } else {
         new ApplicationWriter(
                 appView,
@@ -269,6 +270,11 @@ public class R8 {
     }
     // Synthetic assertion to check that testing assertions works and can be enabled.
     assert forTesting(options, () -> !options.testing.testEnableTestAssertions);
+    if (options.getStartupOptions().isStartupMethodInstrumentationEnabled()) {
+      options.reporter.warning(
+          new StringDiagnostic(
+              "Startup method instrumentation is only supported in D8 and is ignored by R8"));
+    }
     if (options.printMemory) {
       // Run GC twice to remove objects with finalizers.
       System.gc();
@@ -340,6 +346,9 @@ public class R8 {
                     options.itemFactory, options.getMinApiLevel()));
           }
         }
+        timing.count(
+            "Duplicate keep rules",
+            options.getProguardConfiguration().getNumberOfDuplicateRules());
         AssumeInfoCollection.Builder assumeInfoCollectionBuilder = AssumeInfoCollection.builder();
         SubtypingInfo subtypingInfo = SubtypingInfo.create(appView);
         appView.setRootSet(
@@ -550,6 +559,7 @@ public class R8 {
       // At this point all code has been mapped according to the graph lens. We cannot remove the
       // graph lens entirely, though, since it is needed for mapping all field and method signatures
       // back to the original program.
+      appView.graphLens().recordLookupStatistics(timing);
       timing.begin("AppliedGraphLens construction");
       appView.setGraphLens(new AppliedGraphLens(appView));
       timing.end();
@@ -812,7 +822,7 @@ public class R8 {
       new ApiReferenceStubber(appView).run(executorService);
 
       timing.begin("MinifyKotlinMetadata");
-      new KotlinMetadataRewriter(appView).runForR8(executorService);
+      new KotlinMetadataRewriter(appView).runForR8(executorService, timing);
       timing.end();
 
       new GenericSignatureRewriter(appView, genericContextBuilderBeforeFinalMerging)
@@ -827,7 +837,7 @@ public class R8 {
                           .isValid())
           : "Could not validate generic signatures";
 
-      new DesugaredLibraryKeepRuleGenerator(appView).runIfNecessary(timing);
+      new DesugaredLibraryKeepRuleGenerator(appView).runIfNecessary(executorService, timing);
 
       // Generate the resulting application resources.
       writeApplication(appView, inputApp, executorService);
@@ -328,9 +328,10 @@ public abstract class AndroidApiDataAccess {
     @Override
     boolean payloadHasConstantPoolValue(int offset, int length, byte[] value) {
       assert length == value.length;
-      mappedByteBuffer.position(offset);
-      for (byte expected : value) {
-        if (expected != mappedByteBuffer.get()) {
+      // Only use absolute reads since the buffer is shared between all threads and compilations
+      // in the JVM, and relative reads would race on the buffer position.
+      for (int i = 0; i < length; i++) {
+        if (value[i] != mappedByteBuffer.get(offset + i)) {
           return false;
         }
       }
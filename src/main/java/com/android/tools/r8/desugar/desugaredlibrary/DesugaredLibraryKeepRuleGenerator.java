@@ -38,6 +38,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Predicate;
 
 /** Generates keep rules for L8 using trace references. */
@@ -51,10 +53,11 @@ public class DesugaredLibraryKeepRuleGenerator {
     this.options = appView.options();
   }
 
-  public void runIfNecessary(Timing timing) {
+  public void runIfNecessary(ExecutorService executorService, Timing timing)
+      throws ExecutionException {
     if (shouldRun()) {
       timing.begin("Desugared library keep rule generator");
-      run();
+      run(executorService);
       timing.end();
     }
   }
@@ -69,9 +72,9 @@ public class DesugaredLibraryKeepRuleGenerator {
         || options.machineDesugaredLibrarySpecification.hasEmulatedInterfaces();
   }
 
-  private void run() {
+  private void run(ExecutorService executorService) throws ExecutionException {
     Tracer tracer = new Tracer(appView, new NopDiagnosticsHandler(), createTargetPredicate());
-    tracer.run(createTraceReferencesConsumer());
+    tracer.run(createTraceReferencesConsumer(), executorService);
   }
 
   private Predicate<DexType> createTargetPredicate() {
@@ -155,9 +155,9 @@ public class ApplicationReader {
     try {
       List<Future<?>> futures = new ArrayList<>();
       // Still preload some of the classes, primarily for two reasons:
-      // (a) class lazy loading is not supported for DEX files
-      //     now and current implementation of parallel DEX file
-      //     loading will be lost with on-demand class loading.
+      // (a) program DEX files are loaded in parallel, which would be
+      //     lost with on-demand class loading. DEX files provided as
+      //     classpath or library resources are loaded on demand.
       // (b) some of the class file resources don't provide information
       //     about class descriptor.
       // TODO: try and preload less classes.
@@ -341,7 +341,8 @@ public class ApplicationWriter {
         DebugRepresentationPredicate representation =
             DebugRepresentation.fromFiles(virtualFiles, options);
         delayedProguardMapId.set(
-            runAndWriteMap(inputApp, appView, timing, originalSourceFiles, representation));
+            runAndWriteMap(
+                inputApp, appView, timing, originalSourceFiles, representation, executorService));
       }
 
       // With the mapping id/hash known, it is safe to compute the remaining dex strings.
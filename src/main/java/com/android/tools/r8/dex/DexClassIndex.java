@@ -0,0 +1,71 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.dex;
+
+import com.android.tools.r8.ProgramResource;
+import com.android.tools.r8.ResourceException;
+import com.android.tools.r8.graph.ApplicationReaderMap;
+import com.android.tools.r8.graph.ClassKind;
+import com.android.tools.r8.graph.DexClass;
+import com.android.tools.r8.graph.DexType;
+import com.android.tools.r8.utils.InternalOptions;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Index of the classes in a single DEX file, used to load classpath and library classes from DEX
+ * inputs on demand.
+ *
+ * <p>The index tables and the class_def items are read once when the index is created. The class
+ * data, such as fields, methods and annotations, is only read when a class is requested by {@link
+ * #createClass(DexType)}.
+ */
+public class DexClassIndex<T extends DexClass> {
+
+  private final DexParser<T> dexParser;
+  private final ApplicationReaderMap applicationReaderMap;
+  private final Map<DexType, Integer> classDefIndices = new IdentityHashMap<>();
+  private final Consumer<DexType> classCreatedConsumer;
+
+  private DexClassIndex(DexParser<T> dexParser, InternalOptions options) {
+    this.dexParser = dexParser;
+    this.applicationReaderMap = ApplicationReaderMap.getInstance(options);
+    this.classCreatedConsumer = options.testing.onDemandDexClassCreatedConsumer;
+    dexParser.populateIndexTables();
+    for (int i = 0; i < dexParser.getNumberOfClassDefs(); i++) {
+      classDefIndices.put(dexParser.getClassDefType(i), i);
+    }
+  }
+
+  public static <T extends DexClass> DexClassIndex<T> create(
+      ProgramResource resource, ClassKind<T> classKind, InternalOptions options)
+      throws IOException, ResourceException {
+    assert resource.getKind() == ProgramResource.Kind.DEX;
+    assert classKind != ClassKind.PROGRAM;
+    DexParser<T> dexParser = new DexParser<>(new DexReader(resource), classKind, options);
+    return new DexClassIndex<>(dexParser, options);
+  }
+
+  public void forEachType(Consumer<DexType> consumer) {
+    classDefIndices.keySet().forEach(consumer);
+  }
+
+  /**
+   * Returns a new class for the given type, or null if the DEX file does not define the type.
+   *
+   * <p>The parser is stateful, so concurrent requests are serialized.
+   */
+  public synchronized T createClass(DexType type) {
+    Integer index = classDefIndices.get(type);
+    if (index == null) {
+      return null;
+    }
+    if (classCreatedConsumer != null) {
+      classCreatedConsumer.accept(type);
+    }
+    return dexParser.createClassDef(index, applicationReaderMap);
+  }
+}
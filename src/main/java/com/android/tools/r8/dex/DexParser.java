@@ -123,11 +123,15 @@ public class DexParser<T extends DexClass> {
     offsetMap = null;
     dexReader = null;
     stringIDs = null;
+    classDefs = null;
   }
 
   // Mapping from indexes to indexable dex items.
   private OffsetToObjectMapping indexedItems = new OffsetToObjectMapping();
 
+  // The class_def items, read on first use.
+  private ClassDefs classDefs;
+
   // Mapping from offset to code item;
   private Int2ReferenceMap<DexCode> codes = new Int2ReferenceOpenHashMap<>();
 
@@ -784,126 +788,172 @@ public class DexParser<T extends DexClass> {
   }
 
   void addClassDefsTo(Consumer<T> classCollection, ApplicationReaderMap applicationReaderMap) {
+    ClassDefs classDefs = ensureClassDefsRead();
+    for (int i = 0; i < classDefs.length; i++) {
+      T clazz = createClassDef(i, applicationReaderMap);
+      if (clazz != null) {
+        classCollection.accept(clazz); // Update the application object.
+      }
+    }
+  }
+
+  /** Returns the number of class_def items in the DEX file. */
+  int getNumberOfClassDefs() {
+    return ensureClassDefsRead().length;
+  }
+
+  /** Returns the type defined by the class_def item at the given index. */
+  DexType getClassDefType(int index) {
+    return indexedItems.getType(ensureClassDefsRead().classIndices[index]);
+  }
+
+  // Reads the fixed size class_def items. The class data of each class is only read when the class
+  // is created by createClassDef.
+  private ClassDefs ensureClassDefsRead() {
+    if (classDefs != null) {
+      return classDefs;
+    }
     final DexSection dexSection = lookupSection(Constants.TYPE_CLASS_DEF_ITEM);
     final int length = dexSection.length;
     indexedItems.initializeClasses(length);
+    classDefs = new ClassDefs(length);
     if (length == 0) {
-      return;
+      return classDefs;
     }
     dexReader.position(dexSection.offset);
-
-    int[] classIndices = new int[length];
-    int[] accessFlags = new int[length];
-    int[] superclassIndices = new int[length];
-    int[] interfacesOffsets = new int[length];
-    int[] sourceFileIndices = new int[length];
-    int[] annotationsOffsets = new int[length];
-    int[] classDataOffsets = new int[length];
-    int[] staticValuesOffsets = new int[length];
-
     for (int i = 0; i < length; i++) {
       if (Log.ENABLED) {
         Log.verbose(getClass(), "Reading ClassDef @ 0x%08x.", dexReader.position());
       }
-      classIndices[i] = dexReader.getUint();
-      accessFlags[i] = dexReader.getUint();
-      superclassIndices[i] = dexReader.getInt();
-      interfacesOffsets[i] = dexReader.getUint();
-      sourceFileIndices[i] = dexReader.getInt();
-      annotationsOffsets[i] = dexReader.getUint();
-      classDataOffsets[i] = dexReader.getUint();
-      staticValuesOffsets[i] = dexReader.getUint();
-    }
+      classDefs.classIndices[i] = dexReader.getUint();
+      classDefs.accessFlags[i] = dexReader.getUint();
+      classDefs.superclassIndices[i] = dexReader.getInt();
+      classDefs.interfacesOffsets[i] = dexReader.getUint();
+      classDefs.sourceFileIndices[i] = dexReader.getInt();
+      classDefs.annotationsOffsets[i] = dexReader.getUint();
+      classDefs.classDataOffsets[i] = dexReader.getUint();
+      classDefs.staticValuesOffsets[i] = dexReader.getUint();
+    }
+    return classDefs;
+  }
 
-    for (int i = 0; i < length; i++) {
-      int superclassIdx = superclassIndices[i];
-      DexType superclass = superclassIdx == NO_INDEX ? null : indexedItems.getType(superclassIdx);
-      int srcIdx = sourceFileIndices[i];
-      DexString source = srcIdx == NO_INDEX ? null : indexedItems.getString(srcIdx);
-      DexType type = indexedItems.getType(classIndices[i]);
-      ClassAccessFlags flags = ClassAccessFlags.fromDexAccessFlags(accessFlags[i]);
-      // Check if constraints from
-      // https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.1 are met.
-      if (!flags.areValid(Constants.CORRESPONDING_CLASS_FILE_VERSION, false)) {
-        throw new CompilationError(
-            "Class " + type.toSourceString() + " has illegal access flags. Found: " + flags,
-            origin);
-      }
-      DexEncodedField[] staticFields = DexEncodedField.EMPTY_ARRAY;
-      DexEncodedField[] instanceFields = DexEncodedField.EMPTY_ARRAY;
-      DexEncodedMethod[] directMethods = DexEncodedMethod.EMPTY_ARRAY;
-      DexEncodedMethod[] virtualMethods = DexEncodedMethod.EMPTY_ARRAY;
-      AnnotationsDirectory annotationsDirectory = annotationsDirectoryAt(annotationsOffsets[i]);
-
-      Long checksum = null;
-      if (checksums != null && !checksums.isEmpty()) {
-        DexType originalType = applicationReaderMap.getInvertedType(type);
-        String desc = originalType.toDescriptorString();
-        checksum = checksums.getOrDefault(desc, null);
-        if (!options.dexClassChecksumFilter.test(desc, checksum)) {
-          continue;
-        }
-      }
-      if (classDataOffsets[i] != 0) {
-        DexEncodedArray staticValues = encodedArrayAt(staticValuesOffsets[i]);
-
-        dexReader.position(classDataOffsets[i]);
-        int staticFieldsSize = dexReader.getUleb128();
-        int instanceFieldsSize = dexReader.getUleb128();
-        int directMethodsSize = dexReader.getUleb128();
-        int virtualMethodsSize = dexReader.getUleb128();
-
-        staticFields =
-            readFields(
-                staticFieldsSize,
-                annotationsDirectory.fields,
-                staticValues != null ? staticValues.values : null);
-        instanceFields = readFields(instanceFieldsSize, annotationsDirectory.fields, null);
-        directMethods =
-            readMethods(
-                directMethodsSize,
-                annotationsDirectory.methods,
-                annotationsDirectory.parameters,
-                classKind != ClassKind.PROGRAM);
-        virtualMethods =
-            readMethods(
-                virtualMethodsSize,
-                annotationsDirectory.methods,
-                annotationsDirectory.parameters,
-                classKind != ClassKind.PROGRAM);
+  /**
+   * Creates the class for the class_def item at the given index, or returns null if the class is
+   * filtered out by the class checksum filter.
+   */
+  T createClassDef(int i, ApplicationReaderMap applicationReaderMap) {
+    ClassDefs classDefs = ensureClassDefsRead();
+    int superclassIdx = classDefs.superclassIndices[i];
+    DexType superclass = superclassIdx == NO_INDEX ? null : indexedItems.getType(superclassIdx);
+    int srcIdx = classDefs.sourceFileIndices[i];
+    DexString source = srcIdx == NO_INDEX ? null : indexedItems.getString(srcIdx);
+    DexType type = indexedItems.getType(classDefs.classIndices[i]);
+    ClassAccessFlags flags = ClassAccessFlags.fromDexAccessFlags(classDefs.accessFlags[i]);
+    // Check if constraints from
+    // https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.1 are met.
+    if (!flags.areValid(Constants.CORRESPONDING_CLASS_FILE_VERSION, false)) {
+      throw new CompilationError(
+          "Class " + type.toSourceString() + " has illegal access flags. Found: " + flags,
+          origin);
+    }
+    DexEncodedField[] staticFields = DexEncodedField.EMPTY_ARRAY;
+    DexEncodedField[] instanceFields = DexEncodedField.EMPTY_ARRAY;
+    DexEncodedMethod[] directMethods = DexEncodedMethod.EMPTY_ARRAY;
+    DexEncodedMethod[] virtualMethods = DexEncodedMethod.EMPTY_ARRAY;
+    AnnotationsDirectory annotationsDirectory =
+        annotationsDirectoryAt(classDefs.annotationsOffsets[i]);
+
+    Long checksum = null;
+    if (checksums != null && !checksums.isEmpty()) {
+      DexType originalType = applicationReaderMap.getInvertedType(type);
+      String desc = originalType.toDescriptorString();
+      checksum = checksums.getOrDefault(desc, null);
+      if (!options.dexClassChecksumFilter.test(desc, checksum)) {
+        return null;
       }
+    }
+    if (classDefs.classDataOffsets[i] != 0) {
+      DexEncodedArray staticValues = encodedArrayAt(classDefs.staticValuesOffsets[i]);
+
+      dexReader.position(classDefs.classDataOffsets[i]);
+      int staticFieldsSize = dexReader.getUleb128();
+      int instanceFieldsSize = dexReader.getUleb128();
+      int directMethodsSize = dexReader.getUleb128();
+      int virtualMethodsSize = dexReader.getUleb128();
+
+      staticFields =
+          readFields(
+              staticFieldsSize,
+              annotationsDirectory.fields,
+              staticValues != null ? staticValues.values : null);
+      instanceFields = readFields(instanceFieldsSize, annotationsDirectory.fields, null);
+      directMethods =
+          readMethods(
+              directMethodsSize,
+              annotationsDirectory.methods,
+              annotationsDirectory.parameters,
+              classKind != ClassKind.PROGRAM);
+      virtualMethods =
+          readMethods(
+              virtualMethodsSize,
+              annotationsDirectory.methods,
+              annotationsDirectory.parameters,
+              classKind != ClassKind.PROGRAM);
+    }
+
+    AttributesAndAnnotations attrs =
+        new AttributesAndAnnotations(type, origin, annotationsDirectory.clazz, options);
+
+    Long finalChecksum = checksum;
+    ChecksumSupplier checksumSupplier =
+        finalChecksum == null ? DexProgramClass::invalidChecksumRequest : c -> finalChecksum;
+
+    return classKind.create(
+        type,
+        Kind.DEX,
+        origin,
+        flags,
+        superclass,
+        typeListAt(classDefs.interfacesOffsets[i]),
+        source,
+        attrs.nestHostAttribute,
+        attrs.nestMembersAttribute,
+        attrs.permittedSubclassesAttribute,
+        attrs.getEnclosingMethodAttribute(),
+        attrs.getInnerClasses(),
+        attrs.classSignature,
+        attrs.getAnnotations(),
+        staticFields,
+        instanceFields,
+        directMethods,
+        virtualMethods,
+        dexItemFactory.getSkipNameValidationForTesting(),
+        checksumSupplier,
+        null);
+  }
 
-      AttributesAndAnnotations attrs =
-          new AttributesAndAnnotations(type, origin, annotationsDirectory.clazz, options);
-
-      Long finalChecksum = checksum;
-      ChecksumSupplier checksumSupplier =
-          finalChecksum == null ? DexProgramClass::invalidChecksumRequest : c -> finalChecksum;
-
-      T clazz =
-          classKind.create(
-              type,
-              Kind.DEX,
-              origin,
-              flags,
-              superclass,
-              typeListAt(interfacesOffsets[i]),
-              source,
-              attrs.nestHostAttribute,
-              attrs.nestMembersAttribute,
-              attrs.permittedSubclassesAttribute,
-              attrs.getEnclosingMethodAttribute(),
-              attrs.getInnerClasses(),
-              attrs.classSignature,
-              attrs.getAnnotations(),
-              staticFields,
-              instanceFields,
-              directMethods,
-              virtualMethods,
-              dexItemFactory.getSkipNameValidationForTesting(),
-              checksumSupplier,
-              null);
-      classCollection.accept(clazz); // Update the application object.
+  private static class ClassDefs {
+
+    private final int length;
+    private final int[] classIndices;
+    private final int[] accessFlags;
+    private final int[] superclassIndices;
+    private final int[] interfacesOffsets;
+    private final int[] sourceFileIndices;
+    private final int[] annotationsOffsets;
+    private final int[] classDataOffsets;
+    private final int[] staticValuesOffsets;
+
+    private ClassDefs(int length) {
+      this.length = length;
+      classIndices = new int[length];
+      accessFlags = new int[length];
+      superclassIndices = new int[length];
+      interfacesOffsets = new int[length];
+      sourceFileIndices = new int[length];
+      annotationsOffsets = new int[length];
+      classDataOffsets = new int[length];
+      staticValuesOffsets = new int[length];
     }
   }
 
@@ -10,6 +10,7 @@ import com.android.tools.r8.FeatureSplit;
 import com.android.tools.r8.debuginfo.DebugRepresentation;
 import com.android.tools.r8.errors.DexFileOverflowDiagnostic;
 import com.android.tools.r8.errors.InternalCompilerError;
+import com.android.tools.r8.experimental.startup.StartupClass;
 import com.android.tools.r8.experimental.startup.StartupOrder;
 import com.android.tools.r8.features.ClassToFeatureSplitMap;
 import com.android.tools.r8.graph.AppInfoWithClassHierarchy;
@@ -869,7 +870,8 @@ public class VirtualFile {
     static class PackageSplitClassPartioning {
 
       // The set of startup classes, sorted by original names so that classes in the same package
-      // are adjacent. This is empty if no startup configuration is given.
+      // are adjacent, or in startup order if the startup order distribution is enabled. This is
+      // empty if no startup configuration is given.
       private final List<DexProgramClass> startupClasses;
 
       // The remaining set of classes that must be written, sorted by original names so that classes
@@ -886,12 +888,73 @@ public class VirtualFile {
           Collection<DexProgramClass> classes,
           AppView<?> appView,
           Map<DexProgramClass, String> originalNames) {
+        if (appView.options().getStartupOptions().isStartupOrderDistributionEnabled()) {
+          return createWithStartupOrder(
+              classes, appView, getClassesByPackageComparator(originalNames));
+        }
         return create(
             classes,
             getClassesByPackageComparator(originalNames),
             getStartupClassPredicate(appView));
       }
 
+      private static PackageSplitClassPartioning createWithStartupOrder(
+          Collection<DexProgramClass> classes,
+          AppView<?> appView,
+          Comparator<DexProgramClass> comparator) {
+        // In D8 there is no class hierarchy to maintain the startup order on, but the classes have
+        // not been renamed or pruned, so the startup order of the configuration is used directly.
+        StartupOrder startupOrder =
+            (appView.hasClassHierarchy()
+                    ? appView.appInfoWithClassHierarchy().getStartupOrder()
+                    : StartupOrder.createInitialStartupOrder(appView.options()))
+                .toStartupOrderForWriting(appView);
+        SyntheticItems syntheticItems = appView.getSyntheticItems();
+        Map<DexType, DexProgramClass> classesByType = new IdentityHashMap<>(classes.size());
+        Map<DexType, List<DexProgramClass>> syntheticClassesByContext = new IdentityHashMap<>();
+        for (DexProgramClass clazz : classes) {
+          classesByType.put(clazz.getType(), clazz);
+          if (syntheticItems.isSyntheticClass(clazz)) {
+            for (DexType synthesizingContextType :
+                syntheticItems.getSynthesizingContextTypes(clazz.getType())) {
+              syntheticClassesByContext
+                  .computeIfAbsent(synthesizingContextType, ignoreKey -> new ArrayList<>())
+                  .add(clazz);
+            }
+          }
+        }
+        syntheticClassesByContext
+            .values()
+            .forEach(syntheticClasses -> syntheticClasses.sort(comparator));
+
+        // Add each startup class followed by the classes synthesized from it.
+        Set<DexProgramClass> seen = Sets.newIdentityHashSet();
+        List<DexProgramClass> startupClasses = new ArrayList<>();
+        for (StartupClass<DexType> startupClass : startupOrder.getClasses()) {
+          DexProgramClass clazz = classesByType.get(startupClass.getReference());
+          if (clazz == null || !seen.add(clazz)) {
+            continue;
+          }
+          startupClasses.add(clazz);
+          for (DexProgramClass syntheticClass :
+              syntheticClassesByContext.getOrDefault(clazz.getType(), Collections.emptyList())) {
+            if (seen.add(syntheticClass)) {
+              startupClasses.add(syntheticClass);
+            }
+          }
+        }
+
+        List<DexProgramClass> nonStartupClasses =
+            new ArrayList<>(classes.size() - startupClasses.size());
+        for (DexProgramClass clazz : classes) {
+          if (!seen.contains(clazz)) {
+            nonStartupClasses.add(clazz);
+          }
+        }
+        nonStartupClasses.sort(comparator);
+        return new PackageSplitClassPartioning(startupClasses, nonStartupClasses);
+      }
+
       private static PackageSplitClassPartioning create(
           Collection<DexProgramClass> classes,
           Comparator<DexProgramClass> comparator,
@@ -1047,7 +1110,8 @@ public class VirtualFile {
         }
       }
 
-      if (options.getStartupOptions().isMinimalStartupDexEnabled()) {
+      if (options.getStartupOptions().isMinimalStartupDexEnabled()
+          || options.getStartupOptions().isStartupOrderDistributionEnabled()) {
         cycler.clearFilesForDistribution();
       } else {
         cycler.restart();
@@ -4,8 +4,10 @@
 
 package com.android.tools.r8.experimental.startup;
 
+import com.android.tools.r8.StringConsumer;
 import com.android.tools.r8.androidapi.ComputedApiLevel;
 import com.android.tools.r8.cf.CfVersion;
+import com.android.tools.r8.cf.code.CfConstNumber;
 import com.android.tools.r8.cf.code.CfConstString;
 import com.android.tools.r8.cf.code.CfInstruction;
 import com.android.tools.r8.cf.code.CfInvoke;
@@ -13,19 +15,27 @@ import com.android.tools.r8.cf.code.CfReturnVoid;
 import com.android.tools.r8.cf.code.CfStackInstruction;
 import com.android.tools.r8.cf.code.CfStackInstruction.Opcode;
 import com.android.tools.r8.cf.code.CfStaticFieldRead;
+import com.android.tools.r8.graph.AppInfo;
 import com.android.tools.r8.graph.AppView;
 import com.android.tools.r8.graph.CfCode;
 import com.android.tools.r8.graph.Code;
+import com.android.tools.r8.graph.DexApplication;
 import com.android.tools.r8.graph.DexEncodedMethod;
 import com.android.tools.r8.graph.DexItemFactory;
+import com.android.tools.r8.graph.DexMethod;
 import com.android.tools.r8.graph.DexProgramClass;
 import com.android.tools.r8.graph.DexString;
 import com.android.tools.r8.graph.DexType;
 import com.android.tools.r8.graph.MethodAccessFlags;
 import com.android.tools.r8.graph.ProgramMethod;
+import com.android.tools.r8.ir.code.ValueType;
 import com.android.tools.r8.synthesis.SyntheticItems;
+import com.android.tools.r8.utils.IntBox;
+import com.android.tools.r8.utils.StringDiagnostic;
 import com.android.tools.r8.utils.ThreadUtils;
 import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -39,10 +49,78 @@ public class StartupInstrumentation {
   private final DexItemFactory dexItemFactory;
   private final StartupOptions options;
 
+  // Ids of the methods instrumented by the method-entry instrumentation. Only populated in D8 when
+  // the startup profile recorder has been injected.
+  private final Reference2IntMap<DexMethod> startupMethodIds = new Reference2IntOpenHashMap<>();
+  private StartupProfileRecorder startupProfileRecorder;
+
   public StartupInstrumentation(AppView<?> appView) {
     this.appView = appView;
     this.dexItemFactory = appView.dexItemFactory();
     this.options = appView.options().getStartupOptions();
+    startupMethodIds.defaultReturnValue(-1);
+  }
+
+  /**
+   * Assigns an id to each method with class file code in the program, and injects the {@link
+   * StartupProfileRecorder} that records the ids of the methods entered at runtime.
+   *
+   * <p>The ids are assigned in a deterministic order, and the method id map that is needed for
+   * reading the resulting startup profiles is passed to the method id map consumer. Classes
+   * synthesized during the compilation are not instrumented. Methods with DEX code are not
+   * instrumented either, which is reported as a warning.
+   */
+  public void injectStartupProfileRecorder() {
+    if (!options.isStartupMethodInstrumentationEnabled()) {
+      return;
+    }
+    startupProfileRecorder = new StartupProfileRecorder(dexItemFactory);
+    if (appView.definitionFor(startupProfileRecorder.getType()) != null) {
+      throw appView
+          .reporter()
+          .fatalError(
+              new StringDiagnostic(
+                  "Unexpected definition of " + startupProfileRecorder.getType().getTypeName()));
+    }
+    StringBuilder methodIdMap = new StringBuilder();
+    IntBox numberOfMethodsWithDexCode = new IntBox();
+    for (DexProgramClass clazz : appView.appInfo().classesWithDeterministicOrder()) {
+      clazz.forEachProgramMethodMatching(
+          DexEncodedMethod::hasCode,
+          method -> {
+            if (method.getDefinition().getCode().isCfCode()) {
+              startupMethodIds.put(method.getReference(), startupMethodIds.size());
+              methodIdMap.append(method.getReference().toSmaliString()).append('\n');
+            } else {
+              numberOfMethodsWithDexCode.increment();
+            }
+          });
+    }
+    if (numberOfMethodsWithDexCode.get() > 0) {
+      appView
+          .reporter()
+          .warning(
+              new StringDiagnostic(
+                  "Startup method instrumentation only supports class file inputs, "
+                      + numberOfMethodsWithDexCode.get()
+                      + " method(s) with DEX code are not instrumented"));
+    }
+    DexProgramClass startupProfileRecorderClass =
+        startupProfileRecorder.createClass(
+            startupMethodIds.size(),
+            appView.apiLevelCompute().computeInitialMinApiLevel(appView.options()));
+    AppView<AppInfo> appViewWithoutClassHierarchy = appView.withoutClassHierarchy();
+    DexApplication application =
+        appView.appInfo().app().builder().addProgramClass(startupProfileRecorderClass).build();
+    appViewWithoutClassHierarchy.setAppInfo(
+        new AppInfo(
+            appView.appInfo().getSyntheticItems().commit(application),
+            appView.appInfo().getMainDexInfo()));
+    if (options.hasStartupMethodIdMapConsumer()) {
+      StringConsumer consumer = options.getStartupMethodIdMapConsumer();
+      consumer.accept(methodIdMap.toString(), appView.reporter());
+      consumer.finished(appView.reporter());
+    }
   }
 
   public void instrumentAllClasses(ExecutorService executorService) throws ExecutionException {
@@ -60,12 +138,47 @@ public class StartupInstrumentation {
   }
 
   public void instrumentClass(DexProgramClass clazz) {
+    if (!startupMethodIds.isEmpty()) {
+      instrumentMethodEntries(clazz);
+    }
     if (!appView.options().getStartupOptions().isStartupInstrumentationEnabled()) {
       return;
     }
     internalInstrumentClass(clazz);
   }
 
+  private void instrumentMethodEntries(DexProgramClass clazz) {
+    clazz.forEachProgramMethodMatching(
+        method -> method.hasCode() && method.getCode().isCfCode(),
+        method -> {
+          int id = startupMethodIds.getInt(method.getReference());
+          if (id >= 0) {
+            instrumentMethodEntry(method, id);
+          }
+        });
+  }
+
+  private void instrumentMethodEntry(ProgramMethod method, int id) {
+    CfCode cfCode = method.getDefinition().getCode().asCfCode();
+    List<CfInstruction> instructions = new ArrayList<>(2 + cfCode.getInstructions().size());
+    instructions.add(new CfConstNumber(id, ValueType.INT));
+    instructions.add(
+        new CfInvoke(
+            Opcodes.INVOKESTATIC, startupProfileRecorder.getOnMethodEntryMethod(), false));
+    instructions.addAll(cfCode.getInstructions());
+    method.setCode(
+        new CfCode(
+            cfCode.getOriginalHolder(),
+            Math.max(cfCode.getMaxStack(), 1),
+            cfCode.getMaxLocals(),
+            instructions,
+            cfCode.getTryCatchRanges(),
+            cfCode.getLocalVariables(),
+            cfCode.getDiagnosticPosition(),
+            cfCode.getMetadata()),
+        appView);
+  }
+
   private void internalInstrumentClass(DexProgramClass clazz) {
     ProgramMethod classInitializer = ensureClassInitializer(clazz);
     instrumentClassInitializer(classInitializer);
@@ -7,11 +7,18 @@ package com.android.tools.r8.experimental.startup;
 import static com.android.tools.r8.utils.SystemPropertyUtils.getSystemPropertyForDevelopment;
 import static com.android.tools.r8.utils.SystemPropertyUtils.parseSystemPropertyForDevelopmentOrDefault;
 
+import com.android.tools.r8.StringConsumer;
+import com.android.tools.r8.StringConsumer.FileConsumer;
+import java.nio.file.Paths;
+
 public class StartupOptions {
 
   private boolean enableMinimalStartupDex =
       parseSystemPropertyForDevelopmentOrDefault(
           "com.android.tools.r8.startup.minimalstartupdex", false);
+  private boolean enableStartupOrderDistribution =
+      parseSystemPropertyForDevelopmentOrDefault(
+          "com.android.tools.r8.startup.orderdistribution", false);
   private boolean enableStartupCompletenessCheckForTesting =
       parseSystemPropertyForDevelopmentOrDefault(
           "com.android.tools.r8.startup.completenesscheck", false);
@@ -19,6 +26,12 @@ public class StartupOptions {
       parseSystemPropertyForDevelopmentOrDefault("com.android.tools.r8.startup.instrument", false);
   private String startupInstrumentationTag =
       getSystemPropertyForDevelopment("com.android.tools.r8.startup.instrumentationtag");
+  private boolean enableStartupMethodInstrumentation =
+      parseSystemPropertyForDevelopmentOrDefault(
+          "com.android.tools.r8.startup.instrumentmethods", false);
+  private StringConsumer startupMethodIdMapConsumer =
+      createStartupMethodIdMapConsumer(
+          getSystemPropertyForDevelopment("com.android.tools.r8.startup.methodidmap"));
 
   private StartupConfiguration startupConfiguration;
 
@@ -44,6 +57,19 @@ public class StartupOptions {
     return this;
   }
 
+  /**
+   * When enabled, the startup classes and the classes synthesized from them are placed in the
+   * first dex files in startup order, and all other classes are placed in the subsequent dex files.
+   */
+  public boolean isStartupOrderDistributionEnabled() {
+    return enableStartupOrderDistribution;
+  }
+
+  public StartupOptions setEnableStartupOrderDistribution(boolean enableStartupOrderDistribution) {
+    this.enableStartupOrderDistribution = enableStartupOrderDistribution;
+    return this;
+  }
+
   public boolean isStartupInstrumentationEnabled() {
     return enableStartupInstrumentation;
   }
@@ -53,6 +79,36 @@ public class StartupOptions {
     return this;
   }
 
+  /**
+   * When enabled, D8 instruments the entry of each method with a call that records the id of the
+   * method in the injected {@link StartupProfileRecorder}.
+   */
+  public boolean isStartupMethodInstrumentationEnabled() {
+    return enableStartupMethodInstrumentation;
+  }
+
+  public StartupOptions setEnableStartupMethodInstrumentation() {
+    enableStartupMethodInstrumentation = true;
+    return this;
+  }
+
+  public boolean hasStartupMethodIdMapConsumer() {
+    return startupMethodIdMapConsumer != null;
+  }
+
+  public StringConsumer getStartupMethodIdMapConsumer() {
+    return startupMethodIdMapConsumer;
+  }
+
+  public StartupOptions setStartupMethodIdMapConsumer(StringConsumer startupMethodIdMapConsumer) {
+    this.startupMethodIdMapConsumer = startupMethodIdMapConsumer;
+    return this;
+  }
+
+  private static StringConsumer createStartupMethodIdMapConsumer(String path) {
+    return path != null ? new FileConsumer(Paths.get(path)) : null;
+  }
+
   public boolean isStartupCompletenessCheckForTesting() {
     return enableStartupCompletenessCheckForTesting;
   }
@@ -0,0 +1,69 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.experimental.startup;
+
+import com.android.tools.r8.graph.DexItemFactory;
+import com.android.tools.r8.utils.ExceptionDiagnostic;
+import com.android.tools.r8.utils.FileUtils;
+import com.android.tools.r8.utils.Reporter;
+import com.android.tools.r8.utils.StringDiagnostic;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader for the binary startup profiles written by the method-entry startup instrumentation.
+ *
+ * <p>The profile consists of the ids of the methods in the order they were first entered. The ids
+ * are mapped back to methods using the method id map that was emitted when the app was
+ * instrumented, where line i holds the descriptor of the method with id i.
+ */
+public class StartupProfileReader {
+
+  public static StartupConfiguration createStartupConfigurationFromProfile(
+      DexItemFactory dexItemFactory, Reporter reporter, Path profile, Path methodIdMap) {
+    byte[] profileBytes;
+    List<String> methodDescriptors;
+    try {
+      profileBytes = Files.readAllBytes(profile);
+      methodDescriptors = FileUtils.readAllLines(methodIdMap);
+    } catch (IOException e) {
+      throw reporter.fatalError(new ExceptionDiagnostic(e));
+    }
+    return createStartupConfigurationFromProfile(
+        dexItemFactory, reporter, profileBytes, methodDescriptors);
+  }
+
+  public static StartupConfiguration createStartupConfigurationFromProfile(
+      DexItemFactory dexItemFactory,
+      Reporter reporter,
+      byte[] profile,
+      List<String> methodDescriptors) {
+    ByteBuffer buffer = ByteBuffer.wrap(profile);
+    List<String> startupDescriptors = new ArrayList<>();
+    try {
+      if (buffer.getInt() != StartupProfileRecorder.PROFILE_MAGIC) {
+        throw reporter.fatalError(new StringDiagnostic("Invalid startup profile"));
+      }
+      int size = buffer.getInt();
+      for (int i = 0; i < size; i++) {
+        int id = buffer.getInt();
+        if (id < 0 || id >= methodDescriptors.size()) {
+          throw reporter.fatalError(
+              new StringDiagnostic("Invalid method id in startup profile: " + id));
+        }
+        startupDescriptors.add(methodDescriptors.get(id));
+      }
+    } catch (BufferUnderflowException e) {
+      throw reporter.fatalError(new StringDiagnostic("Truncated startup profile"));
+    }
+    return StartupConfiguration.createStartupConfigurationFromLines(
+        dexItemFactory, reporter, startupDescriptors);
+  }
+}
@@ -0,0 +1,406 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.experimental.startup;
+
+import com.android.tools.r8.ProgramResource.Kind;
+import com.android.tools.r8.androidapi.ComputedApiLevel;
+import com.android.tools.r8.cf.CfVersion;
+import com.android.tools.r8.cf.code.CfArithmeticBinop;
+import com.android.tools.r8.cf.code.CfArithmeticBinop.Opcode;
+import com.android.tools.r8.cf.code.CfArrayLoad;
+import com.android.tools.r8.cf.code.CfArrayStore;
+import com.android.tools.r8.cf.code.CfConstNumber;
+import com.android.tools.r8.cf.code.CfFrame;
+import com.android.tools.r8.cf.code.CfIf;
+import com.android.tools.r8.cf.code.CfInstruction;
+import com.android.tools.r8.cf.code.CfInvoke;
+import com.android.tools.r8.cf.code.CfLabel;
+import com.android.tools.r8.cf.code.CfLoad;
+import com.android.tools.r8.cf.code.CfNew;
+import com.android.tools.r8.cf.code.CfNewArray;
+import com.android.tools.r8.cf.code.CfReturnVoid;
+import com.android.tools.r8.cf.code.CfStackInstruction;
+import com.android.tools.r8.cf.code.CfStaticFieldRead;
+import com.android.tools.r8.cf.code.CfStaticFieldWrite;
+import com.android.tools.r8.cf.code.CfStore;
+import com.android.tools.r8.cf.code.CfThrow;
+import com.android.tools.r8.cf.code.CfTryCatch;
+import com.android.tools.r8.cf.code.frame.FrameType;
+import com.android.tools.r8.graph.CfCode;
+import com.android.tools.r8.graph.ClassAccessFlags;
+import com.android.tools.r8.graph.DexAnnotationSet;
+import com.android.tools.r8.graph.DexEncodedField;
+import com.android.tools.r8.graph.DexEncodedMethod;
+import com.android.tools.r8.graph.DexField;
+import com.android.tools.r8.graph.DexItemFactory;
+import com.android.tools.r8.graph.DexMethod;
+import com.android.tools.r8.graph.DexProgramClass;
+import com.android.tools.r8.graph.DexType;
+import com.android.tools.r8.graph.DexTypeList;
+import com.android.tools.r8.graph.FieldAccessFlags;
+import com.android.tools.r8.graph.GenericSignature.ClassSignature;
+import com.android.tools.r8.graph.MethodAccessFlags;
+import com.android.tools.r8.graph.MethodCollection.MethodCollectionFactory;
+import com.android.tools.r8.ir.code.If;
+import com.android.tools.r8.ir.code.MemberType;
+import com.android.tools.r8.ir.code.NumericType;
+import com.android.tools.r8.ir.code.ValueType;
+import com.android.tools.r8.origin.Origin;
+import com.google.common.collect.ImmutableList;
+import java.util.Collections;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Runtime support for the method-entry startup instrumentation.
+ *
+ * <p>The recorder is injected as a program class into the instrumented app. It corresponds to the
+ * following Java code, where N is the number of instrumented methods:
+ *
+ * <pre>
+ * public class StartupProfileRecorder {
+ *
+ *   private static byte[] entered = new byte[N];
+ *   private static int[] ids = new int[N];
+ *   private static int size;
+ *
+ *   public static void onMethodEntry(int id) {
+ *     if (entered[id] == 0) {
+ *       record(id);
+ *     }
+ *   }
+ *
+ *   private static synchronized void record(int id) {
+ *     if (entered[id] == 0) {
+ *       entered[id] = 1;
+ *       ids[size] = id;
+ *       size = size + 1;
+ *     }
+ *   }
+ *
+ *   public static synchronized void dump(String path) throws IOException {
+ *     ByteBuffer buffer = ByteBuffer.allocate((size + 2) * 4);
+ *     buffer.putInt(PROFILE_MAGIC);
+ *     buffer.putInt(size);
+ *     buffer.asIntBuffer().put(ids, 0, size);
+ *     FileOutputStream out = new FileOutputStream(path);
+ *     try {
+ *       out.write(buffer.array());
+ *     } finally {
+ *       out.close();
+ *     }
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>The buffers are allocated once when the recorder is initialized, and each method id is
+ * recorded the first time the method is entered. Only the first entry of each method takes the
+ * lock, since all later entries return after the unsynchronized check of {@code entered}. A stale
+ * read of {@code entered} is harmless, since the check is repeated under the lock. The app calls
+ * {@code dump} once when startup has completed to write the ids of the entered methods, in the
+ * order they were first entered, as a big-endian binary profile that is read by {@link
+ * StartupProfileReader}.
+ */
+public class StartupProfileRecorder {
+
+  public static final String DESCRIPTOR = "Lcom/android/tools/r8/startup/StartupProfileRecorder;";
+
+  public static final int PROFILE_MAGIC = 0x52385350;
+
+  private final DexItemFactory dexItemFactory;
+  private final DexType type;
+
+  private final DexField enteredField;
+  private final DexField idsField;
+  private final DexField sizeField;
+
+  public StartupProfileRecorder(DexItemFactory dexItemFactory) {
+    this.dexItemFactory = dexItemFactory;
+    this.type = dexItemFactory.createType(DESCRIPTOR);
+    this.enteredField = dexItemFactory.createField(type, dexItemFactory.byteArrayType, "entered");
+    this.idsField = dexItemFactory.createField(type, dexItemFactory.intArrayType, "ids");
+    this.sizeField = dexItemFactory.createField(type, dexItemFactory.intType, "size");
+  }
+
+  public DexType getType() {
+    return type;
+  }
+
+  public DexMethod getOnMethodEntryMethod() {
+    return dexItemFactory.createMethod(
+        type,
+        dexItemFactory.createProto(dexItemFactory.voidType, dexItemFactory.intType),
+        "onMethodEntry");
+  }
+
+  private DexMethod getRecordMethod() {
+    return dexItemFactory.createMethod(
+        type,
+        dexItemFactory.createProto(dexItemFactory.voidType, dexItemFactory.intType),
+        "record");
+  }
+
+  public DexMethod getDumpMethod() {
+    return dexItemFactory.createMethod(
+        type,
+        dexItemFactory.createProto(dexItemFactory.voidType, dexItemFactory.stringType),
+        "dump");
+  }
+
+  public DexProgramClass createClass(int numberOfMethodIds, ComputedApiLevel apiLevel) {
+    DexEncodedField[] staticFields =
+        new DexEncodedField[] {
+          createStaticField(enteredField, apiLevel),
+          createStaticField(idsField, apiLevel),
+          createStaticField(sizeField, apiLevel)
+        };
+    DexEncodedMethod[] directMethods =
+        new DexEncodedMethod[] {
+          createMethod(
+              dexItemFactory.createClassInitializer(type),
+              MethodAccessFlags.createForClassInitializer(),
+              createClassInitializerCode(numberOfMethodIds),
+              apiLevel),
+          createMethod(
+              getOnMethodEntryMethod(),
+              createStaticFlags(Opcodes.ACC_PUBLIC),
+              createOnMethodEntryCode(),
+              apiLevel),
+          createMethod(
+              getRecordMethod(),
+              createStaticFlags(Opcodes.ACC_PRIVATE | Opcodes.ACC_SYNCHRONIZED),
+              createRecordCode(),
+              apiLevel),
+          createMethod(
+              getDumpMethod(),
+              createStaticFlags(Opcodes.ACC_PUBLIC | Opcodes.ACC_SYNCHRONIZED),
+              createDumpCode(),
+              apiLevel)
+        };
+    return new DexProgramClass(
+        type,
+        Kind.CF,
+        Origin.unknown(),
+        ClassAccessFlags.fromSharedAccessFlags(Opcodes.ACC_PUBLIC | Opcodes.ACC_SYNTHETIC),
+        dexItemFactory.objectType,
+        DexTypeList.empty(),
+        null,
+        null,
+        Collections.emptyList(),
+        Collections.emptyList(),
+        null,
+        Collections.emptyList(),
+        ClassSignature.noSignature(),
+        DexAnnotationSet.empty(),
+        staticFields,
+        DexEncodedField.EMPTY_ARRAY,
+        MethodCollectionFactory.fromMethods(directMethods, DexEncodedMethod.EMPTY_ARRAY),
+        false,
+        DexProgramClass::invalidChecksumRequest);
+  }
+
+  private static DexEncodedField createStaticField(DexField field, ComputedApiLevel apiLevel) {
+    return DexEncodedField.syntheticBuilder()
+        .setField(field)
+        .setAccessFlags(FieldAccessFlags.createPrivateStaticSynthetic())
+        .setApiLevel(apiLevel)
+        .build();
+  }
+
+  private static MethodAccessFlags createStaticFlags(int flags) {
+    return MethodAccessFlags.fromSharedAccessFlags(
+        flags | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC, false);
+  }
+
+  private static DexEncodedMethod createMethod(
+      DexMethod method, MethodAccessFlags accessFlags, CfCode code, ComputedApiLevel apiLevel) {
+    return DexEncodedMethod.syntheticBuilder()
+        .setMethod(method)
+        .setAccessFlags(accessFlags)
+        .setApiLevelForCode(apiLevel)
+        .setApiLevelForDefinition(apiLevel)
+        .setClassFileVersion(CfVersion.V1_6)
+        .setCode(code)
+        .build();
+  }
+
+  private CfCode createClassInitializerCode(int numberOfMethodIds) {
+    ImmutableList<CfInstruction> instructions =
+        ImmutableList.of(
+            new CfConstNumber(numberOfMethodIds, ValueType.INT),
+            new CfNewArray(dexItemFactory.byteArrayType),
+            new CfStaticFieldWrite(enteredField),
+            new CfConstNumber(numberOfMethodIds, ValueType.INT),
+            new CfNewArray(dexItemFactory.intArrayType),
+            new CfStaticFieldWrite(idsField),
+            new CfReturnVoid());
+    return new CfCode(type, 1, 0, instructions);
+  }
+
+  private CfCode createOnMethodEntryCode() {
+    CfLabel returnLabel = new CfLabel();
+    ImmutableList<CfInstruction> instructions =
+        ImmutableList.of(
+            // if (entered[id] == 0) {
+            new CfStaticFieldRead(enteredField),
+            new CfLoad(ValueType.INT, 0),
+            new CfArrayLoad(MemberType.BOOLEAN_OR_BYTE),
+            new CfIf(If.Type.NE, ValueType.INT, returnLabel),
+            //   record(id);
+            new CfLoad(ValueType.INT, 0),
+            new CfInvoke(Opcodes.INVOKESTATIC, getRecordMethod(), false),
+            // }
+            returnLabel,
+            createFrame(),
+            new CfReturnVoid());
+    return new CfCode(type, 2, 1, instructions);
+  }
+
+  private CfCode createRecordCode() {
+    CfLabel returnLabel = new CfLabel();
+    ImmutableList<CfInstruction> instructions =
+        ImmutableList.of(
+            // if (entered[id] == 0) {
+            new CfStaticFieldRead(enteredField),
+            new CfLoad(ValueType.INT, 0),
+            new CfArrayLoad(MemberType.BOOLEAN_OR_BYTE),
+            new CfIf(If.Type.NE, ValueType.INT, returnLabel),
+            //   entered[id] = 1;
+            new CfStaticFieldRead(enteredField),
+            new CfLoad(ValueType.INT, 0),
+            new CfConstNumber(1, ValueType.INT),
+            new CfArrayStore(MemberType.BOOLEAN_OR_BYTE),
+            //   ids[size] = id;
+            new CfStaticFieldRead(idsField),
+            new CfStaticFieldRead(sizeField),
+            new CfLoad(ValueType.INT, 0),
+            new CfArrayStore(MemberType.INT),
+            //   size = size + 1;
+            new CfStaticFieldRead(sizeField),
+            new CfConstNumber(1, ValueType.INT),
+            new CfArithmeticBinop(Opcode.Add, NumericType.INT),
+            new CfStaticFieldWrite(sizeField),
+            // }
+            returnLabel,
+            createFrame(),
+            new CfReturnVoid());
+    return new CfCode(type, 3, 1, instructions);
+  }
+
+  private CfFrame createFrame() {
+    return CfFrame.builder().appendLocal(FrameType.initialized(dexItemFactory.intType)).build();
+  }
+
+  private CfCode createDumpCode() {
+    DexType byteBufferType = dexItemFactory.createType("Ljava/nio/ByteBuffer;");
+    DexType intBufferType = dexItemFactory.createType("Ljava/nio/IntBuffer;");
+    DexType fileOutputStreamType = dexItemFactory.createType("Ljava/io/FileOutputStream;");
+    DexMethod allocate =
+        dexItemFactory.createMethod(
+            byteBufferType,
+            dexItemFactory.createProto(byteBufferType, dexItemFactory.intType),
+            "allocate");
+    DexMethod putInt =
+        dexItemFactory.createMethod(
+            byteBufferType,
+            dexItemFactory.createProto(byteBufferType, dexItemFactory.intType),
+            "putInt");
+    DexMethod asIntBuffer =
+        dexItemFactory.createMethod(
+            byteBufferType, dexItemFactory.createProto(intBufferType), "asIntBuffer");
+    DexMethod put =
+        dexItemFactory.createMethod(
+            intBufferType,
+            dexItemFactory.createProto(
+                intBufferType,
+                dexItemFactory.intArrayType,
+                dexItemFactory.intType,
+                dexItemFactory.intType),
+            "put");
+    DexMethod array =
+        dexItemFactory.createMethod(
+            byteBufferType, dexItemFactory.createProto(dexItemFactory.byteArrayType), "array");
+    DexMethod fileOutputStreamInit =
+        dexItemFactory.createInstanceInitializer(fileOutputStreamType, dexItemFactory.stringType);
+    DexMethod write =
+        dexItemFactory.createMethod(
+            fileOutputStreamType,
+            dexItemFactory.createProto(dexItemFactory.voidType, dexItemFactory.byteArrayType),
+            "write");
+    DexMethod close =
+        dexItemFactory.createMethod(
+            fileOutputStreamType, dexItemFactory.createProto(dexItemFactory.voidType), "close");
+    CfLabel tryStart = new CfLabel();
+    CfLabel tryEnd = new CfLabel();
+    CfLabel handler = new CfLabel();
+    ImmutableList<CfInstruction> instructions =
+        ImmutableList.of(
+            // ByteBuffer buffer = ByteBuffer.allocate((size + 2) * 4);
+            new CfStaticFieldRead(sizeField),
+            new CfConstNumber(2, ValueType.INT),
+            new CfArithmeticBinop(Opcode.Add, NumericType.INT),
+            new CfConstNumber(4, ValueType.INT),
+            new CfArithmeticBinop(Opcode.Mul, NumericType.INT),
+            new CfInvoke(Opcodes.INVOKESTATIC, allocate, false),
+            new CfStore(ValueType.OBJECT, 1),
+            // buffer.putInt(PROFILE_MAGIC);
+            new CfLoad(ValueType.OBJECT, 1),
+            new CfConstNumber(PROFILE_MAGIC, ValueType.INT),
+            new CfInvoke(Opcodes.INVOKEVIRTUAL, putInt, false),
+            new CfStackInstruction(CfStackInstruction.Opcode.Pop),
+            // buffer.putInt(size);
+            new CfLoad(ValueType.OBJECT, 1),
+            new CfStaticFieldRead(sizeField),
+            new CfInvoke(Opcodes.INVOKEVIRTUAL, putInt, false),
+            new CfStackInstruction(CfStackInstruction.Opcode.Pop),
+            // buffer.asIntBuffer().put(ids, 0, size);
+            new CfLoad(ValueType.OBJECT, 1),
+            new CfInvoke(Opcodes.INVOKEVIRTUAL, asIntBuffer, false),
+            new CfStaticFieldRead(idsField),
+            new CfConstNumber(0, ValueType.INT),
+            new CfStaticFieldRead(sizeField),
+            new CfInvoke(Opcodes.INVOKEVIRTUAL, put, false),
+            new CfStackInstruction(CfStackInstruction.Opcode.Pop),
+            // FileOutputStream out = new FileOutputStream(path);
+            new CfNew(fileOutputStreamType),
+            new CfStackInstruction(CfStackInstruction.Opcode.Dup),
+            new CfLoad(ValueType.OBJECT, 0),
+            new CfInvoke(Opcodes.INVOKESPECIAL, fileOutputStreamInit, false),
+            new CfStore(ValueType.OBJECT, 2),
+            // try {
+            tryStart,
+            //   out.write(buffer.array());
+            new CfLoad(ValueType.OBJECT, 2),
+            new CfLoad(ValueType.OBJECT, 1),
+            new CfInvoke(Opcodes.INVOKEVIRTUAL, array, false),
+            new CfInvoke(Opcodes.INVOKEVIRTUAL, write, false),
+            tryEnd,
+            // } finally {
+            //   out.close();
+            // }
+            new CfLoad(ValueType.OBJECT, 2),
+            new CfInvoke(Opcodes.INVOKEVIRTUAL, close, false),
+            new CfReturnVoid(),
+            // Exceptional exit of the finally block.
+            handler,
+            CfFrame.builder()
+                .appendLocal(FrameType.initialized(dexItemFactory.stringType))
+                .appendLocal(FrameType.initialized(byteBufferType))
+                .appendLocal(FrameType.initialized(fileOutputStreamType))
+                .push(FrameType.initialized(dexItemFactory.throwableType))
+                .build(),
+            new CfStore(ValueType.OBJECT, 3),
+            new CfLoad(ValueType.OBJECT, 2),
+            new CfInvoke(Opcodes.INVOKEVIRTUAL, close, false),
+            new CfLoad(ValueType.OBJECT, 3),
+            new CfThrow());
+    CfTryCatch tryCatch =
+        new CfTryCatch(
+            tryStart,
+            tryEnd,
+            ImmutableList.of(dexItemFactory.throwableType),
+            ImmutableList.of(handler));
+    return new CfCode(type, 4, 4, instructions, ImmutableList.of(tryCatch), ImmutableList.of());
+  }
+}
@@ -57,11 +57,13 @@ import com.android.tools.r8.utils.Timing;
 import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -75,6 +77,8 @@ public class AppView<T extends AppInfo> implements DexDefinitionSupplier, Librar
 
   private T appInfo;
   private AppInfoWithClassHierarchy appInfoForDesugaring;
+  private ProgramItemNumbering programItemNumbering;
+  private final AtomicInteger programMethodNumberingCount = new AtomicInteger();
   private AppServices appServices;
   private AssumeInfoCollection assumeInfoCollection = AssumeInfoCollection.builder().build();
   private final DontWarnConfiguration dontWarnConfiguration;
@@ -273,6 +277,33 @@ public class AppView<T extends AppInfo> implements DexDefinitionSupplier, Librar
     return appInfoForDesugaring;
   }
 
+  /**
+   * Returns a dense numbering of the program classes of the current application. The numbering is
+   * recomputed on the first call after the app info has changed, e.g., due to pruning.
+   */
+  public synchronized ProgramItemNumbering programItemNumbering() {
+    if (programItemNumbering == null) {
+      programItemNumbering = ProgramItemNumbering.create(app().classes());
+    }
+    return programItemNumbering;
+  }
+
+  /**
+   * Returns a dense numbering of the methods in the given disjoint groups. Creating a numbering
+   * supersedes the previously created numbering, since the ids are stored on the methods.
+   */
+  public ProgramMethodNumbering createProgramMethodNumbering(
+      Iterable<? extends Collection<ProgramMethod>> disjointGroups) {
+    return ProgramMethodNumbering.create(disjointGroups, programMethodNumberingCount);
+  }
+
+  private synchronized void unsetProgramItemNumbering() {
+    if (programItemNumbering != null) {
+      programItemNumbering.markSuperseded();
+      programItemNumbering = null;
+    }
+  }
+
   private void unsetAppInfoForDesugaring() {
     appInfoForDesugaring = null;
   }
@@ -284,6 +315,7 @@ public class AppView<T extends AppInfo> implements DexDefinitionSupplier, Librar
     unsetAppInfoForDesugaring();
     if (appInfo != previous) {
       previous.markObsolete();
+      unsetProgramItemNumbering();
     }
     if (appInfo.hasLiveness()) {
       keepInfo = appInfo.withLiveness().getKeepInfo();
@@ -492,6 +524,14 @@ public class AppView<T extends AppInfo> implements DexDefinitionSupplier, Librar
   /** @return true if the graph lens changed, otherwise false. */
   public boolean setGraphLens(GraphLens graphLens) {
     if (graphLens != this.graphLens) {
+      // Lookups start from the new graph lens, so the lookup caches of the replaced lens would only
+      // retain memory.
+      if (this.graphLens.isNonIdentityLens()) {
+        this.graphLens.asNonIdentityLens().clearLookupCaches();
+      }
+      if (options().printTimes && graphLens.isNonIdentityLens()) {
+        graphLens.asNonIdentityLens().enableLookupStatistics();
+      }
       this.graphLens = graphLens;
 
       // TODO(b/202368283): Currently, we always set an applied lens or a clear code rewriting lens
@@ -861,6 +901,8 @@ public class AppView<T extends AppInfo> implements DexDefinitionSupplier, Librar
       }
     }
 
+    // The lookup caches of the lenses above the first unapplied lens depend on its parent lens.
+    clearLookupCachesAbove(lens, firstUnappliedLens);
     firstUnappliedLens.withAlternativeParentLens(
         newMemberRebindingLens,
         () -> {
@@ -888,6 +930,16 @@ public class AppView<T extends AppInfo> implements DexDefinitionSupplier, Librar
             appView.setRootSet(appView.rootSet().rewrittenWithLens(lens));
           }
         });
+    clearLookupCachesAbove(lens, firstUnappliedLens);
+  }
+
+  private static void clearLookupCachesAbove(
+      NonIdentityGraphLens lens, NonIdentityGraphLens stoppingLens) {
+    NonIdentityGraphLens current = lens;
+    while (current != stoppingLens) {
+      current.clearLookupCaches();
+      current = current.getPrevious().asNonIdentityLens();
+    }
   }
 
   public void setAlreadyLibraryDesugared(Set<DexType> alreadyLibraryDesugared) {
@@ -44,6 +44,7 @@ import com.android.tools.r8.optimize.interfaces.analysis.ConcreteCfFrameState;
 import com.android.tools.r8.origin.Origin;
 import com.android.tools.r8.shaking.AppInfoWithLiveness;
 import com.android.tools.r8.utils.InternalOptions;
+import com.android.tools.r8.utils.OptionalBool;
 import com.android.tools.r8.utils.TraversalContinuation;
 import com.android.tools.r8.utils.structural.CompareToVisitor;
 import com.android.tools.r8.utils.structural.HashingVisitor;
@@ -150,6 +151,9 @@ public class CfCode extends Code implements CfWritableCode, StructuralItem<CfCod
   private final List<CfTryCatch> tryCatchRanges;
   private final List<LocalVariableInfo> localVariables;
   private StackMapStatus stackMapStatus = StackMapStatus.NOT_VERIFIED;
+  // The lenses that the frames were last verified for, which avoids verifying the frames each time
+  // the code is inlined.
+  private volatile FramesVerifiedForLens framesVerifiedForLens = null;
   private final com.android.tools.r8.position.Position diagnosticPosition;
   private final BytecodeMetadata<CfInstruction> metadata;
 
@@ -291,6 +295,7 @@ public class CfCode extends Code implements CfWritableCode, StructuralItem<CfCod
 
   public void setInstructions(List<CfInstruction> instructions) {
     this.instructions = instructions;
+    this.framesVerifiedForLens = null;
   }
 
   public List<LocalVariableInfo> getLocalVariables() {
@@ -538,7 +543,7 @@ public class CfCode extends Code implements CfWritableCode, StructuralItem<CfCod
     assert valueNumberGenerator != null;
     assert callerPosition != null;
     assert protoChanges != null;
-    verifyFramesOrRemove(method, appView, codeLens);
+    prepareForInlining(method, appView, codeLens);
     return internalBuildPossiblyWithLocals(
         context,
         method,
@@ -551,6 +556,35 @@ public class CfCode extends Code implements CfWritableCode, StructuralItem<CfCod
         new ThrowingMethodConversionOptions(appView.options()));
   }
 
+  @Override
+  public OptionalBool prepareForInlining(
+      ProgramMethod method, AppView<?> appView, GraphLens codeLens) {
+    GraphLens graphLens = appView.graphLens();
+    FramesVerifiedForLens verified = framesVerifiedForLens;
+    if (verified != null && verified.graphLens == graphLens && verified.codeLens == codeLens) {
+      return OptionalBool.TRUE;
+    }
+    verifyFramesOrRemove(method, appView, codeLens);
+    framesVerifiedForLens = new FramesVerifiedForLens(graphLens, codeLens);
+    return OptionalBool.FALSE;
+  }
+
+  @Override
+  public void clearInliningCache() {
+    framesVerifiedForLens = null;
+  }
+
+  private static class FramesVerifiedForLens {
+
+    private final GraphLens graphLens;
+    private final GraphLens codeLens;
+
+    FramesVerifiedForLens(GraphLens graphLens, GraphLens codeLens) {
+      this.graphLens = graphLens;
+      this.codeLens = codeLens;
+    }
+  }
+
   private void verifyFramesOrRemove(ProgramMethod method, AppView<?> appView, GraphLens codeLens) {
     stackMapStatus = verifyFrames(method, appView, codeLens);
     if (!stackMapStatus.isValid()) {
@@ -15,6 +15,7 @@ import com.android.tools.r8.ir.code.Position;
 import com.android.tools.r8.ir.conversion.MethodConversionOptions.MutableMethodConversionOptions;
 import com.android.tools.r8.naming.ClassNameMapper;
 import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.utils.OptionalBool;
 import it.unimi.dsi.fastutil.ints.Int2ReferenceMap;
 
 public abstract class Code extends CachedHashValueDexItem {
@@ -54,8 +55,35 @@ public abstract class Code extends CachedHashValueDexItem {
     return null;
   }
 
+  /**
+   * Computes the parts of the inlining IR of this code that do not depend on the call site, unless
+   * they are already cached on this code for the given lens. Returns true if the cached state was
+   * reused, false if it was computed, and unknown if this code has nothing to cache.
+   */
+  public OptionalBool prepareForInlining(
+      ProgramMethod method, AppView<?> appView, GraphLens codeLens) {
+    return OptionalBool.unknown();
+  }
+
+  /** Drops the state cached by {@link #prepareForInlining}, once this code is no longer inlined. */
+  public void clearInliningCache() {
+    // Intentionally empty.
+  }
+
   public abstract void registerCodeReferences(ProgramMethod method, UseRegistry registry);
 
+  /**
+   * Same as {@link #registerCodeReferences} except that code that has not been parsed yet is
+   * scanned directly, without materializing its instructions.
+   *
+   * <p>This should only be used when the code is not needed after the registration, and with
+   * registries that do not inspect the instructions, since no instruction or instruction iterator
+   * is passed to the registry when scanning.
+   */
+  public void registerCodeReferencesWithoutParsing(ProgramMethod method, UseRegistry registry) {
+    registerCodeReferences(method, registry);
+  }
+
   public abstract void registerCodeReferencesForDesugaring(
       ClasspathMethod method, UseRegistry registry);
 
@@ -0,0 +1,71 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.graph;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded cache of the decoded values of {@link DexString}s, used for matching the member names of
+ * keep rules against the program when computing the root set.
+ *
+ * <p>The cache is two-way set associative on the (cached) hash code of the DexString. A miss
+ * replaces the older of the two entries in the set of the string, so two strings that collide on
+ * the same set do not evict each other. The capacity is chosen from the expected number of
+ * distinct strings, such that matching each rule against all members of the program in turn does
+ * not repeatedly evict the names before they are matched by the next rule. Entries are immutable,
+ * so the cache can be read and written concurrently without locking; a lost update only costs an
+ * additional decoding.
+ */
+public class DecodedStringCache {
+
+  private static final int MIN_CAPACITY = 1 << 4;
+  private static final int MAX_CAPACITY = 1 << 20;
+
+  private final AtomicReferenceArray<Entry> entries;
+  private final int setMask;
+
+  public DecodedStringCache(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while ((capacity >> 1) < expectedSize && capacity < MAX_CAPACITY) {
+      capacity <<= 1;
+    }
+    this.entries = new AtomicReferenceArray<>(capacity);
+    this.setMask = (capacity >> 1) - 1;
+  }
+
+  public int capacity() {
+    return entries.length();
+  }
+
+  public String lookupString(DexString string) {
+    int hash = string.hashCode();
+    int index = ((hash ^ (hash >>> 16)) & setMask) << 1;
+    Entry first = entries.get(index);
+    if (first != null && first.string == string) {
+      return first.decoded;
+    }
+    Entry second = entries.get(index + 1);
+    if (second != null && second.string == string) {
+      return second.decoded;
+    }
+    String decoded = string.toString();
+    // The first entry of each set is the most recently inserted one.
+    if (first != null) {
+      entries.set(index + 1, first);
+    }
+    entries.set(index, new Entry(string, decoded));
+    return decoded;
+  }
+
+  private static class Entry {
+
+    private final DexString string;
+    private final String decoded;
+
+    Entry(DexString string, String decoded) {
+      this.string = string;
+      this.decoded = decoded;
+    }
+  }
+}
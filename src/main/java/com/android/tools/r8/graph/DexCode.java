@@ -31,6 +31,7 @@ import com.android.tools.r8.ir.conversion.MethodConversionOptions.ThrowingMethod
 import com.android.tools.r8.naming.ClassNameMapper;
 import com.android.tools.r8.origin.Origin;
 import com.android.tools.r8.utils.ArrayUtils;
+import com.android.tools.r8.utils.OptionalBool;
 import com.android.tools.r8.utils.StringUtils;
 import com.android.tools.r8.utils.structural.Equatable;
 import com.android.tools.r8.utils.structural.HashCodeVisitor;
@@ -46,6 +47,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -65,6 +67,8 @@ public class DexCode extends Code implements DexWritableCode, StructuralItem<Dex
   public DexString highestSortingString;
   private DexDebugInfo debugInfo;
   private DexDebugInfoForWriting debugInfoForWriting;
+  // The decoded debug entries, which avoids decoding the debug info each time the code is inlined.
+  private volatile DebugEntriesForMethod debugEntriesForInlining = null;
 
   private final BytecodeMetadata<DexInstruction> metadata;
 
@@ -232,6 +236,7 @@ public class DexCode extends Code implements DexWritableCode, StructuralItem<Dex
 
   public void setDebugInfo(DexDebugInfo debugInfo) {
     this.debugInfo = debugInfo;
+    this.debugEntriesForInlining = null;
     if (debugInfoForWriting != null) {
       debugInfoForWriting = null;
     }
@@ -397,6 +402,7 @@ public class DexCode extends Code implements DexWritableCode, StructuralItem<Dex
       Position callerPosition,
       Origin origin,
       RewrittenPrototypeDescription protoChanges) {
+    prepareForInlining(method, appView, codeLens);
     DexSourceCode source =
         new DexSourceCode(
             this,
@@ -409,6 +415,55 @@ public class DexCode extends Code implements DexWritableCode, StructuralItem<Dex
         .build(context, new ThrowingMethodConversionOptions(appView.options()));
   }
 
+  @Override
+  public OptionalBool prepareForInlining(
+      ProgramMethod method, AppView<?> appView, GraphLens codeLens) {
+    if (debugInfo == null) {
+      return OptionalBool.unknown();
+    }
+    DexMethod originalMethod = appView.graphLens().getOriginalMethodSignature(method.getReference());
+    if (getCachedDebugEntries(originalMethod) != null) {
+      return OptionalBool.TRUE;
+    }
+    EventBasedDebugInfo info = DexDebugInfo.convertToEventBased(this, appView.dexItemFactory());
+    if (info == null) {
+      return OptionalBool.unknown();
+    }
+    debugEntriesForInlining =
+        new DebugEntriesForMethod(debugInfo, originalMethod, info.computeEntries(originalMethod));
+    return OptionalBool.FALSE;
+  }
+
+  @Override
+  public void clearInliningCache() {
+    debugEntriesForInlining = null;
+  }
+
+  /**
+   * Returns the debug entries for the given original method if they have been cached by {@link
+   * #prepareForInlining}, otherwise null.
+   */
+  public List<DexDebugEntry> getCachedDebugEntries(DexMethod originalMethod) {
+    DebugEntriesForMethod cached = debugEntriesForInlining;
+    if (cached != null && cached.debugInfo == debugInfo && cached.method == originalMethod) {
+      return cached.entries;
+    }
+    return null;
+  }
+
+  private static class DebugEntriesForMethod {
+
+    private final DexDebugInfo debugInfo;
+    private final DexMethod method;
+    private final List<DexDebugEntry> entries;
+
+    DebugEntriesForMethod(DexDebugInfo debugInfo, DexMethod method, List<DexDebugEntry> entries) {
+      this.debugInfo = debugInfo;
+      this.method = method;
+      this.entries = entries;
+    }
+  }
+
   @Override
   public void registerCodeReferences(ProgramMethod method, UseRegistry registry) {
     internalRegisterCodeReferences(method, registry);
@@ -162,6 +162,9 @@ public class DexEncodedMethod extends DexEncodedMember<DexEncodedMethod, DexMeth
 
   private Int2ReferenceMap<DebugLocalInfo> parameterInfo = NO_PARAMETER_INFO;
 
+  // The id of this method in the most recent ProgramMethodNumbering that contains it, or -1.
+  private int programMethodId = -1;
+
   // This flag indicates the current instance is no longer up-to-date as another instance was
   // created based on this. Any further (public) operations on this instance will raise an error
   // to catch potential bugs due to the inconsistency (e.g., http://b/111893131)
@@ -184,6 +187,14 @@ public class DexEncodedMethod extends DexEncodedMember<DexEncodedMethod, DexMeth
     obsolete = true;
   }
 
+  int getProgramMethodId() {
+    return programMethodId;
+  }
+
+  void setProgramMethodId(int programMethodId) {
+    this.programMethodId = programMethodId;
+  }
+
   @Override
   public MethodAccessFlags getAccessFlags() {
     return accessFlags;
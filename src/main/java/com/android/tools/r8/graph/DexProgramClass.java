@@ -59,6 +59,9 @@ public class DexProgramClass extends DexClass
 
   private SyntheticMarker syntheticMarker;
 
+  // The id of this class in the most recent ProgramItemNumbering of the application, or -1.
+  private int programItemId = -1;
+
   public DexProgramClass(
       DexType type,
       Kind originKind,
@@ -193,6 +196,14 @@ public class DexProgramClass extends DexClass
     return false;
   }
 
+  int getProgramItemId() {
+    return programItemId;
+  }
+
+  void setProgramItemId(int programItemId) {
+    this.programItemId = programItemId;
+  }
+
   @Override
   public StructuralMapping<DexProgramClass> getStructuralMapping() {
     return DexProgramClass::specify;
@@ -14,6 +14,7 @@ import com.android.tools.r8.utils.structural.CompareToVisitor;
 import com.android.tools.r8.utils.structural.HashingVisitor;
 import com.android.tools.r8.utils.structural.StructuralMapping;
 import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.NoSuchElementException;
 
@@ -48,6 +49,34 @@ public class DexString extends IndexedDexItem implements NamingLensComparable<De
     return size;
   }
 
+  /**
+   * Returns true if all characters of this string are encoded as a single byte, i.e., the string
+   * only contains characters in the range [\u0001, \u007f].
+   *
+   * <p>Such strings can be compared byte-wise against a {@link String} and decoded without going
+   * through an intermediate {@code char[]}.
+   */
+  public boolean isAscii() {
+    // MUTF-8 encodes all other characters (including \u0000) using two or three bytes.
+    return content.length == size + 1;
+  }
+
+  /** Returns true if the decoded value of this string equals {@code string}. */
+  public boolean equalsString(String string) {
+    if (size != string.length()) {
+      return false;
+    }
+    if (!isAscii()) {
+      return toString().equals(string);
+    }
+    for (int i = 0; i < size; i++) {
+      if (content[i] != string.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   public StructuralMapping<DexString> getStructuralMapping() {
     // Structural accept is never accessed as all accept methods are defined directly.
@@ -146,6 +175,10 @@ public class DexString extends IndexedDexItem implements NamingLensComparable<De
   }
 
   private String decode() throws UTFDataFormatException {
+    if (isAscii()) {
+      // Avoid the intermediate char[] and let the String use the compact Latin-1 representation.
+      return new String(content, 0, size, StandardCharsets.ISO_8859_1);
+    }
     char[] out = new char[size];
     int decodedLength = decodePrefix(out);
     return new String(out, 0, decodedLength);
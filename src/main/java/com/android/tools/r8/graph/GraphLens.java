@@ -17,6 +17,7 @@ import com.android.tools.r8.utils.InternalOptions;
 import com.android.tools.r8.utils.IterableUtils;
 import com.android.tools.r8.utils.ListUtils;
 import com.android.tools.r8.utils.SetUtils;
+import com.android.tools.r8.utils.Timing;
 import com.android.tools.r8.utils.collections.BidirectionalManyToOneRepresentativeHashMap;
 import com.android.tools.r8.utils.collections.BidirectionalManyToOneRepresentativeMap;
 import com.android.tools.r8.utils.collections.MutableBidirectionalManyToOneRepresentativeMap;
@@ -32,6 +33,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -394,6 +396,14 @@ public abstract class GraphLens {
 
   public abstract DexType lookupClassType(DexType type, GraphLens applied);
 
+  /**
+   * Lookup of a class type through the entire lens chain, without consulting the lookup caches of
+   * the lenses in the chain. Used to fill the cache of the lens where the lookup started.
+   */
+  protected DexType internalLookupClassType(DexType type) {
+    return lookupClassType(type);
+  }
+
   public DexType lookupType(DexType type) {
     return lookupType(type, getIdentityLens());
   }
@@ -544,6 +554,27 @@ public abstract class GraphLens {
     return IdentityGraphLens.getInstance();
   }
 
+  /** Records the depth of the lens chain and the lookup statistics of the lenses in the chain. */
+  public void recordLookupStatistics(Timing timing) {
+    int depth = 0;
+    long classTypeLookups = 0;
+    long classTypeCacheMisses = 0;
+    GraphLens current = this;
+    while (current.isNonIdentityLens()) {
+      NonIdentityGraphLens lens = current.asNonIdentityLens();
+      depth++;
+      ClassTypeLookupStatistics statistics = lens.classTypeLookupStatistics;
+      if (statistics != null) {
+        classTypeLookups += statistics.lookups.sum();
+        classTypeCacheMisses += statistics.cacheMisses.sum();
+      }
+      current = lens.getPrevious();
+    }
+    timing.count("Graph lens chain depth", depth);
+    timing.count("Graph lens class type lookups", classTypeLookups);
+    timing.count("Graph lens class type lookup cache misses", classTypeCacheMisses);
+  }
+
   public boolean hasCodeRewritings() {
     return true;
   }
@@ -796,6 +827,12 @@ public abstract class GraphLens {
     return true;
   }
 
+  private static class ClassTypeLookupStatistics {
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+  }
+
   public abstract static class NonIdentityGraphLens extends GraphLens {
 
     private final DexItemFactory dexItemFactory;
@@ -803,6 +840,13 @@ public abstract class GraphLens {
 
     private final Map<DexType, DexType> arrayTypeCache = new ConcurrentHashMap<>();
 
+    // Cache of class type lookups through the entire lens chain. This is effectively a lazily
+    // computed flattening of the type mappings of the lens chain ending in this lens.
+    private final Map<DexType, DexType> classTypeCache = new ConcurrentHashMap<>();
+
+    // Only recorded when timing is printed, see enableLookupStatistics().
+    private ClassTypeLookupStatistics classTypeLookupStatistics;
+
     public NonIdentityGraphLens(AppView<?> appView) {
       this(appView.dexItemFactory(), appView.graphLens());
     }
@@ -851,8 +895,34 @@ public abstract class GraphLens {
     public final void withAlternativeParentLens(GraphLens lens, Action action) {
       GraphLens oldParent = getPrevious();
       previousLens = lens;
+      clearLookupCaches();
       action.execute();
       previousLens = oldParent;
+      clearLookupCaches();
+    }
+
+    /**
+     * Clears the lookup caches of this lens. Must be called when the lens chain below this lens is
+     * changed, since the cached lookups depend on the entire lens chain.
+     */
+    public final void clearLookupCaches() {
+      arrayTypeCache.clear();
+      classTypeCache.clear();
+    }
+
+    /** Starts counting the class type lookups in this lens and the misses in its lookup cache. */
+    public final void enableLookupStatistics() {
+      if (classTypeLookupStatistics == null) {
+        classTypeLookupStatistics = new ClassTypeLookupStatistics();
+      }
+    }
+
+    /**
+     * Returns true if lookups in this lens can be cached. This must only be false for lenses that
+     * are backed by mutable state.
+     */
+    protected boolean isLookupCacheEnabled() {
+      return true;
     }
 
     @Override
@@ -903,7 +973,27 @@ public abstract class GraphLens {
       if (this == applied) {
         return type;
       }
-      return internalDescribeLookupClassType(getPrevious().lookupClassType(type));
+      if (!applied.isIdentityLens() || !isLookupCacheEnabled()) {
+        return internalLookupClassType(type);
+      }
+      ClassTypeLookupStatistics statistics = classTypeLookupStatistics;
+      if (statistics != null) {
+        statistics.lookups.increment();
+      }
+      DexType result = classTypeCache.get(type);
+      if (result == null) {
+        if (statistics != null) {
+          statistics.cacheMisses.increment();
+        }
+        result = internalLookupClassType(type);
+        classTypeCache.put(type, result);
+      }
+      return result;
+    }
+
+    @Override
+    protected final DexType internalLookupClassType(DexType type) {
+      return internalDescribeLookupClassType(getPrevious().internalLookupClassType(type));
     }
 
     @Override
@@ -18,31 +18,68 @@ import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+/**
+ * Maps each program class to its immediate program subclasses.
+ *
+ * <p>The subclasses of the classes in the {@link ProgramItemNumbering} of the application are
+ * stored in a list indexed by the id of the class, which avoids allocating a hash map entry for
+ * each class with subclasses. Classes that are not part of the numbering, such as pending
+ * synthetics, are stored in a hash map.
+ */
 public class ImmediateProgramSubtypingInfo {
 
   private final AppView<? extends AppInfoWithClassHierarchy> appView;
-  private final Map<DexProgramClass, List<DexProgramClass>> immediateSubtypes;
+  private final ProgramItemNumbering numbering;
+  private final List<List<DexProgramClass>> immediateSubtypes;
+  private final Map<DexProgramClass, List<DexProgramClass>> unnumberedImmediateSubtypes;
 
   private ImmediateProgramSubtypingInfo(
       AppView<? extends AppInfoWithClassHierarchy> appView,
-      Map<DexProgramClass, List<DexProgramClass>> immediateSubtypes) {
+      ProgramItemNumbering numbering,
+      List<List<DexProgramClass>> immediateSubtypes,
+      Map<DexProgramClass, List<DexProgramClass>> unnumberedImmediateSubtypes) {
     this.appView = appView;
+    this.numbering = numbering;
     this.immediateSubtypes = immediateSubtypes;
+    this.unnumberedImmediateSubtypes = unnumberedImmediateSubtypes;
   }
 
   public static ImmediateProgramSubtypingInfo create(
       AppView<? extends AppInfoWithClassHierarchy> appView) {
-    Map<DexProgramClass, List<DexProgramClass>> immediateSubtypes = new IdentityHashMap<>();
+    ProgramItemNumbering numbering = appView.programItemNumbering();
+    List<List<DexProgramClass>> immediateSubtypes =
+        new ArrayList<>(Collections.nCopies(numbering.numberOfClasses(), Collections.emptyList()));
+    Map<DexProgramClass, List<DexProgramClass>> unnumberedImmediateSubtypes =
+        new IdentityHashMap<>();
     for (DexProgramClass clazz : appView.appInfo().classes()) {
       clazz.forEachImmediateSupertype(
           supertype -> {
             DexProgramClass superclass = asProgramClassOrNull(appView.definitionFor(supertype));
-            if (superclass != null) {
-              immediateSubtypes.computeIfAbsent(superclass, ignoreKey(ArrayList::new)).add(clazz);
+            if (superclass == null) {
+              return;
+            }
+            int superclassId = numbering.getClassId(superclass);
+            if (superclassId >= 0) {
+              List<DexProgramClass> subclasses = immediateSubtypes.get(superclassId);
+              if (subclasses.isEmpty()) {
+                subclasses = new ArrayList<>();
+                immediateSubtypes.set(superclassId, subclasses);
+              }
+              subclasses.add(clazz);
+            } else {
+              unnumberedImmediateSubtypes
+                  .computeIfAbsent(superclass, ignoreKey(ArrayList::new))
+                  .add(clazz);
             }
           });
     }
-    return new ImmediateProgramSubtypingInfo(appView, immediateSubtypes);
+    return new ImmediateProgramSubtypingInfo(
+        appView,
+        numbering,
+        immediateSubtypes,
+        unnumberedImmediateSubtypes.isEmpty()
+            ? Collections.emptyMap()
+            : unnumberedImmediateSubtypes);
   }
 
   public void forEachImmediateSuperClass(DexClass clazz, Consumer<? super DexClass> consumer) {
@@ -113,6 +150,9 @@ public class ImmediateProgramSubtypingInfo {
   }
 
   public List<DexProgramClass> getSubclasses(DexProgramClass clazz) {
-    return immediateSubtypes.getOrDefault(clazz, Collections.emptyList());
+    int id = numbering.getClassId(clazz);
+    return id >= 0
+        ? immediateSubtypes.get(id)
+        : unnumberedImmediateSubtypes.getOrDefault(clazz, Collections.emptyList());
   }
 }
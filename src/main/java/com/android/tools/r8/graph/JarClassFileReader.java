@@ -1136,5 +1136,7 @@ public class JarClassFileReader<T extends DexClass> {
     public byte[] classCache;
     public DexClass owner;
     public final List<Code> codeList = new ArrayList<>();
+    // Set when the code references of all methods have been scanned without parsing the code.
+    public boolean codeReferencesScanned;
   }
 }
@@ -53,6 +53,7 @@ import com.android.tools.r8.errors.Unimplemented;
 import com.android.tools.r8.errors.Unreachable;
 import com.android.tools.r8.graph.CfCode.LocalVariableInfo;
 import com.android.tools.r8.graph.JarClassFileReader.ReparseContext;
+import com.android.tools.r8.graph.UseRegistry.MethodHandleUse;
 import com.android.tools.r8.graph.proto.RewrittenPrototypeDescription;
 import com.android.tools.r8.ir.code.IRCode;
 import com.android.tools.r8.ir.code.If;
@@ -73,8 +74,10 @@ import com.android.tools.r8.shaking.ProguardKeepAttributes;
 import com.android.tools.r8.utils.DescriptorUtils;
 import com.android.tools.r8.utils.ExceptionUtils;
 import com.android.tools.r8.utils.InternalOptions;
+import com.android.tools.r8.utils.OptionalBool;
 import com.android.tools.r8.utils.Reporter;
 import com.android.tools.r8.utils.StringDiagnostic;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ReferenceMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
@@ -116,6 +119,8 @@ public class LazyCfCode extends Code {
   private CfCode code;
   private ReparseContext context;
   private boolean reachabilitySensitive = false;
+  // The references found by scanning the class file, see registerCodeReferencesWithoutParsing.
+  private ScannedReferences scannedReferences;
 
   public void markReachabilitySensitive() {
     assert code == null;
@@ -274,11 +279,68 @@ public class LazyCfCode extends Code {
             protoChanges);
   }
 
+  @Override
+  public OptionalBool prepareForInlining(
+      ProgramMethod method, AppView<?> appView, GraphLens codeLens) {
+    return asCfCode().prepareForInlining(method, appView, codeLens);
+  }
+
+  @Override
+  public void clearInliningCache() {
+    if (code != null) {
+      code.clearInliningCache();
+    }
+  }
+
   @Override
   public void registerCodeReferences(ProgramMethod method, UseRegistry registry) {
     asCfCode().registerCodeReferences(method, registry);
   }
 
+  @Override
+  public void registerCodeReferencesWithoutParsing(ProgramMethod method, UseRegistry registry) {
+    ScannedReferences references = takeScannedReferences();
+    if (references == null) {
+      registerCodeReferences(method, registry);
+      return;
+    }
+    ExceptionUtils.withOriginAttachmentHandler(
+        origin, () -> references.register(registry, method));
+  }
+
+  /**
+   * Returns the references of this code found by scanning the class file, or null if the code has
+   * already been parsed or its references have already been taken.
+   *
+   * <p>The first call for a class scans all of its methods in a single pass over the class file,
+   * and hands the references of each method to the corresponding code. The references are only
+   * handed out once, such that they are not retained after the method has been traced.
+   */
+  private ScannedReferences takeScannedReferences() {
+    ReparseContext context = this.context;
+    JarApplicationReader application = this.application;
+    if (code != null || context == null || application == null) {
+      return null;
+    }
+    synchronized (context) {
+      if (!context.codeReferencesScanned) {
+        context.codeReferencesScanned = true;
+        ExceptionUtils.withOriginAttachmentHandler(
+            origin,
+            () ->
+                new ClassReader(context.classCache)
+                    .accept(
+                        new ReferenceScanningClassVisitor(context, application),
+                        application.options.canUseInputStackMaps()
+                            ? ClassReader.EXPAND_FRAMES | ClassReader.SKIP_DEBUG
+                            : ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG));
+      }
+      ScannedReferences references = scannedReferences;
+      scannedReferences = null;
+      return references;
+    }
+  }
+
   @Override
   public void registerCodeReferencesForDesugaring(ClasspathMethod method, UseRegistry registry) {
     asCfCode().registerCodeReferencesForDesugaring(method, registry);
@@ -364,6 +426,412 @@ public class LazyCfCode extends Code {
     }
   }
 
+  /**
+   * The references of a method found by scanning the class file, which are reported to a registry
+   * on demand.
+   *
+   * <p>Each reference is stored as a kind and the referenced item, such that no object is allocated
+   * per reference.
+   */
+  private static class ScannedReferences {
+
+    private static final byte TYPE_REFERENCE = 0;
+    private static final byte NEW_INSTANCE = 1;
+    private static final byte CHECK_CAST = 2;
+    private static final byte INSTANCE_OF = 3;
+    private static final byte INSTANCE_FIELD_READ = 4;
+    private static final byte INSTANCE_FIELD_WRITE = 5;
+    private static final byte STATIC_FIELD_READ = 6;
+    private static final byte STATIC_FIELD_WRITE = 7;
+    private static final byte INVOKE_INTERFACE = 8;
+    private static final byte INVOKE_SPECIAL = 9;
+    private static final byte INVOKE_SPECIAL_INTERFACE = 10;
+    private static final byte INVOKE_STATIC = 11;
+    private static final byte INVOKE_STATIC_INTERFACE = 12;
+    private static final byte INVOKE_VIRTUAL = 13;
+    private static final byte CALL_SITE = 14;
+    private static final byte PROTO = 15;
+    private static final byte CONST_CLASS = 16;
+    private static final byte METHOD_HANDLE = 17;
+    private static final byte CONST_DYNAMIC = 18;
+    private static final byte EXCEPTION_GUARD = 19;
+    private static final byte INVALID_CLASS_INITIALIZER_CALL = 20;
+    // The type of an uninitialized-new value in a frame, which is only known once the new-instance
+    // instruction of the value has been scanned. The item is the label of the instruction.
+    private static final byte UNINITIALIZED_NEW_TYPE = 21;
+
+    private final ByteArrayList kinds = new ByteArrayList();
+    private final ArrayList<Object> items = new ArrayList<>();
+    private boolean hasUninitializedNewTypes = false;
+
+    void add(byte kind, Object item) {
+      kinds.add(kind);
+      items.add(item);
+      if (kind == UNINITIALIZED_NEW_TYPE) {
+        hasUninitializedNewTypes = true;
+      }
+    }
+
+    void finish(Map<Label, DexType> uninitializedNewTypes) {
+      if (hasUninitializedNewTypes) {
+        int size = 0;
+        for (int i = 0; i < kinds.size(); i++) {
+          byte kind = kinds.getByte(i);
+          Object item = items.get(i);
+          if (kind == UNINITIALIZED_NEW_TYPE) {
+            item = uninitializedNewTypes.get(item);
+            if (item == null) {
+              // The label does not denote a new-instance instruction of this method.
+              continue;
+            }
+            kind = TYPE_REFERENCE;
+          }
+          kinds.set(size, kind);
+          items.set(size, item);
+          size++;
+        }
+        kinds.size(size);
+        items.subList(size, items.size()).clear();
+        hasUninitializedNewTypes = false;
+      }
+      kinds.trim();
+      items.trimToSize();
+    }
+
+    void register(UseRegistry<?> registry, ProgramMethod context) {
+      assert !hasUninitializedNewTypes;
+      for (int i = 0; i < kinds.size(); i++) {
+        if (registry.getTraversalContinuation().shouldBreak()) {
+          return;
+        }
+        Object item = items.get(i);
+        switch (kinds.getByte(i)) {
+          case TYPE_REFERENCE:
+            registry.registerTypeReference((DexType) item);
+            break;
+          case NEW_INSTANCE:
+            registry.registerNewInstance((DexType) item);
+            break;
+          case CHECK_CAST:
+            registry.registerCheckCast((DexType) item, false);
+            break;
+          case INSTANCE_OF:
+            registry.registerInstanceOf((DexType) item);
+            break;
+          case INSTANCE_FIELD_READ:
+            registry.registerInstanceFieldRead((DexField) item);
+            break;
+          case INSTANCE_FIELD_WRITE:
+            registry.registerInstanceFieldWrite((DexField) item);
+            break;
+          case STATIC_FIELD_READ:
+            registry.registerStaticFieldRead((DexField) item);
+            break;
+          case STATIC_FIELD_WRITE:
+            registry.registerStaticFieldWrite((DexField) item);
+            break;
+          case INVOKE_INTERFACE:
+            registry.registerInvokeInterface((DexMethod) item);
+            break;
+          case INVOKE_SPECIAL:
+            registry.registerInvokeSpecial((DexMethod) item, false);
+            break;
+          case INVOKE_SPECIAL_INTERFACE:
+            registry.registerInvokeSpecial((DexMethod) item, true);
+            break;
+          case INVOKE_STATIC:
+            registry.registerInvokeStatic((DexMethod) item, false);
+            break;
+          case INVOKE_STATIC_INTERFACE:
+            registry.registerInvokeStatic((DexMethod) item, true);
+            break;
+          case INVOKE_VIRTUAL:
+            registry.registerInvokeVirtual((DexMethod) item);
+            break;
+          case CALL_SITE:
+            registry.registerCallSite((DexCallSite) item);
+            break;
+          case PROTO:
+            registry.registerProto((DexProto) item);
+            break;
+          case CONST_CLASS:
+            registry.registerConstClass((DexType) item, null, false);
+            break;
+          case METHOD_HANDLE:
+            registry.registerMethodHandle(
+                (DexMethodHandle) item, MethodHandleUse.NOT_ARGUMENT_TO_LAMBDA_METAFACTORY);
+            break;
+          case CONST_DYNAMIC:
+            ((CfConstDynamic) item).registerUse(registry, context, null);
+            break;
+          case EXCEPTION_GUARD:
+            registry.registerExceptionGuard((DexType) item);
+            break;
+          case INVALID_CLASS_INITIALIZER_CALL:
+            // Only fail when the references of this method are reported, as parsing the code would.
+            throw new CompilationError("Invalid input code with a call to <clinit>");
+          default:
+            throw new Unreachable("Unexpected kind of scanned reference: " + kinds.getByte(i));
+        }
+      }
+    }
+  }
+
+  /** Scans all methods of a class and records the references of each of them on its code. */
+  private static class ReferenceScanningClassVisitor extends ClassVisitor {
+
+    private final ReparseContext context;
+    private final JarApplicationReader application;
+    private int codeIndex = 0;
+
+    ReferenceScanningClassVisitor(ReparseContext context, JarApplicationReader application) {
+      super(InternalOptions.ASM_VERSION);
+      this.context = context;
+      this.application = application;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(
+        int access, String name, String desc, String signature, String[] exceptions) {
+      MethodAccessFlags flags = JarClassFileReader.createMethodAccessFlags(name, access);
+      if (flags.isAbstract() || flags.isNative()) {
+        return null;
+      }
+      LazyCfCode code = context.codeList.get(codeIndex++).asLazyCfCode();
+      ScannedReferences references = new ScannedReferences();
+      code.scannedReferences = references;
+      return new ReferenceScanningMethodVisitor(context.owner.getType(), references, application);
+    }
+  }
+
+  /**
+   * Scans the instructions of a method and records its references without materializing the
+   * instructions, in the same order as the corresponding {@link CfInstruction}s would register
+   * them.
+   */
+  private static class ReferenceScanningMethodVisitor extends MethodVisitor {
+
+    private final DexType holder;
+    private final ScannedReferences references;
+    private final JarApplicationReader application;
+    private final DexItemFactory factory;
+
+    // The label of the next instruction, which is used as the label of a new-instance instruction,
+    // as done by MethodCodeVisitor.
+    private Label currentLabel = null;
+    private Map<Label, DexType> uninitializedNewTypes = Collections.emptyMap();
+
+    // The guards are registered after the instructions, as done for CfCode.
+    private List<DexType> guards = null;
+
+    ReferenceScanningMethodVisitor(
+        DexType holder, ScannedReferences references, JarApplicationReader application) {
+      super(InternalOptions.ASM_VERSION);
+      this.holder = holder;
+      this.references = references;
+      this.application = application;
+      this.factory = application.getFactory();
+    }
+
+    private DexType createTypeFromInternalType(String internalName) {
+      return factory.createType(Type.getObjectType(internalName).getDescriptor());
+    }
+
+    @Override
+    public void visitLabel(Label label) {
+      currentLabel = label;
+    }
+
+    @Override
+    public void visitFrame(
+        int frameType, int nLocals, Object[] localTypes, int nStack, Object[] stackTypes) {
+      // Frames with imprecise values on the stack are dropped when parsing the code, see
+      // MethodCodeVisitor.parseStack.
+      for (int i = 0; i < nStack; i++) {
+        if (stackTypes[i] == null || stackTypes[i] == Opcodes.TOP) {
+          return;
+        }
+      }
+      recordFrameTypes(nLocals, localTypes);
+      recordFrameTypes(nStack, stackTypes);
+    }
+
+    private void recordFrameTypes(int count, Object[] asmTypes) {
+      for (int i = 0; i < count; i++) {
+        Object asmType = asmTypes[i];
+        if (asmType instanceof String) {
+          references.add(
+              ScannedReferences.TYPE_REFERENCE, createTypeFromInternalType((String) asmType));
+        } else if (asmType instanceof Label) {
+          DexType type = uninitializedNewTypes.get(asmType);
+          if (type != null) {
+            references.add(ScannedReferences.TYPE_REFERENCE, type);
+          } else {
+            references.add(ScannedReferences.UNINITIALIZED_NEW_TYPE, asmType);
+          }
+        }
+      }
+    }
+
+    @Override
+    public void visitTypeInsn(int opcode, String typeName) {
+      DexType type = createTypeFromInternalType(typeName);
+      switch (opcode) {
+        case Opcodes.NEW:
+          if (currentLabel != null) {
+            if (uninitializedNewTypes.isEmpty()) {
+              uninitializedNewTypes = new IdentityHashMap<>();
+            }
+            uninitializedNewTypes.put(currentLabel, type);
+            currentLabel = null;
+          }
+          references.add(ScannedReferences.NEW_INSTANCE, type);
+          break;
+        case Opcodes.ANEWARRAY:
+          references.add(ScannedReferences.TYPE_REFERENCE, factory.createArrayType(1, type));
+          break;
+        case Opcodes.CHECKCAST:
+          references.add(ScannedReferences.CHECK_CAST, type);
+          break;
+        case Opcodes.INSTANCEOF:
+          references.add(ScannedReferences.INSTANCE_OF, type);
+          break;
+        default:
+          throw new Unreachable("Unexpected TypeInsn opcode: " + opcode);
+      }
+    }
+
+    @Override
+    public void visitFieldInsn(int opcode, String owner, String name, String desc) {
+      DexField field =
+          factory.createField(createTypeFromInternalType(owner), factory.createType(desc), name);
+      switch (opcode) {
+        case Opcodes.GETFIELD:
+          references.add(ScannedReferences.INSTANCE_FIELD_READ, field);
+          break;
+        case Opcodes.PUTFIELD:
+          references.add(ScannedReferences.INSTANCE_FIELD_WRITE, field);
+          break;
+        case Opcodes.GETSTATIC:
+          references.add(ScannedReferences.STATIC_FIELD_READ, field);
+          break;
+        case Opcodes.PUTSTATIC:
+          references.add(ScannedReferences.STATIC_FIELD_WRITE, field);
+          break;
+        default:
+          throw new Unreachable("Unexpected FieldInsn opcode: " + opcode);
+      }
+    }
+
+    @Override
+    public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+      DexMethod target = application.getMethod(owner, name, desc);
+      if (factory.isClassConstructor(target)) {
+        references.add(ScannedReferences.INVALID_CLASS_INITIALIZER_CALL, null);
+        return;
+      }
+      switch (opcode) {
+        case Opcodes.INVOKEINTERFACE:
+          references.add(ScannedReferences.INVOKE_INTERFACE, target);
+          break;
+        case Opcodes.INVOKESPECIAL:
+          references.add(
+              itf
+                  ? ScannedReferences.INVOKE_SPECIAL_INTERFACE
+                  : ScannedReferences.INVOKE_SPECIAL,
+              target);
+          break;
+        case Opcodes.INVOKESTATIC:
+          references.add(
+              itf ? ScannedReferences.INVOKE_STATIC_INTERFACE : ScannedReferences.INVOKE_STATIC,
+              target);
+          break;
+        case Opcodes.INVOKEVIRTUAL:
+          references.add(ScannedReferences.INVOKE_VIRTUAL, target);
+          break;
+        default:
+          throw new Unreachable("Unknown MethodInsn opcode " + opcode);
+      }
+    }
+
+    @Override
+    public void visitInvokeDynamicInsn(String name, String desc, Handle bsm, Object... bsmArgs) {
+      references.add(
+          ScannedReferences.CALL_SITE,
+          DexCallSite.fromAsmInvokeDynamic(application, holder, name, desc, bsm, bsmArgs));
+    }
+
+    @Override
+    public void visitLdcInsn(Object cst) {
+      if (cst instanceof Type) {
+        Type type = (Type) cst;
+        if (type.getSort() == Type.METHOD) {
+          references.add(ScannedReferences.PROTO, application.getProto(type.getDescriptor()));
+        } else {
+          references.add(
+              ScannedReferences.CONST_CLASS, factory.createType(type.getDescriptor()));
+        }
+      } else if (cst instanceof Handle) {
+        references.add(
+            ScannedReferences.METHOD_HANDLE,
+            DexMethodHandle.fromAsmHandle((Handle) cst, application, holder));
+      } else if (cst instanceof ConstantDynamic) {
+        references.add(
+            ScannedReferences.CONST_DYNAMIC,
+            CfConstDynamic.fromAsmConstantDynamic((ConstantDynamic) cst, application, holder));
+      }
+    }
+
+    @Override
+    public void visitMultiANewArrayInsn(String desc, int dims) {
+      InternalOptions options = application.options;
+      if (options.isGeneratingClassFiles()
+          && !options.testing.enableMultiANewArrayDesugaringForClassFiles) {
+        references.add(ScannedReferences.TYPE_REFERENCE, factory.createType(desc));
+        return;
+      }
+      // Record the references of the reflective array creation that the instruction is desugared
+      // to when parsing the code, see MethodCodeVisitor.visitMultiANewArrayInsn.
+      String baseDesc = desc.substring(dims);
+      if (DescriptorUtils.isPrimitiveDescriptor(baseDesc)) {
+        visitFieldInsn(
+            Opcodes.GETSTATIC,
+            DescriptorUtils.primitiveDescriptorToBoxedInternalName(baseDesc.charAt(0)),
+            "TYPE",
+            "Ljava/lang/Class;");
+      } else if (DescriptorUtils.isVoidDescriptor(baseDesc)) {
+        visitFieldInsn(Opcodes.GETSTATIC, "java/lang/Void", "TYPE", "Ljava/lang/Class;");
+      } else {
+        visitLdcInsn(Type.getType(baseDesc));
+      }
+      visitMethodInsn(
+          Opcodes.INVOKESTATIC,
+          "java/lang/reflect/Array",
+          "newInstance",
+          "(Ljava/lang/Class;[I)Ljava/lang/Object;",
+          false);
+      visitTypeInsn(Opcodes.CHECKCAST, desc);
+    }
+
+    @Override
+    public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+      if (guards == null) {
+        guards = new ArrayList<>();
+      }
+      guards.add(type == null ? factory.throwableType : createTypeFromInternalType(type));
+    }
+
+    @Override
+    public void visitEnd() {
+      if (guards != null) {
+        for (DexType guard : guards) {
+          references.add(ScannedReferences.EXCEPTION_GUARD, guard);
+        }
+      }
+      references.finish(uninitializedNewTypes);
+    }
+  }
+
   private static class MethodCodeVisitor extends MethodVisitor {
     private final JarApplicationReader application;
     private final DexItemFactory factory;
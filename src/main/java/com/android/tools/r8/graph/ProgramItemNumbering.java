@@ -0,0 +1,88 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.graph;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.Collection;
+
+/**
+ * A dense numbering of the program classes of an application, which allows storing information
+ * about program classes in arrays indexed by the id of the class instead of in hash maps.
+ *
+ * <p>The id of each class is stored on the {@link DexProgramClass}. The numbering of the current
+ * application is obtained using {@link AppView#programItemNumbering()}, which renumbers the program
+ * classes when the app info changes, e.g., as a result of pruning or lens rewriting. Renumbering
+ * overwrites the ids stored on the classes, thus a numbering that has been superseded resolves the
+ * ids of its classes using a hash map, so that side tables built on it remain valid.
+ */
+public class ProgramItemNumbering {
+
+  private final DexProgramClass[] classes;
+
+  private volatile boolean superseded;
+  private volatile Reference2IntMap<DexProgramClass> supersededClassIds;
+
+  private ProgramItemNumbering(DexProgramClass[] classes) {
+    this.classes = classes;
+  }
+
+  static ProgramItemNumbering create(Collection<DexProgramClass> programClasses) {
+    DexProgramClass[] classes = new DexProgramClass[programClasses.size()];
+    int id = 0;
+    for (DexProgramClass clazz : programClasses) {
+      classes[id] = clazz;
+      clazz.setProgramItemId(id);
+      id++;
+    }
+    return new ProgramItemNumbering(classes);
+  }
+
+  /**
+   * Marks that the ids stored on the classes may no longer be the ids of this numbering. Must be
+   * called before the classes are renumbered.
+   */
+  void markSuperseded() {
+    superseded = true;
+  }
+
+  /**
+   * Returns the id of the given class, or -1 if the class is not a program class of the
+   * application of this numbering.
+   */
+  public int getClassId(DexProgramClass clazz) {
+    int id = clazz.getProgramItemId();
+    if (0 <= id && id < classes.length && classes[id] == clazz) {
+      return id;
+    }
+    return superseded ? getOrCreateSupersededClassIds().getInt(clazz) : -1;
+  }
+
+  public DexProgramClass getClass(int id) {
+    return classes[id];
+  }
+
+  public int numberOfClasses() {
+    return classes.length;
+  }
+
+  private Reference2IntMap<DexProgramClass> getOrCreateSupersededClassIds() {
+    Reference2IntMap<DexProgramClass> result = supersededClassIds;
+    if (result == null) {
+      synchronized (this) {
+        result = supersededClassIds;
+        if (result == null) {
+          result = new Reference2IntOpenHashMap<>(classes.length);
+          result.defaultReturnValue(-1);
+          for (int id = 0; id < classes.length; id++) {
+            result.put(classes[id], id);
+          }
+          supersededClassIds = result;
+        }
+      }
+    }
+    return result;
+  }
+}
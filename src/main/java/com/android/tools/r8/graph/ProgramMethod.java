@@ -18,6 +18,7 @@ import com.android.tools.r8.kotlin.KotlinMethodLevelInfo;
 import com.android.tools.r8.logging.Log;
 import com.android.tools.r8.origin.Origin;
 import com.android.tools.r8.shaking.AppInfoWithLiveness;
+import com.android.tools.r8.utils.OptionalBool;
 import it.unimi.dsi.fastutil.ints.Int2ReferenceMap;
 
 /** Type representing a method definition in the programs compilation unit and its holder. */
@@ -47,10 +48,9 @@ public final class ProgramMethod extends DexClassAndMethod
       Origin origin,
       MethodProcessor methodProcessor) {
     Code code = getDefinition().getCode();
-    GraphLens codeLens = appView.graphLens();
+    GraphLens codeLens = getCodeLensForInlining(appView, methodProcessor);
     RewrittenPrototypeDescription protoChanges = RewrittenPrototypeDescription.none();
     if (methodProcessor.shouldApplyCodeRewritings(this)) {
-      codeLens = getDefinition().getCode().getCodeLens(appView);
       protoChanges = appView.graphLens().lookupPrototypeChangesForMethodDefinition(getReference());
     }
     return code.buildInliningIR(
@@ -64,6 +64,23 @@ public final class ProgramMethod extends DexClassAndMethod
         protoChanges);
   }
 
+  /**
+   * Computes the call site independent parts of the inlining IR of this method, see {@link
+   * Code#prepareForInlining}. Returns true if these were already cached, and unknown if there is
+   * nothing to cache.
+   */
+  public OptionalBool prepareForInlining(AppView<?> appView, MethodProcessor methodProcessor) {
+    return getDefinition()
+        .getCode()
+        .prepareForInlining(this, appView, getCodeLensForInlining(appView, methodProcessor));
+  }
+
+  private GraphLens getCodeLensForInlining(AppView<?> appView, MethodProcessor methodProcessor) {
+    return methodProcessor.shouldApplyCodeRewritings(this)
+        ? getDefinition().getCode().getCodeLens(appView)
+        : appView.graphLens();
+  }
+
   public void collectIndexedItems(
       AppView<?> appView, IndexedItemCollection indexedItems, LensCodeRewriterUtils rewriter) {
     DexEncodedMethod definition = getDefinition();
@@ -128,6 +145,13 @@ public final class ProgramMethod extends DexClassAndMethod
     }
   }
 
+  public void registerCodeReferencesWithoutParsing(UseRegistry<?> registry) {
+    Code code = getDefinition().getCode();
+    if (code != null) {
+      code.registerCodeReferencesWithoutParsing(this, registry);
+    }
+  }
+
   public <R> R registerCodeReferencesWithResult(UseRegistryWithResult<R, ?> registry) {
     registerCodeReferences(registry);
     return registry.getResult();
@@ -0,0 +1,122 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.graph;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A dense numbering of a fixed collection of program methods, which allows representing sets of
+ * these methods as bit sets (see {@link
+ * com.android.tools.r8.utils.collections.DenseProgramMethodSet}).
+ *
+ * <p>The id of each method is stored on the {@link DexEncodedMethod}, and is validated against the
+ * frozen method array of the numbering. Numberings are created using {@link
+ * AppView#createProgramMethodNumbering}, and creating a numbering overwrites the ids stored on its
+ * methods. Thus a numbering that has been superseded resolves the ids of its methods using a hash
+ * map, so that sets built on it remain valid. Lookups by {@link DexMethod} also use this map, and
+ * should therefore be avoided on hot paths.
+ */
+public class ProgramMethodNumbering {
+
+  private final ProgramMethod[] methods;
+  private final int generation;
+  private final AtomicInteger numberOfCreatedNumberings;
+
+  private volatile Reference2IntMap<DexMethod> referenceIds;
+
+  private ProgramMethodNumbering(
+      ProgramMethod[] methods, int generation, AtomicInteger numberOfCreatedNumberings) {
+    this.methods = methods;
+    this.generation = generation;
+    this.numberOfCreatedNumberings = numberOfCreatedNumberings;
+  }
+
+  /**
+   * Numbers the methods of the given disjoint groups consecutively, in the iteration order of the
+   * groups. Thus the methods of each group are assigned a contiguous range of ids.
+   */
+  static ProgramMethodNumbering create(
+      Iterable<? extends Collection<ProgramMethod>> disjointGroups,
+      AtomicInteger numberOfCreatedNumberings) {
+    // Supersede the previous numbering before its ids are overwritten.
+    int generation = numberOfCreatedNumberings.incrementAndGet();
+    int size = 0;
+    for (Collection<ProgramMethod> group : disjointGroups) {
+      size += group.size();
+    }
+    ProgramMethod[] methods = new ProgramMethod[size];
+    int id = 0;
+    for (Collection<ProgramMethod> group : disjointGroups) {
+      for (ProgramMethod method : group) {
+        methods[id] = method;
+        method.getDefinition().setProgramMethodId(id);
+        id++;
+      }
+    }
+    return new ProgramMethodNumbering(methods, generation, numberOfCreatedNumberings);
+  }
+
+  /** Returns the id of the given method, or -1 if the method is not part of this numbering. */
+  public int getId(DexEncodedMethod definition) {
+    int id = definition.getProgramMethodId();
+    if (id < 0) {
+      return -1;
+    }
+    if (id < methods.length && methods[id].getDefinition() == definition) {
+      return id;
+    }
+    if (isSuperseded()) {
+      id = getOrCreateReferenceIds().getInt(definition.getReference());
+      return id >= 0 && methods[id].getDefinition() == definition ? id : -1;
+    }
+    return -1;
+  }
+
+  /** Returns the id of the given method, or -1 if the method is not part of this numbering. */
+  public int getId(ProgramMethod method) {
+    return getId(method.getDefinition());
+  }
+
+  /**
+   * Returns the id of the method with the given reference, or -1 if the method is not part of this
+   * numbering. This builds a hash map over all methods of the numbering on the first call.
+   */
+  public int getId(DexMethod method) {
+    return getOrCreateReferenceIds().getInt(method);
+  }
+
+  public ProgramMethod getMethod(int id) {
+    return methods[id];
+  }
+
+  public int size() {
+    return methods.length;
+  }
+
+  private boolean isSuperseded() {
+    return numberOfCreatedNumberings.get() != generation;
+  }
+
+  private Reference2IntMap<DexMethod> getOrCreateReferenceIds() {
+    Reference2IntMap<DexMethod> result = referenceIds;
+    if (result == null) {
+      synchronized (this) {
+        result = referenceIds;
+        if (result == null) {
+          result = new Reference2IntOpenHashMap<>(methods.length);
+          result.defaultReturnValue(-1);
+          for (int id = 0; id < methods.length; id++) {
+            result.put(methods[id].getReference(), id);
+          }
+          referenceIds = result;
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -30,6 +30,11 @@ public class ApiModelAnalysis extends EnqueuerAnalysis {
     this.minApiLevel = appView.computedMinApiLevel();
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
   @Override
   public void processNewlyLiveField(
       ProgramField field, ProgramDefinition context, EnqueuerWorklist worklist) {
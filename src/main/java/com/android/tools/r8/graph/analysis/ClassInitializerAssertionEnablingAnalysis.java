@@ -76,6 +76,11 @@ public class ClassInitializerAssertionEnablingAnalysis extends EnqueuerAnalysis
     }
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
   @Override
   public void processNewlyLiveMethod(
       ProgramMethod method,
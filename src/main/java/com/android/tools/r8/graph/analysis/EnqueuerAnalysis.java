@@ -15,9 +15,22 @@ import com.android.tools.r8.shaking.DefaultEnqueuerUseRegistry;
 import com.android.tools.r8.shaking.Enqueuer;
 import com.android.tools.r8.shaking.EnqueuerWorklist;
 import com.android.tools.r8.utils.Timing;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 public abstract class EnqueuerAnalysis {
 
+  /**
+   * Returns true if {@link #processNewlyLiveClass}, {@link #processNewlyLiveField} and {@link
+   * #processNewlyLiveMethod} may be called concurrently and never add items to the worklist.
+   *
+   * <p>The Enqueuer defers these events for such analyses until the worklist is empty, and then
+   * processes the collected events in parallel. The worklist passed to the analysis is non-pushable.
+   */
+  public boolean isThreadSafe() {
+    return false;
+  }
+
   /** Called when a class is found to be instantiated. */
   public void processNewlyInstantiatedClass(
       DexProgramClass clazz, ProgramMethod context, EnqueuerWorklist worklist) {}
@@ -63,5 +76,6 @@ public abstract class EnqueuerAnalysis {
    * Called when the Enqueuer has reached the final fixpoint. Each analysis may use this callback to
    * perform some post-processing.
    */
-  public void done(Enqueuer enqueuer) {}
+  public void done(Enqueuer enqueuer, ExecutorService executorService, Timing timing)
+      throws ExecutionException {}
 }
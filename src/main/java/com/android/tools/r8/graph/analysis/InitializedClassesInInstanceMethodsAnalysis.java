@@ -12,8 +12,10 @@ import com.android.tools.r8.graph.ProgramMethod;
 import com.android.tools.r8.ir.analysis.type.ClassTypeElement;
 import com.android.tools.r8.shaking.Enqueuer;
 import com.android.tools.r8.shaking.EnqueuerWorklist;
+import com.android.tools.r8.utils.Timing;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 public class InitializedClassesInInstanceMethodsAnalysis extends EnqueuerAnalysis {
 
@@ -87,7 +89,7 @@ public class InitializedClassesInInstanceMethodsAnalysis extends EnqueuerAnalysi
   }
 
   @Override
-  public void done(Enqueuer enqueuer) {
+  public void done(Enqueuer enqueuer, ExecutorService executorService, Timing timing) {
     appView.setInitializedClassesInInstanceMethods(
         new InitializedClassesInInstanceMethods(appView, mapping));
   }
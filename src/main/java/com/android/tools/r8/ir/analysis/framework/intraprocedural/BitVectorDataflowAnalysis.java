@@ -0,0 +1,151 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.ir.analysis.framework.intraprocedural;
+
+import com.android.tools.r8.ir.analysis.framework.intraprocedural.DataflowAnalysisResult.FailedDataflowAnalysisResult;
+import com.android.tools.r8.ir.code.BasicBlock;
+import com.android.tools.r8.ir.code.Instruction;
+import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A fixpoint solver for forward intraprocedural dataflow analyses where the abstract state is a bit
+ * vector and the join is the union, e.g., reaching definitions or may-escape analyses.
+ *
+ * <p>Compared to {@link IntraproceduralDataflowAnalysis}, the states are represented by primitive
+ * bit sets that are updated in place by the {@link BitVectorTransferFunction}, such that no states
+ * are allocated per instruction. The blocks that are reachable from the root are numbered in
+ * reverse postorder, and the worklist always processes the pending block that comes first in this
+ * order. For loop-free code this processes each block exactly once.
+ *
+ * <p>The state before each throwing instruction is joined into the entry state of the catch
+ * handlers of the block.
+ */
+public class BitVectorDataflowAnalysis {
+
+  private final BitVectorTransferFunction transfer;
+
+  public BitVectorDataflowAnalysis(BitVectorTransferFunction transfer) {
+    this.transfer = transfer;
+  }
+
+  public DataflowAnalysisResult run(BasicBlock root) {
+    List<BasicBlock> blocks = computeReversePostorder(root);
+    Reference2IntMap<BasicBlock> blockIndices = new Reference2IntOpenHashMap<>(blocks.size());
+    for (int i = 0; i < blocks.size(); i++) {
+      blockIndices.put(blocks.get(i), i);
+    }
+    BitSet[] blockEntryStates = new BitSet[blocks.size()];
+    BitSet pending = new BitSet(blocks.size());
+    blockEntryStates[0] = new BitSet();
+    pending.set(0);
+
+    BitSet state = new BitSet();
+    for (int blockIndex = pending.nextSetBit(0);
+        blockIndex >= 0;
+        blockIndex = pending.nextSetBit(0)) {
+      pending.clear(blockIndex);
+      BasicBlock block = blocks.get(blockIndex);
+      state.clear();
+      state.or(blockEntryStates[blockIndex]);
+      boolean hasCatchHandlers = block.hasCatchHandlers();
+      for (Instruction instruction : block.getInstructions()) {
+        if (hasCatchHandlers && instruction.instructionTypeCanThrow()) {
+          for (BasicBlock catchHandler : block.getCatchHandlers().getUniqueTargets()) {
+            join(catchHandler, state, blockIndices, blockEntryStates, pending);
+          }
+        }
+        if (!transfer.apply(instruction, state)) {
+          return new FailedDataflowAnalysisResult();
+        }
+      }
+      for (BasicBlock successor : block.getNormalSuccessors()) {
+        join(successor, state, blockIndices, blockEntryStates, pending);
+      }
+    }
+    return new SuccessfulBitVectorDataflowAnalysisResult(blockIndices, blockEntryStates);
+  }
+
+  private static void join(
+      BasicBlock block,
+      BitSet state,
+      Reference2IntMap<BasicBlock> blockIndices,
+      BitSet[] blockEntryStates,
+      BitSet pending) {
+    int blockIndex = blockIndices.getInt(block);
+    BitSet blockEntryState = blockEntryStates[blockIndex];
+    if (blockEntryState == null) {
+      // The block has not been reached before.
+      blockEntryStates[blockIndex] = (BitSet) state.clone();
+      pending.set(blockIndex);
+      return;
+    }
+    int cardinality = blockEntryState.cardinality();
+    blockEntryState.or(state);
+    if (blockEntryState.cardinality() != cardinality) {
+      pending.set(blockIndex);
+    }
+  }
+
+  private static List<BasicBlock> computeReversePostorder(BasicBlock root) {
+    List<BasicBlock> postorder = new ArrayList<>();
+    Set<BasicBlock> seen = Sets.newIdentityHashSet();
+    Deque<BasicBlock> stack = new ArrayDeque<>();
+    Deque<Iterator<BasicBlock>> successorIterators = new ArrayDeque<>();
+    seen.add(root);
+    stack.push(root);
+    successorIterators.push(root.getSuccessors().iterator());
+    while (!stack.isEmpty()) {
+      Iterator<BasicBlock> successorIterator = successorIterators.peek();
+      if (successorIterator.hasNext()) {
+        BasicBlock successor = successorIterator.next();
+        if (seen.add(successor)) {
+          stack.push(successor);
+          successorIterators.push(successor.getSuccessors().iterator());
+        }
+      } else {
+        postorder.add(stack.pop());
+        successorIterators.pop();
+      }
+    }
+    Collections.reverse(postorder);
+    return postorder;
+  }
+
+  /** The result of a {@link BitVectorDataflowAnalysis} that ran to completion. */
+  public static class SuccessfulBitVectorDataflowAnalysisResult extends DataflowAnalysisResult {
+
+    private final Reference2IntMap<BasicBlock> blockIndices;
+    private final BitSet[] blockEntryStates;
+
+    SuccessfulBitVectorDataflowAnalysisResult(
+        Reference2IntMap<BasicBlock> blockIndices, BitSet[] blockEntryStates) {
+      this.blockIndices = blockIndices;
+      this.blockEntryStates = blockEntryStates;
+    }
+
+    /**
+     * Returns the state upon entry to the given block, or null if the block is not reachable from
+     * the root of the analysis. The returned state must not be modified.
+     */
+    public BitSet getBlockEntryState(BasicBlock block) {
+      return blockIndices.containsKey(block) ? blockEntryStates[blockIndices.getInt(block)] : null;
+    }
+
+    @Override
+    public boolean isSuccessfulAnalysisResult() {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.ir.analysis.framework.intraprocedural;
+
+import com.android.tools.r8.ir.code.Instruction;
+import java.util.BitSet;
+
+/** The transfer function of a {@link BitVectorDataflowAnalysis}. */
+public interface BitVectorTransferFunction {
+
+  /**
+   * Applies the abstract semantics of the given instruction to the given state by updating the
+   * state in place.
+   *
+   * <p>Returns false if the analysis should be aborted, in which case the analysis returns a {@link
+   * DataflowAnalysisResult.FailedDataflowAnalysisResult}.
+   */
+  boolean apply(Instruction instruction, BitSet state);
+}
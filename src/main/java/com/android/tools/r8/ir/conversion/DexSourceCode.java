@@ -85,9 +85,12 @@ public class DexSourceCode implements SourceCode {
     this.code = code;
     this.method = method;
     this.originalMethod = originalMethod;
-    EventBasedDebugInfo info = DexDebugInfo.convertToEventBased(code, factory);
-    if (info != null) {
-      debugEntries = info.computeEntries(originalMethod);
+    debugEntries = code.getCachedDebugEntries(originalMethod);
+    if (debugEntries == null) {
+      EventBasedDebugInfo info = DexDebugInfo.convertToEventBased(code, factory);
+      if (info != null) {
+        debugEntries = info.computeEntries(originalMethod);
+      }
     }
     canonicalPositions =
         new CanonicalPositions(
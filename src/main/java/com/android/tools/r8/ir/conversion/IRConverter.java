@@ -143,6 +143,7 @@ public class IRConverter {
   private final EnumValueOptimizer enumValueOptimizer;
   private final EnumUnboxer enumUnboxer;
   private final OpenClosedInterfacesAnalysis openClosedInterfacesAnalysis;
+  private final StartupInstrumentation startupInstrumentation;
 
   public final AssumeInserter assumeInserter;
   private final DynamicTypeOptimization dynamicTypeOptimization;
@@ -178,6 +179,7 @@ public class IRConverter {
     this.appView = appView;
     this.options = appView.options();
     this.printer = printer;
+    this.startupInstrumentation = new StartupInstrumentation(appView);
     this.codeRewriter = new CodeRewriter(appView);
     this.constantCanonicalizer = new ConstantCanonicalizer(codeRewriter);
     this.classInitializerDefaultsOptimization =
@@ -350,6 +352,7 @@ public class IRConverter {
       throws ExecutionException {
     LambdaDeserializationMethodRemover.run(appView);
     workaroundAbstractMethodOnNonAbstractClassVerificationBug(executor);
+    startupInstrumentation.injectStartupProfileRecorder();
     DexApplication application = appView.appInfo().app();
     D8MethodProcessor methodProcessor = new D8MethodProcessor(this, executor);
     InterfaceProcessor interfaceProcessor =
@@ -476,7 +479,7 @@ public class IRConverter {
       D8CfInstructionDesugaringEventConsumer desugaringEventConsumer,
       D8MethodProcessor methodProcessor,
       InterfaceProcessor interfaceProcessor) {
-    new StartupInstrumentation(appView).instrumentClass(clazz);
+    startupInstrumentation.instrumentClass(clazz);
 
     // When converting all methods on a class always convert <clinit> first.
     ProgramMethod classInitializer = clazz.getProgramClassInitializer();
@@ -797,6 +800,7 @@ public class IRConverter {
     // TODO(b/127694949): Adapt to PostOptimization.
     outliner.performOutlining(this, feedback, executorService, timing);
     clearDexMethodCompilationState();
+    clearInliningCaches();
 
     if (identifierNameStringMarker != null) {
       identifierNameStringMarker.decoupleIdentifierNameStringsInFields(executorService);
@@ -899,6 +903,18 @@ public class IRConverter {
     clazz.forEachMethod(DexEncodedMethod::markNotProcessed);
   }
 
+  // The state cached for inlining each callee is only used during the optimization passes.
+  private void clearInliningCaches() {
+    for (DexProgramClass clazz : appView.appInfo().classes()) {
+      clazz.forEachMethod(
+          method -> {
+            if (method.hasCode()) {
+              method.getCode().clearInliningCache();
+            }
+          });
+    }
+  }
+
   /**
    * This will replace the Dex code in the method with the Dex code generated from the provided IR.
    *
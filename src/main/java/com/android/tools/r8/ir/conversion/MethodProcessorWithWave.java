@@ -4,8 +4,13 @@
 package com.android.tools.r8.ir.conversion;
 
 import com.android.tools.r8.graph.ProgramMethod;
+import com.android.tools.r8.graph.ProgramMethodNumbering;
 import com.android.tools.r8.ir.conversion.callgraph.CallSiteInformation;
+import com.android.tools.r8.utils.collections.DenseProgramMethodSet;
 import com.android.tools.r8.utils.collections.ProgramMethodSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 
 public abstract class MethodProcessorWithWave extends MethodProcessor {
 
@@ -27,6 +32,25 @@ public abstract class MethodProcessorWithWave extends MethodProcessor {
     waveExtension.add(method);
   }
 
+  /**
+   * Returns a {@link DenseProgramMethodSet} for each of the given waves, which must have been
+   * numbered in order by the given numbering. Since the waves are disjoint, the bit set of each
+   * dense wave only spans the methods of the wave.
+   */
+  protected static Deque<ProgramMethodSet> createDenseWaves(
+      List<ProgramMethodSet> waves, ProgramMethodNumbering numbering) {
+    Deque<ProgramMethodSet> denseWaves = new ArrayDeque<>(waves.size());
+    int fromId = 0;
+    for (ProgramMethodSet wave : waves) {
+      int toId = fromId + wave.size();
+      assert wave.isEmpty() || numbering.getId(wave.getFirst()) == fromId;
+      denseWaves.addLast(DenseProgramMethodSet.create(numbering, fromId, toId));
+      fromId = toId;
+    }
+    assert fromId == numbering.size();
+    return denseWaves;
+  }
+
   protected void prepareForWaveExtensionProcessing() {
     if (waveExtension.isEmpty()) {
       wave = ProgramMethodSet.empty();
@@ -14,6 +14,7 @@ import com.android.tools.r8.graph.DexMethod;
 import com.android.tools.r8.graph.DexProgramClass;
 import com.android.tools.r8.graph.GraphLens;
 import com.android.tools.r8.graph.ProgramMethod;
+import com.android.tools.r8.graph.ProgramMethodNumbering;
 import com.android.tools.r8.ir.conversion.PrimaryMethodProcessor.MethodAction;
 import com.android.tools.r8.ir.conversion.callgraph.CallGraph;
 import com.android.tools.r8.ir.conversion.callgraph.PartialCallGraphBuilder;
@@ -22,14 +23,16 @@ import com.android.tools.r8.logging.Log;
 import com.android.tools.r8.shaking.AppInfoWithLiveness;
 import com.android.tools.r8.utils.DeterminismChecker;
 import com.android.tools.r8.utils.ThreadUtils;
-import com.android.tools.r8.utils.Timing;
 import com.android.tools.r8.utils.Timing.TimingMerger;
+import com.android.tools.r8.utils.Timing;
+import com.android.tools.r8.utils.collections.DenseProgramMethodSet;
 import com.android.tools.r8.utils.collections.LongLivedProgramMethodSetBuilder;
 import com.android.tools.r8.utils.collections.ProgramMethodSet;
 import java.io.IOException;
-import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -38,11 +41,14 @@ public class PostMethodProcessor extends MethodProcessorWithWave {
 
   private final ProcessorContext processorContext;
   private final Deque<ProgramMethodSet> waves;
-  private final ProgramMethodSet processed = ProgramMethodSet.create();
+  private final ProgramMethodSet processed;
 
   private PostMethodProcessor(AppView<AppInfoWithLiveness> appView, CallGraph callGraph) {
+    List<ProgramMethodSet> extractedWaves = extractWaves(callGraph);
+    ProgramMethodNumbering numbering = appView.createProgramMethodNumbering(extractedWaves);
     this.processorContext = appView.createProcessorContext();
-    this.waves = createWaves(callGraph);
+    this.waves = createDenseWaves(extractedWaves, numbering);
+    this.processed = DenseProgramMethodSet.create(numbering);
   }
 
   @Override
@@ -150,12 +156,12 @@ public class PostMethodProcessor extends MethodProcessorWithWave {
     }
   }
 
-  private Deque<ProgramMethodSet> createWaves(CallGraph callGraph) {
-    Deque<ProgramMethodSet> waves = new ArrayDeque<>();
+  private List<ProgramMethodSet> extractWaves(CallGraph callGraph) {
+    List<ProgramMethodSet> waves = new ArrayList<>();
     int waveCount = 1;
     while (!callGraph.isEmpty()) {
       ProgramMethodSet wave = callGraph.extractLeaves();
-      waves.addLast(wave);
+      waves.add(wave);
       if (Log.ENABLED && Log.isLoggingEnabledFor(PostMethodProcessor.class)) {
         Log.info(getClass(), "Wave #%d: %d", waveCount++, wave.size());
       }
@@ -36,11 +36,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.IdentityHashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
@@ -90,18 +91,38 @@ public abstract class CfInstructionDesugaringEventConsumer
 
     private final D8MethodProcessor methodProcessor;
 
-    private final Set<DexProgramClass> synthesizedClasses = Sets.newConcurrentHashSet();
-    private final Map<DexReference, InvokeSpecialBridgeInfo> pendingInvokeSpecialBridges =
-        new LinkedHashMap<>();
-    private final List<LambdaClass> synthesizedLambdaClasses = new ArrayList<>();
-    private final List<ConstantDynamicClass> synthesizedConstantDynamicClasses = new ArrayList<>();
+    // The synthesized items are recorded in per-thread buffers to avoid contention between the
+    // threads processing a wave. The buffers are merged deterministically when the wave is
+    // finalized, which happens after all method processing has completed.
+    private final Queue<SynthesisBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<SynthesisBuffer> threadLocalBuffer =
+        ThreadLocal.withInitial(
+            () -> {
+              SynthesisBuffer buffer = new SynthesisBuffer();
+              buffers.add(buffer);
+              return buffer;
+            });
+
+    private final Set<DexProgramClass> synthesizedClasses = Sets.newIdentityHashSet();
+
+    private static class SynthesisBuffer {
+
+      private final Set<DexProgramClass> synthesizedClasses = Sets.newIdentityHashSet();
+      private final List<InvokeSpecialBridgeInfo> invokeSpecialBridges = new ArrayList<>();
+      private final List<LambdaClass> lambdaClasses = new ArrayList<>();
+      private final List<ConstantDynamicClass> constantDynamicClasses = new ArrayList<>();
+    }
 
     private D8CfInstructionDesugaringEventConsumer(D8MethodProcessor methodProcessor) {
       this.methodProcessor = methodProcessor;
     }
 
+    private SynthesisBuffer getBuffer() {
+      return threadLocalBuffer.get();
+    }
+
     private void acceptClass(DexProgramClass clazz) {
-      synthesizedClasses.add(clazz);
+      getBuffer().synthesizedClasses.add(clazz);
     }
 
     private void acceptMethod(ProgramMethod method) {
@@ -150,10 +171,7 @@ public abstract class CfInstructionDesugaringEventConsumer
 
     @Override
     public void acceptInvokeSpecialBridgeInfo(InvokeSpecialBridgeInfo info) {
-      synchronized (pendingInvokeSpecialBridges) {
-        assert !pendingInvokeSpecialBridges.containsKey(info.getNewDirectMethod().getReference());
-        pendingInvokeSpecialBridges.put(info.getNewDirectMethod().getReference(), info);
-      }
+      getBuffer().invokeSpecialBridges.add(info);
     }
 
     @Override
@@ -165,18 +183,14 @@ public abstract class CfInstructionDesugaringEventConsumer
     @Override
     public void acceptLambdaClass(LambdaClass lambdaClass, ProgramMethod context) {
       acceptClass(lambdaClass.getLambdaProgramClass());
-      synchronized (synthesizedLambdaClasses) {
-        synthesizedLambdaClasses.add(lambdaClass);
-      }
+      getBuffer().lambdaClasses.add(lambdaClass);
     }
 
     @Override
     public void acceptConstantDynamicClass(
         ConstantDynamicClass constantDynamicClass, ProgramMethod context) {
       acceptClass(constantDynamicClass.getConstantDynamicProgramClass());
-      synchronized (synthesizedConstantDynamicClasses) {
-        synthesizedConstantDynamicClasses.add(constantDynamicClass);
-      }
+      getBuffer().constantDynamicClasses.add(constantDynamicClass);
     }
 
     @Override
@@ -240,13 +254,35 @@ public abstract class CfInstructionDesugaringEventConsumer
         ExecutorService executorService,
         ClassConverterResult.Builder classConverterResultBuilder)
         throws ExecutionException {
+      // Merge the per-thread buffers. All items are sorted to ensure that the finalization does
+      // not depend on the thread that synthesized the items.
+      Map<DexReference, InvokeSpecialBridgeInfo> invokeSpecialBridges = new IdentityHashMap<>();
+      List<LambdaClass> lambdaClasses = new ArrayList<>();
+      List<ConstantDynamicClass> constantDynamicClasses = new ArrayList<>();
+      for (SynthesisBuffer buffer : buffers) {
+        synthesizedClasses.addAll(buffer.synthesizedClasses);
+        for (InvokeSpecialBridgeInfo info : buffer.invokeSpecialBridges) {
+          InvokeSpecialBridgeInfo existing =
+              invokeSpecialBridges.put(info.getNewDirectMethod().getReference(), info);
+          assert existing == null;
+        }
+        lambdaClasses.addAll(buffer.lambdaClasses);
+        constantDynamicClasses.addAll(buffer.constantDynamicClasses);
+        buffer.synthesizedClasses.clear();
+        buffer.invokeSpecialBridges.clear();
+        buffer.lambdaClasses.clear();
+        buffer.constantDynamicClasses.clear();
+      }
+
       List<ProgramMethod> needsProcessing = new ArrayList<>();
-      finalizeInvokeSpecialDesugaring(appView, needsProcessing::add);
-      finalizeLambdaDesugaring(classConverterResultBuilder, needsProcessing::add);
-      finalizeConstantDynamicDesugaring(needsProcessing::add);
+      finalizeInvokeSpecialDesugaring(appView, invokeSpecialBridges, needsProcessing::add);
+      finalizeLambdaDesugaring(lambdaClasses, classConverterResultBuilder, needsProcessing::add);
+      finalizeConstantDynamicDesugaring(constantDynamicClasses, needsProcessing::add);
+      List<DexProgramClass> sortedSynthesizedClasses = new ArrayList<>(synthesizedClasses);
+      sortedSynthesizedClasses.sort(Comparator.comparing(DexProgramClass::getType));
       if (new StartupInstrumentation(appView)
-          .instrumentClasses(synthesizedClasses, executorService)) {
-        for (DexProgramClass synthesizedClass : synthesizedClasses) {
+          .instrumentClasses(sortedSynthesizedClasses, executorService)) {
+        for (DexProgramClass synthesizedClass : sortedSynthesizedClasses) {
           needsProcessing.add(synthesizedClass.getProgramClassInitializer());
         }
       }
@@ -254,32 +290,32 @@ public abstract class CfInstructionDesugaringEventConsumer
     }
 
     private void finalizeInvokeSpecialDesugaring(
-        AppView<?> appView, Consumer<ProgramMethod> needsProcessing) {
+        AppView<?> appView,
+        Map<DexReference, InvokeSpecialBridgeInfo> invokeSpecialBridges,
+        Consumer<ProgramMethod> needsProcessing) {
+      List<InvokeSpecialBridgeInfo> pendingInvokeSpecialBridges =
+          new ArrayList<>(invokeSpecialBridges.values());
+      pendingInvokeSpecialBridges.sort(
+          Comparator.comparing(info -> info.getNewDirectMethod().getReference()));
+
       // Fixup the code of the new private methods have that been synthesized.
-      pendingInvokeSpecialBridges
-          .values()
-          .forEach(
-              info -> {
-                ProgramMethod newDirectMethod = info.getNewDirectMethod();
-                newDirectMethod
-                    .setCode(info.getVirtualMethod().getDefinition().getCode(), appView);
-              });
+      pendingInvokeSpecialBridges.forEach(
+          info -> {
+            ProgramMethod newDirectMethod = info.getNewDirectMethod();
+            newDirectMethod.setCode(info.getVirtualMethod().getDefinition().getCode(), appView);
+          });
 
       // Reprocess the methods that were subject to invoke-special desugaring (because their body
       // has been moved to a private method).
-      pendingInvokeSpecialBridges
-          .values()
-          .forEach(
-              info -> {
-                info.getVirtualMethod()
-                    .setCode(info.getVirtualMethodCode(), appView);
-                needsProcessing.accept(info.getVirtualMethod());
-              });
-
-      pendingInvokeSpecialBridges.clear();
+      pendingInvokeSpecialBridges.forEach(
+          info -> {
+            info.getVirtualMethod().setCode(info.getVirtualMethodCode(), appView);
+            needsProcessing.accept(info.getVirtualMethod());
+          });
     }
 
     private void finalizeLambdaDesugaring(
+        List<LambdaClass> synthesizedLambdaClasses,
         ClassConverterResult.Builder classConverterResultBuilder,
         Consumer<ProgramMethod> needsProcessing) {
       // Sort synthesized lambda classes to ensure deterministic insertion of the synthesized
@@ -290,21 +326,27 @@ public abstract class CfInstructionDesugaringEventConsumer
             classConverterResultBuilder, needsProcessing);
         lambdaClass.getLambdaProgramClass().forEachProgramMethod(needsProcessing);
       }
-      synthesizedLambdaClasses.clear();
     }
 
-    private void finalizeConstantDynamicDesugaring(Consumer<ProgramMethod> needsProcessing) {
+    private void finalizeConstantDynamicDesugaring(
+        List<ConstantDynamicClass> synthesizedConstantDynamicClasses,
+        Consumer<ProgramMethod> needsProcessing) {
+      synthesizedConstantDynamicClasses.sort(
+          Comparator.comparing(
+              constantDynamicClass ->
+                  constantDynamicClass.getConstantDynamicProgramClass().getType()));
       for (ConstantDynamicClass constantDynamicClass : synthesizedConstantDynamicClasses) {
         constantDynamicClass.rewriteBootstrapMethodSignatureIfNeeded();
         constantDynamicClass.getConstantDynamicProgramClass().forEachProgramMethod(needsProcessing);
       }
-      synthesizedConstantDynamicClasses.clear();
     }
 
     public boolean verifyNothingToFinalize() {
-      assert pendingInvokeSpecialBridges.isEmpty();
-      assert synthesizedLambdaClasses.isEmpty();
-      assert synthesizedConstantDynamicClasses.isEmpty();
+      for (SynthesisBuffer buffer : buffers) {
+        assert buffer.invokeSpecialBridges.isEmpty();
+        assert buffer.lambdaClasses.isEmpty();
+        assert buffer.constantDynamicClasses.isEmpty();
+      }
       return true;
     }
 
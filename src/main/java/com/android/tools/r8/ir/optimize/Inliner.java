@@ -54,6 +54,7 @@ import com.android.tools.r8.ir.optimize.SimpleDominatingEffectAnalysis.SimpleEff
 import com.android.tools.r8.ir.optimize.info.OptimizationFeedback;
 import com.android.tools.r8.ir.optimize.info.OptimizationFeedbackIgnore;
 import com.android.tools.r8.ir.optimize.inliner.DefaultInliningReasonStrategy;
+import com.android.tools.r8.ir.optimize.inliner.InlineeCacheStatistics;
 import com.android.tools.r8.ir.optimize.inliner.InliningIRProvider;
 import com.android.tools.r8.ir.optimize.inliner.InliningReasonStrategy;
 import com.android.tools.r8.ir.optimize.inliner.NopWhyAreYouNotInliningReporter;
@@ -106,6 +107,8 @@ public class Inliner {
 
   private final AvailableApiExceptions availableApiExceptions;
 
+  private final InlineeCacheStatistics inlineeCacheStatistics = new InlineeCacheStatistics();
+
   public Inliner(
       AppView<AppInfoWithLiveness> appView,
       IRConverter converter,
@@ -891,7 +894,7 @@ public class Inliner {
             options.inliningInstructionAllowance - numberOfInstructions(code),
             inliningReasonStrategy);
     InliningIRProvider inliningIRProvider =
-        new InliningIRProvider(appView, method, code, methodProcessor);
+        new InliningIRProvider(appView, method, code, methodProcessor, inlineeCacheStatistics);
     assert inliningIRProvider.verifyIRCacheIsEmpty();
     performInliningImpl(
         oracle, oracle, method, code, feedback, inliningIRProvider, methodProcessor, timing);
@@ -1304,6 +1307,11 @@ public class Inliner {
                     method -> method.getOptimizationInfo().hasBeenInlinedIntoSingleCallSite()));
     singleInlineCallers.clear();
     multiCallerInliner.onLastWaveDone(postMethodProcessorBuilder, executorService, timing);
+    inlineeCacheStatistics.reportAndReset(timing);
+  }
+
+  public InlineeCacheStatistics getInlineeCacheStatistics() {
+    return inlineeCacheStatistics;
   }
 
   public static boolean verifyAllSingleCallerMethodsHaveBeenPruned(
@@ -185,7 +185,8 @@ public final class ClassInliner {
 
         // Is inlining allowed.
         InliningIRProvider inliningIRProvider =
-            new InliningIRProvider(appView, method, code, methodProcessor);
+            new InliningIRProvider(
+                appView, method, code, methodProcessor, inliner.getInlineeCacheStatistics());
         ClassInlinerCostAnalysis costAnalysis =
             new ClassInlinerCostAnalysis(appView, inliningIRProvider, processor.getReceivers());
         if (costAnalysis.willExceedInstructionBudget(
@@ -101,6 +101,7 @@ import com.android.tools.r8.shaking.AppInfoWithLiveness;
 import com.android.tools.r8.shaking.KeepInfoCollection;
 import com.android.tools.r8.utils.Reporter;
 import com.android.tools.r8.utils.StringDiagnostic;
+import com.android.tools.r8.utils.ThreadUtils;
 import com.android.tools.r8.utils.collections.ImmutableInt2ReferenceSortedMap;
 import com.android.tools.r8.utils.collections.LongLivedClassSetBuilder;
 import com.android.tools.r8.utils.collections.LongLivedProgramMethodMapBuilder;
@@ -117,6 +118,7 @@ import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -139,7 +141,6 @@ public class EnumUnboxerImpl extends EnumUnboxer {
   // Map the enum candidates with their dependencies, i.e., the methods to reprocess for the given
   // enum if the optimization eventually decides to unbox it.
   private EnumUnboxingCandidateInfoCollection enumUnboxingCandidatesInfo;
-  private final Set<DexProgramClass> candidatesToRemoveInWave = Sets.newConcurrentHashSet();
   private final Map<DexType, EnumStaticFieldValues> staticFieldValuesMap =
       new ConcurrentHashMap<>();
 
@@ -183,10 +184,7 @@ public class EnumUnboxerImpl extends EnumUnboxer {
 
   @Override
   public void updateEnumUnboxingCandidatesInfo() {
-    for (DexProgramClass candidate : candidatesToRemoveInWave) {
-      enumUnboxingCandidatesInfo.removeCandidate(candidate);
-    }
-    candidatesToRemoveInWave.clear();
+    enumUnboxingCandidatesInfo.removeInvalidatedCandidates();
   }
 
   /**
@@ -199,7 +197,7 @@ public class EnumUnboxerImpl extends EnumUnboxer {
     assert enumClass.isEnum();
     if (!reportFailure(enumClass, reason)) {
       // The failure was not reported, meaning debug logging is disabled.
-      candidatesToRemoveInWave.add(enumClass);
+      enumUnboxingCandidatesInfo.invalidateCandidate(enumClass);
       return true;
     }
     return false;
@@ -632,9 +630,9 @@ public class EnumUnboxerImpl extends EnumUnboxer {
       throws ExecutionException {
     assert feedback.noUpdatesLeft();
 
-    assert candidatesToRemoveInWave.isEmpty();
-    EnumDataMap enumDataMap = finishAnalysis();
-    assert candidatesToRemoveInWave.isEmpty();
+    assert !enumUnboxingCandidatesInfo.hasInvalidatedCandidates();
+    EnumDataMap enumDataMap = finishAnalysis(executorService);
+    assert !enumUnboxingCandidatesInfo.hasInvalidatedCandidates();
 
     // At this point the enum unboxing candidates are no longer candidates, they will all be
     // unboxed. We extract the now immutable enums to unbox information and clear the candidate
@@ -658,7 +656,8 @@ public class EnumUnboxerImpl extends EnumUnboxer {
 
     EnumUnboxingUtilityClasses utilityClasses =
         EnumUnboxingUtilityClasses.builder(appView)
-            .synthesizeEnumUnboxingUtilityClasses(enumClassesToUnbox, enumDataMap)
+            .synthesizeEnumUnboxingUtilityClasses(
+                enumClassesToUnbox, enumDataMap, executorService)
             .build(converter, executorService);
 
     // Fixup the application.
@@ -762,10 +761,10 @@ public class EnumUnboxerImpl extends EnumUnboxer {
                 PrunedItems.builder().setRemovedClasses(enumsToUnbox).build()));
   }
 
-  public EnumDataMap finishAnalysis() {
+  public EnumDataMap finishAnalysis(ExecutorService executorService) throws ExecutionException {
     analyzeInitializers();
     updateEnumUnboxingCandidatesInfo();
-    EnumDataMap enumDataMap = analyzeEnumInstances();
+    EnumDataMap enumDataMap = analyzeEnumInstances(executorService);
     if (debugLogEnabled) {
       // Remove all enums that have been reported as being unboxable.
       debugLogs.keySet().forEach(enumUnboxingCandidatesInfo::removeCandidate);
@@ -775,20 +774,34 @@ public class EnumUnboxerImpl extends EnumUnboxer {
     return enumDataMap;
   }
 
-  private EnumDataMap analyzeEnumInstances() {
-    ImmutableMap.Builder<DexType, EnumData> builder = ImmutableMap.builder();
+  private EnumDataMap analyzeEnumInstances(ExecutorService executorService)
+      throws ExecutionException {
+    List<DexProgramClass> enumClasses = new ArrayList<>();
+    List<Set<DexField>> instanceFieldsPerEnum = new ArrayList<>();
     enumUnboxingCandidatesInfo.forEachCandidateAndRequiredInstanceFieldData(
         (enumClass, instanceFields) -> {
-          EnumData data = buildData(enumClass, instanceFields);
-          if (data == null) {
-            // Reason is already reported at this point.
-            enumUnboxingCandidatesInfo.removeCandidate(enumClass);
-            return;
-          }
-          if (!debugLogEnabled || !debugLogs.containsKey(enumClass.getType())) {
-            builder.put(enumClass.type, data);
-          }
+          enumClasses.add(enumClass);
+          instanceFieldsPerEnum.add(instanceFields);
         });
+    // The enum data is computed independently for each enum.
+    Collection<EnumData> enumDataPerEnum =
+        ThreadUtils.processItemsWithResults(
+            enumClasses,
+            (enumClass, i) -> buildData(enumClass, instanceFieldsPerEnum.get(i)),
+            executorService);
+    ImmutableMap.Builder<DexType, EnumData> builder = ImmutableMap.builder();
+    Iterator<EnumData> enumDataIterator = enumDataPerEnum.iterator();
+    for (DexProgramClass enumClass : enumClasses) {
+      EnumData data = enumDataIterator.next();
+      if (data == null) {
+        // Reason is already reported at this point.
+        enumUnboxingCandidatesInfo.removeCandidate(enumClass);
+        continue;
+      }
+      if (!debugLogEnabled || !debugLogs.containsKey(enumClass.getType())) {
+        builder.put(enumClass.type, data);
+      }
+    }
     staticFieldValuesMap.clear();
     return new EnumDataMap(builder.build());
   }
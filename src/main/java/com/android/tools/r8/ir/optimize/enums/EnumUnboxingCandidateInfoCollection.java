@@ -20,6 +20,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -28,6 +29,10 @@ public class EnumUnboxingCandidateInfoCollection {
   private final Map<DexType, EnumUnboxingCandidateInfo> enumTypeToInfo = new ConcurrentHashMap<>();
   private final Set<DexMethod> prunedMethods = Sets.newConcurrentHashSet();
 
+  // The candidates that have been invalidated in the current wave. These are not removed from
+  // enumTypeToInfo until the end of the wave.
+  private final Set<DexType> invalidatedCandidates = Sets.newConcurrentHashSet();
+
   public void addCandidate(
       AppView<AppInfoWithLiveness> appView,
       DexProgramClass enumClass,
@@ -50,6 +55,31 @@ public class EnumUnboxingCandidateInfoCollection {
     enumTypeToInfo.remove(enumType);
   }
 
+  /**
+   * Marks {@code enumClass} as no longer being a candidate. The candidate is removed by the next
+   * call to {@link #removeInvalidatedCandidates()}.
+   *
+   * <p>This is lock-free and only the first invalidation of each candidate is recorded, since
+   * invalidations of the same enum are typically reported from many methods concurrently.
+   */
+  public void invalidateCandidate(DexProgramClass enumClass) {
+    EnumUnboxingCandidateInfo info = enumTypeToInfo.get(enumClass.getType());
+    if (info != null && info.invalidate()) {
+      invalidatedCandidates.add(enumClass.getType());
+    }
+  }
+
+  public void removeInvalidatedCandidates() {
+    for (DexType enumType : invalidatedCandidates) {
+      removeCandidate(enumType);
+    }
+    invalidatedCandidates.clear();
+  }
+
+  public boolean hasInvalidatedCandidates() {
+    return !invalidatedCandidates.isEmpty();
+  }
+
   public boolean isCandidate(DexType enumType) {
     return enumTypeToInfo.containsKey(enumType);
   }
@@ -95,7 +125,7 @@ public class EnumUnboxingCandidateInfoCollection {
     // case the enum is no longer a candidate, and dependencies don't need to be recorded
     // anymore.
     EnumUnboxingCandidateInfo info = enumTypeToInfo.get(enumType);
-    if (info == null) {
+    if (info == null || info.isInvalidated()) {
       return;
     }
     info.addMethodDependency(programMethod);
@@ -106,7 +136,7 @@ public class EnumUnboxingCandidateInfoCollection {
     // case the enum is no longer a candidate, and dependencies don't need to be recorded
     // anymore.
     EnumUnboxingCandidateInfo info = enumTypeToInfo.get(enumClass.getType());
-    if (info == null) {
+    if (info == null || info.isInvalidated()) {
       return;
     }
     info.addRequiredInstanceFieldData(field);
@@ -126,6 +156,7 @@ public class EnumUnboxingCandidateInfoCollection {
 
   public void clear() {
     enumTypeToInfo.clear();
+    invalidatedCandidates.clear();
   }
 
   private static class EnumUnboxingCandidateInfo {
@@ -133,6 +164,7 @@ public class EnumUnboxingCandidateInfoCollection {
     private final DexProgramClass enumClass;
     private final LongLivedProgramMethodSetBuilder<ProgramMethodSet> methodDependencies;
     private final Set<DexField> requiredInstanceFieldData = Sets.newConcurrentHashSet();
+    private final AtomicBoolean invalidated = new AtomicBoolean();
 
     public EnumUnboxingCandidateInfo(
         AppView<AppInfoWithLiveness> appView,
@@ -150,6 +182,15 @@ public class EnumUnboxingCandidateInfoCollection {
       return enumClass;
     }
 
+    /** Returns true if this candidate was not already invalidated. */
+    boolean invalidate() {
+      return invalidated.compareAndSet(false, true);
+    }
+
+    boolean isInvalidated() {
+      return invalidated.get();
+    }
+
     public void addMethodDependency(ProgramMethod method) {
       methodDependencies.add(method);
     }
@@ -120,6 +120,7 @@ class EnumUnboxingLens extends NestedGraphLens {
     return new Builder(appView);
   }
 
+  /** The methods for recording moved members are thread safe. */
   static class Builder {
 
     private final DexItemFactory dexItemFactory;
@@ -143,7 +144,7 @@ class EnumUnboxingLens extends NestedGraphLens {
       return this;
     }
 
-    public void move(DexField from, DexField to) {
+    public synchronized void move(DexField from, DexField to) {
       if (from == to) {
         return;
       }
@@ -154,7 +155,7 @@ class EnumUnboxingLens extends NestedGraphLens {
       move(from, to, fromStatic, toStatic, Collections.emptyList());
     }
 
-    public RewrittenPrototypeDescription move(
+    public synchronized RewrittenPrototypeDescription move(
         DexMethod from,
         DexMethod to,
         boolean fromStatic,
@@ -103,33 +103,12 @@ class EnumUnboxingTreeFixer {
     // We do this before so that we can still perform lookup of definitions.
     fixupEnumClassInitializers(converter, executorService);
 
-    // Fix all methods and fields using enums to unbox.
-    // TODO(b/191617665): Parallelize this fixup.
-    for (DexProgramClass clazz : appView.appInfo().classes()) {
-      if (enumDataMap.isUnboxedEnum(clazz)) {
-        // Clear the initializers and move the other methods to the new location.
-        LocalEnumUnboxingUtilityClass localUtilityClass =
-            utilityClasses.getLocalUtilityClass(clazz);
-        Collection<DexEncodedField> localUtilityFields =
-            createLocalUtilityFields(clazz, localUtilityClass, prunedItemsBuilder);
-        Collection<DexEncodedMethod> localUtilityMethods =
-            createLocalUtilityMethods(clazz, localUtilityClass, prunedItemsBuilder);
-
-        // Cleanup old class.
-        clazz.clearInstanceFields();
-        clazz.clearStaticFields();
-        clazz.getMethodCollection().clearDirectMethods();
-        clazz.getMethodCollection().clearVirtualMethods();
-
-        // Update members on the local utility class.
-        localUtilityClass.getDefinition().setDirectMethods(localUtilityMethods);
-        localUtilityClass.getDefinition().setStaticFields(localUtilityFields);
-      } else {
-        clazz.getMethodCollection().replaceMethods(method -> fixupEncodedMethod(clazz, method));
-        fixupFields(clazz.staticFields(), clazz::setStaticField);
-        fixupFields(clazz.instanceFields(), clazz::setInstanceField);
-      }
-    }
+    // Fix all methods and fields using enums to unbox. Each class is only modified by the task
+    // that fixes the class itself, and the lens builder is thread safe.
+    ThreadUtils.processItems(
+        appView.appInfo().classes(),
+        clazz -> fixupClass(clazz, prunedItemsBuilder),
+        executorService);
 
     // Install the new graph lens before processing any checkNotZero() methods.
     EnumUnboxingLens lens = lensBuilder.build(appView);
@@ -145,6 +124,31 @@ class EnumUnboxingTreeFixer {
     return new Result(checkNotNullToCheckNotZeroMapping, lens, prunedItemsBuilder.build());
   }
 
+  private void fixupClass(DexProgramClass clazz, PrunedItems.Builder prunedItemsBuilder) {
+    if (enumDataMap.isUnboxedEnum(clazz)) {
+      // Clear the initializers and move the other methods to the new location.
+      LocalEnumUnboxingUtilityClass localUtilityClass = utilityClasses.getLocalUtilityClass(clazz);
+      Collection<DexEncodedField> localUtilityFields =
+          createLocalUtilityFields(clazz, localUtilityClass, prunedItemsBuilder);
+      Collection<DexEncodedMethod> localUtilityMethods =
+          createLocalUtilityMethods(clazz, localUtilityClass, prunedItemsBuilder);
+
+      // Cleanup old class.
+      clazz.clearInstanceFields();
+      clazz.clearStaticFields();
+      clazz.getMethodCollection().clearDirectMethods();
+      clazz.getMethodCollection().clearVirtualMethods();
+
+      // Update members on the local utility class.
+      localUtilityClass.getDefinition().setDirectMethods(localUtilityMethods);
+      localUtilityClass.getDefinition().setStaticFields(localUtilityFields);
+    } else {
+      clazz.getMethodCollection().replaceMethods(method -> fixupEncodedMethod(clazz, method));
+      fixupFields(clazz.staticFields(), clazz::setStaticField);
+      fixupFields(clazz.instanceFields(), clazz::setInstanceField);
+    }
+  }
+
   private BiMap<DexMethod, DexMethod> duplicateCheckNotNullMethods(
       IRConverter converter, ExecutorService executorService) throws ExecutionException {
     BiMap<DexMethod, DexMethod> checkNotNullToCheckNotZeroMapping = HashBiMap.create();
@@ -437,7 +441,9 @@ class EnumUnboxingTreeFixer {
     unboxedEnum.forEachProgramField(
         field -> {
           if (isPrunedAfterEnumUnboxing(field, enumData)) {
-            prunedItemsBuilder.addRemovedField(field.getReference());
+            synchronized (prunedItemsBuilder) {
+              prunedItemsBuilder.addRemovedField(field.getReference());
+            }
             return;
           }
 
@@ -498,7 +504,9 @@ class EnumUnboxingTreeFixer {
     unboxedEnum.forEachProgramMethod(
         method -> {
           if (method.getDefinition().isInstanceInitializer()) {
-            prunedItemsBuilder.addRemovedMethod(method.getReference());
+            synchronized (prunedItemsBuilder) {
+              prunedItemsBuilder.addRemovedMethod(method.getReference());
+            }
           } else {
             DexEncodedMethod newLocalUtilityMethod =
                 createLocalUtilityMethod(
@@ -15,7 +15,9 @@ import com.android.tools.r8.ir.optimize.info.OptimizationFeedbackSimple;
 import com.android.tools.r8.shaking.AppInfoWithLiveness;
 import com.android.tools.r8.shaking.FieldAccessInfoCollectionModifier;
 import com.android.tools.r8.utils.DescriptorUtils;
+import com.android.tools.r8.utils.ThreadUtils;
 import com.google.common.collect.ImmutableMap;
+import java.util.Collection;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -74,13 +76,16 @@ public class EnumUnboxingUtilityClasses {
     }
 
     public Builder synthesizeEnumUnboxingUtilityClasses(
-        Set<DexProgramClass> enumsToUnbox, EnumDataMap enumDataMap) {
+        Set<DexProgramClass> enumsToUnbox,
+        EnumDataMap enumDataMap,
+        ExecutorService executorService)
+        throws ExecutionException {
       SharedEnumUnboxingUtilityClass sharedUtilityClass =
           SharedEnumUnboxingUtilityClass.builder(
                   appView, enumDataMap, enumsToUnbox, fieldAccessInfoCollectionModifierBuilder)
               .build();
       ImmutableMap<DexType, LocalEnumUnboxingUtilityClass> localUtilityClasses =
-          createLocalUtilityClasses(enumsToUnbox, enumDataMap);
+          createLocalUtilityClasses(enumsToUnbox, enumDataMap, executorService);
       this.localUtilityClasses = localUtilityClasses;
       this.sharedUtilityClass = sharedUtilityClass;
       return this;
@@ -94,14 +99,18 @@ public class EnumUnboxingUtilityClasses {
       // Extend the field access info collection with information about synthesized fields.
       fieldAccessInfoCollectionModifierBuilder.build().modify(appView);
 
-      // Create and process the utility methods.
+      // Create and process the utility methods. The methods of the local utility classes only
+      // depend on the data of a single enum and are therefore created in parallel.
+      ThreadUtils.processItems(
+          localUtilityClasses.values(),
+          localUtilityClass -> localUtilityClass.ensureMethods(appView),
+          executorService);
+      sharedUtilityClass.ensureMethods(appView);
       OneTimeMethodProcessor.Builder methodProcessorBuilder =
           OneTimeMethodProcessor.builder(appView.createProcessorContext());
       utilityClasses.forEach(
-          utilityClass -> {
-            utilityClass.ensureMethods(appView);
-            utilityClass.getDefinition().forEachProgramMethod(methodProcessorBuilder::add);
-          });
+          utilityClass ->
+              utilityClass.getDefinition().forEachProgramMethod(methodProcessorBuilder::add));
       OneTimeMethodProcessor methodProcessor = methodProcessorBuilder.build();
       methodProcessor.forEachWaveWithExtension(
           (method, methodProcessingContext) ->
@@ -115,14 +124,21 @@ public class EnumUnboxingUtilityClasses {
     }
 
     private ImmutableMap<DexType, LocalEnumUnboxingUtilityClass> createLocalUtilityClasses(
-        Set<DexProgramClass> enumsToUnbox, EnumDataMap dataMap) {
+        Set<DexProgramClass> enumsToUnbox, EnumDataMap dataMap, ExecutorService executorService)
+        throws ExecutionException {
+      Collection<LocalEnumUnboxingUtilityClass> localUtilityClassesPerEnum =
+          ThreadUtils.processItemsWithResults(
+              enumsToUnbox,
+              enumToUnbox -> {
+                EnumData data = dataMap.get(enumToUnbox);
+                return LocalEnumUnboxingUtilityClass.builder(appView, enumToUnbox, data).build();
+              },
+              executorService);
       ImmutableMap.Builder<DexType, LocalEnumUnboxingUtilityClass> localUtilityClasses =
           ImmutableMap.builder();
-      for (DexProgramClass enumToUnbox : enumsToUnbox) {
-        EnumData data = dataMap.get(enumToUnbox);
+      for (LocalEnumUnboxingUtilityClass localUtilityClass : localUtilityClassesPerEnum) {
         localUtilityClasses.put(
-            enumToUnbox.getType(),
-            LocalEnumUnboxingUtilityClass.builder(appView, enumToUnbox, data).build());
+            localUtilityClass.getSynthesizingContext().getType(), localUtilityClass);
       }
       return localUtilityClasses.build();
     }
@@ -44,7 +44,6 @@ public class MutableMethodOptimizationInfo extends MethodOptimizationInfo
       DefaultMethodOptimizationInfo.UNKNOWN_ABSTRACT_RETURN_VALUE;
   private ClassInlinerMethodConstraint classInlinerConstraint =
       ClassInlinerMethodConstraint.alwaysFalse();
-  private boolean convertCheckNotNull = false;
   private EnumUnboxerMethodClassification enumUnboxerMethodClassification =
       EnumUnboxerMethodClassification.unknown();
   private DynamicType dynamicType = DynamicType.unknown();
@@ -79,6 +78,9 @@ public class MutableMethodOptimizationInfo extends MethodOptimizationInfo
 
   private BitSet unusedArguments = null;
 
+  // The bit sets above are interned using BitSetUtils#intern, since methods with the same prototype
+  // often share the same facts. Interned bit sets must never be mutated in place.
+
   // To reduce the memory footprint of UpdatableMethodOptimizationInfo, all the boolean fields are
   // merged into a flag int field. The various static final FLAG fields indicate which bit is
   // used by each boolean. DEFAULT_FLAGS encodes the default value for efficient instantiation and
@@ -90,6 +92,7 @@ public class MutableMethodOptimizationInfo extends MethodOptimizationInfo
   private static final int MAY_HAVE_SIDE_EFFECT_FLAG = 0x8;
   private static final int RETURN_VALUE_ONLY_DEPENDS_ON_ARGUMENTS_FLAG = 0x10;
   private static final int NEVER_RETURNS_NORMALLY_FLAG = 0x20;
+  private static final int CONVERT_CHECK_NOT_NULL_FLAG = 0x40;
   private static final int INITIALIZER_ENABLING_JAVA_ASSERTIONS_FLAG = 0x80;
   private static final int RETURN_VALUE_HAS_BEEN_PROPAGATED_FLAG = 0x100;
 
@@ -118,6 +121,8 @@ public class MutableMethodOptimizationInfo extends MethodOptimizationInfo
     defaultFlags |=
         BooleanUtils.intValue(defaultOptInfo.returnValueHasBeenPropagated())
             * RETURN_VALUE_HAS_BEEN_PROPAGATED_FLAG;
+    defaultFlags |=
+        BooleanUtils.intValue(defaultOptInfo.isConvertCheckNotNull()) * CONVERT_CHECK_NOT_NULL_FLAG;
     DEFAULT_FLAGS = defaultFlags;
   }
 
@@ -268,7 +273,7 @@ public class MutableMethodOptimizationInfo extends MethodOptimizationInfo
   }
 
   void setConvertCheckNotNull() {
-    this.convertCheckNotNull = true;
+    setFlag(CONVERT_CHECK_NOT_NULL_FLAG);
   }
 
   @Override
@@ -329,12 +334,12 @@ public class MutableMethodOptimizationInfo extends MethodOptimizationInfo
   }
 
   public MutableMethodOptimizationInfo fixupNonNullParamOrThrow(MethodOptimizationInfoFixer fixer) {
-    nonNullParamOrThrow = fixer.fixupNonNullParamOrThrow(nonNullParamOrThrow);
+    nonNullParamOrThrow = BitSetUtils.intern(fixer.fixupNonNullParamOrThrow(nonNullParamOrThrow));
     return this;
   }
 
   void setNonNullParamOrThrow(BitSet facts) {
-    this.nonNullParamOrThrow = facts;
+    this.nonNullParamOrThrow = BitSetUtils.intern(facts);
   }
 
   void unsetNonNullParamOrThrow() {
@@ -348,12 +353,13 @@ public class MutableMethodOptimizationInfo extends MethodOptimizationInfo
 
   public MutableMethodOptimizationInfo fixupNonNullParamOnNormalExits(
       MethodOptimizationInfoFixer fixer) {
-    nonNullParamOnNormalExits = fixer.fixupNonNullParamOnNormalExits(nonNullParamOnNormalExits);
+    nonNullParamOnNormalExits =
+        BitSetUtils.intern(fixer.fixupNonNullParamOnNormalExits(nonNullParamOnNormalExits));
     return this;
   }
 
   void setNonNullParamOnNormalExits(BitSet facts) {
-    this.nonNullParamOnNormalExits = facts;
+    this.nonNullParamOnNormalExits = BitSetUtils.intern(facts);
   }
 
   void unsetNonNullParamOnNormalExits() {
@@ -441,7 +447,9 @@ public class MutableMethodOptimizationInfo extends MethodOptimizationInfo
 
   public MutableMethodOptimizationInfo fixupUnusedArguments(BitSet unusedArguments) {
     this.unusedArguments =
-        unusedArguments != null && !unusedArguments.isEmpty() ? unusedArguments : null;
+        unusedArguments != null && !unusedArguments.isEmpty()
+            ? BitSetUtils.intern(unusedArguments)
+            : null;
     return this;
   }
 
@@ -451,7 +459,9 @@ public class MutableMethodOptimizationInfo extends MethodOptimizationInfo
     assert !hasUnusedArguments()
         || BitSetUtils.verifyLessThanOrEqualTo(getUnusedArguments(), unusedArguments);
     this.unusedArguments =
-        unusedArguments != null && !unusedArguments.isEmpty() ? unusedArguments : null;
+        unusedArguments != null && !unusedArguments.isEmpty()
+            ? BitSetUtils.intern(unusedArguments)
+            : null;
   }
 
   void unsetUnusedArguments() {
@@ -460,7 +470,7 @@ public class MutableMethodOptimizationInfo extends MethodOptimizationInfo
 
   @Override
   public boolean isConvertCheckNotNull() {
-    return convertCheckNotNull;
+    return isFlagSet(CONVERT_CHECK_NOT_NULL_FLAG);
   }
 
   @Override
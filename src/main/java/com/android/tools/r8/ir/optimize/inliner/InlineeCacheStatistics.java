@@ -0,0 +1,33 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.ir.optimize.inliner;
+
+import com.android.tools.r8.utils.OptionalBool;
+import com.android.tools.r8.utils.Timing;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how often the call site independent parts of the inlining IR of a callee could be reused
+ * from the callee's code, see {@link com.android.tools.r8.graph.Code#prepareForInlining}.
+ */
+public class InlineeCacheStatistics {
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  void record(OptionalBool hit) {
+    // Code that has nothing to cache, e.g., DEX code without debug info, is not counted.
+    if (hit.isTrue()) {
+      hits.incrementAndGet();
+    } else if (hit.isFalse()) {
+      misses.incrementAndGet();
+    }
+  }
+
+  public void reportAndReset(Timing timing) {
+    timing.count("Inlinee cache hits", hits.getAndSet(0));
+    timing.count("Inlinee cache misses", misses.getAndSet(0));
+  }
+}
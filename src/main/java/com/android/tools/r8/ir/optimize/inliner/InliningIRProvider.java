@@ -22,6 +22,7 @@ public class InliningIRProvider {
   private final ProgramMethod context;
   private final NumberGenerator valueNumberGenerator;
   private final MethodProcessor methodProcessor;
+  private final InlineeCacheStatistics inlineeCacheStatistics;
 
   private final Map<InvokeMethod, IRCode> cache = new IdentityHashMap<>();
 
@@ -30,14 +31,20 @@ public class InliningIRProvider {
     this.context = null;
     this.valueNumberGenerator = null;
     this.methodProcessor = null;
+    this.inlineeCacheStatistics = null;
   }
 
   public InliningIRProvider(
-      AppView<?> appView, ProgramMethod context, IRCode code, MethodProcessor methodProcessor) {
+      AppView<?> appView,
+      ProgramMethod context,
+      IRCode code,
+      MethodProcessor methodProcessor,
+      InlineeCacheStatistics inlineeCacheStatistics) {
     this.appView = appView;
     this.context = context;
     this.valueNumberGenerator = code.valueNumberGenerator;
     this.methodProcessor = methodProcessor;
+    this.inlineeCacheStatistics = inlineeCacheStatistics;
   }
 
   public static InliningIRProvider getThrowingInstance() {
@@ -79,6 +86,7 @@ public class InliningIRProvider {
     if (cached != null) {
       return cached;
     }
+    inlineeCacheStatistics.record(method.prepareForInlining(appView, methodProcessor));
     Origin origin = method.getOrigin();
     return method.buildInliningIR(
         context,
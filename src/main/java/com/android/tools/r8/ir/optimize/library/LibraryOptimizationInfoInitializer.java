@@ -19,6 +19,7 @@ import com.android.tools.r8.ir.optimize.info.field.InstanceFieldInitializationIn
 import com.android.tools.r8.ir.optimize.info.field.InstanceFieldInitializationInfoFactory;
 import com.android.tools.r8.ir.optimize.info.initializer.InstanceInitializerInfoCollection;
 import com.android.tools.r8.ir.optimize.info.initializer.NonTrivialInstanceInitializerInfo;
+import com.android.tools.r8.utils.BitSetUtils;
 import com.google.common.collect.Sets;
 import java.util.BitSet;
 import java.util.Set;
@@ -101,7 +102,11 @@ public class LibraryOptimizationInfoInitializer {
 
             // Also set non-null-param-on-normal-exits info.
             if (definition.getOptimizationInfo().hasNonNullParamOnNormalExits()) {
-              definition.getOptimizationInfo().getNonNullParamOnNormalExits().or(bitSet);
+              // The existing facts may be shared with other methods and must not be mutated.
+              feedback.setNonNullParamOnNormalExits(
+                  definition,
+                  BitSetUtils.or(
+                      definition.getOptimizationInfo().getNonNullParamOnNormalExits(), bitSet));
             } else {
               feedback.setNonNullParamOnNormalExits(definition, (BitSet) bitSet.clone());
             }
@@ -6,21 +6,16 @@ package com.android.tools.r8.ir.optimize.string;
 
 import com.android.tools.r8.graph.AppView;
 import com.android.tools.r8.graph.DexMethod;
-import com.android.tools.r8.ir.analysis.framework.intraprocedural.AbstractState;
-import com.android.tools.r8.ir.analysis.framework.intraprocedural.AbstractTransferFunction;
+import com.android.tools.r8.ir.analysis.framework.intraprocedural.BitVectorDataflowAnalysis;
+import com.android.tools.r8.ir.analysis.framework.intraprocedural.BitVectorTransferFunction;
 import com.android.tools.r8.ir.analysis.framework.intraprocedural.DataflowAnalysisResult;
-import com.android.tools.r8.ir.analysis.framework.intraprocedural.FailedTransferFunctionResult;
-import com.android.tools.r8.ir.analysis.framework.intraprocedural.IntraproceduralDataflowAnalysis;
-import com.android.tools.r8.ir.analysis.framework.intraprocedural.TransferFunctionResult;
-import com.android.tools.r8.ir.code.BasicBlock;
 import com.android.tools.r8.ir.code.IRCode;
 import com.android.tools.r8.ir.code.Instruction;
 import com.android.tools.r8.ir.code.InvokeMethod;
-import com.android.tools.r8.ir.code.InvokeVirtual;
 import com.android.tools.r8.ir.code.Value;
-import com.android.tools.r8.utils.SetUtils;
-import com.google.common.collect.Sets;
-import java.util.Set;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.BitSet;
 
 /**
  * This defines a simple program analysis that determines if there is a path from a call to append()
@@ -45,124 +40,64 @@ class StringBuilderAppendFlowAnalysis {
       IRCode code,
       Value builder,
       StringBuilderOptimizationConfiguration configuration) {
-    IntraproceduralDataflowAnalysis<AbstractStateImpl> analysis =
-        new IntraproceduralDataflowAnalysis<>(
-            appView,
-            AbstractStateImpl.bottom(),
-            code,
-            new TransferFunction(builder, configuration));
+    BitVectorDataflowAnalysis analysis =
+        new BitVectorDataflowAnalysis(new TransferFunction(builder, configuration));
     DataflowAnalysisResult result = analysis.run(builder.definition.getBlock());
     return result.isFailedAnalysisResult();
   }
 
-  /** This defines the state that we keep track of for each {@link BasicBlock}. */
-  private static class AbstractStateImpl extends AbstractState<AbstractStateImpl> {
-
-    private static final AbstractStateImpl BOTTOM = new AbstractStateImpl();
-
-    // The set of invoke instructions that call append(), which is on a path to the current program
-    // point.
-    private final Set<InvokeVirtual> liveAppendInstructions;
-
-    private AbstractStateImpl() {
-      this(Sets.newIdentityHashSet());
-    }
-
-    private AbstractStateImpl(Set<InvokeVirtual> liveAppendInstructions) {
-      this.liveAppendInstructions = liveAppendInstructions;
-    }
-
-    public static AbstractStateImpl bottom() {
-      return BOTTOM;
-    }
-
-    private AbstractStateImpl addLiveAppendInstruction(InvokeVirtual invoke) {
-      Set<InvokeVirtual> newLiveAppendInstructions =
-          SetUtils.newIdentityHashSet(liveAppendInstructions);
-      newLiveAppendInstructions.add(invoke);
-      return new AbstractStateImpl(newLiveAppendInstructions);
-    }
-
-    private boolean isAppendInstructionLive(InvokeVirtual invoke) {
-      return liveAppendInstructions.contains(invoke);
-    }
-
-    @Override
-    public AbstractStateImpl asAbstractState() {
-      return this;
-    }
-
-    @Override
-    public AbstractStateImpl join(AppView<?> appView, AbstractStateImpl state) {
-      if (liveAppendInstructions.isEmpty()) {
-        return state;
-      }
-      if (state.liveAppendInstructions.isEmpty()) {
-        return this;
-      }
-      Set<InvokeVirtual> newLiveAppendInstructions =
-          SetUtils.newIdentityHashSet(liveAppendInstructions, state.liveAppendInstructions);
-      return new AbstractStateImpl(newLiveAppendInstructions);
-    }
-
-    @Override
-    public boolean equals(Object other) {
-      if (other == null || getClass() != other.getClass()) {
-        return false;
-      }
-      AbstractStateImpl state = (AbstractStateImpl) other;
-      return liveAppendInstructions.equals(state.liveAppendInstructions);
-    }
-
-    @Override
-    public int hashCode() {
-      return liveAppendInstructions.hashCode();
-    }
-  }
-
   /**
    * This defines the transfer function for the analysis.
    *
-   * <p>If a call to {@code append()} on the builder is seen, then that invoke instruction is added
-   * to the abstract state.
+   * <p>The abstract state is the set of invoke instructions that call {@code append()} on the
+   * builder, which are on a path to the current program point. Each such invoke instruction is
+   * assigned a bit in the order in which the invoke instructions are encountered.
    *
-   * <p>If a call to {@code toString()} on the builder i seen, then the abstract state is reset to
+   * <p>If a call to {@code append()} on the builder is seen, then the bit of that invoke
+   * instruction is set in the abstract state. If the bit is already set, then the analysis is
+   * aborted, since the call to {@code append()} is inside a loop.
+   *
+   * <p>If a call to {@code toString()} on the builder is seen, then the abstract state is reset to
    * bottom.
    */
-  private static class TransferFunction
-      implements AbstractTransferFunction<BasicBlock, Instruction, AbstractStateImpl> {
+  private static class TransferFunction implements BitVectorTransferFunction {
 
     private final Value builder;
     private final StringBuilderOptimizationConfiguration configuration;
 
+    private final Reference2IntMap<InvokeMethod> appendInstructionIndices =
+        new Reference2IntOpenHashMap<>();
+
     private TransferFunction(Value builder, StringBuilderOptimizationConfiguration configuration) {
       this.builder = builder;
       this.configuration = configuration;
+      appendInstructionIndices.defaultReturnValue(-1);
     }
 
     @Override
-    public TransferFunctionResult<AbstractStateImpl> apply(
-        Instruction instruction, AbstractStateImpl state) {
+    public boolean apply(Instruction instruction, BitSet state) {
       if (instruction.isInvokeMethod()) {
-        return apply(state, instruction.asInvokeMethod());
+        return apply(instruction.asInvokeMethod(), state);
       }
-      return state;
+      return true;
     }
 
-    private TransferFunctionResult<AbstractStateImpl> apply(
-        AbstractStateImpl state, InvokeMethod invoke) {
+    private boolean apply(InvokeMethod invoke, BitSet state) {
       if (isAppendOnBuilder(invoke)) {
         assert invoke.isInvokeVirtual();
-        InvokeVirtual appendInvoke = invoke.asInvokeVirtual();
-        if (state.isAppendInstructionLive(appendInvoke)) {
-          return new FailedTransferFunctionResult<>();
+        int appendInstructionIndex = appendInstructionIndices.getInt(invoke);
+        if (appendInstructionIndex < 0) {
+          appendInstructionIndex = appendInstructionIndices.size();
+          appendInstructionIndices.put(invoke, appendInstructionIndex);
         }
-        return state.addLiveAppendInstruction(appendInvoke);
-      }
-      if (isToStringOnBuilder(invoke)) {
-        return AbstractStateImpl.bottom();
+        if (state.get(appendInstructionIndex)) {
+          return false;
+        }
+        state.set(appendInstructionIndex);
+      } else if (isToStringOnBuilder(invoke)) {
+        state.clear();
       }
-      return state;
+      return true;
     }
 
     private boolean isAppendOnBuilder(InvokeMethod invoke) {
@@ -4,6 +4,7 @@
 package com.android.tools.r8.ir.optimize.string;
 
 import static com.android.tools.r8.ir.analysis.type.Nullability.definitelyNotNull;
+import static com.android.tools.r8.utils.MapUtils.ignoreKey;
 
 import com.android.tools.r8.graph.AppInfo;
 import com.android.tools.r8.graph.AppView;
@@ -44,6 +45,7 @@ import com.google.common.collect.Sets;
 import it.unimi.dsi.fastutil.objects.Object2IntArrayMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -176,6 +178,10 @@ public class StringBuilderOptimizer {
   }
 
   public void computeTrivialStringConcatenation(IRCode code) {
+    // Bail out early if the code cannot create and use a builder.
+    if (!code.metadata().mayHaveNewInstance() || !code.metadata().mayHaveInvokeMethod()) {
+      return;
+    }
     StringConcatenationAnalysis analysis = new StringConcatenationAnalysis(code);
     // Only for testing purpose, where we ran the analysis for only one method.
     // Using `this.analysis` is not thread-safe, of course.
@@ -208,6 +214,9 @@ public class StringBuilderOptimizer {
     // TODO(b/114002137): some of those toString could have constant string states.
     final Object2IntMap<Value> builderToStringCounts = new Object2IntArrayMap<>();
 
+    // A cache for the append-in-loop check of each builder, which is needed for each toString().
+    final Map<Value, Boolean> buildersWithAppendInstructionInLoop = new IdentityHashMap<>();
+
     StringConcatenationAnalysis(IRCode code) {
       this.code = code;
     }
@@ -721,13 +730,21 @@ public class StringBuilderOptimizer {
       if (contents.isEmpty()) {
         return null;
       }
-      if (StringBuilderAppendFlowAnalysis.hasAppendInstructionInLoop(
-          appView, code, builder, optimizationConfiguration)) {
+      if (hasAppendInstructionInLoop(builder)) {
         return null;
       }
       return StringUtils.join("", contents);
     }
 
+    private boolean hasAppendInstructionInLoop(Value builder) {
+      return buildersWithAppendInstructionInLoop.computeIfAbsent(
+          builder,
+          ignoreKey(
+              () ->
+                  StringBuilderAppendFlowAnalysis.hasAppendInstructionInLoop(
+                      appView, code, builder, optimizationConfiguration)));
+    }
+
     void removeTrivialBuilders() {
       if (deadBuilders.isEmpty() && simplifiedBuilders.isEmpty()) {
         return;
@@ -48,6 +48,7 @@ public class StringOptimizer {
 
   private final AppView<?> appView;
   private final DexItemFactory factory;
+  private final DexString nullString;
 
   private int numberOfSimplifiedOperations = 0;
   private final Object2IntMap<ClassNameMapping> numberOfComputedNames;
@@ -59,6 +60,7 @@ public class StringOptimizer {
   public StringOptimizer(AppView<?> appView) {
     this.appView = appView;
     this.factory = appView.dexItemFactory();
+    this.nullString = factory.createString("null");
     if (Log.ENABLED && Log.isLoggingEnabledFor(StringOptimizer.class)) {
       numberOfComputedNames = new Object2IntArrayMap<>();
       numberOfDeferredComputationOfNames = new Object2IntArrayMap<>();
@@ -503,6 +505,9 @@ public class StringOptimizer {
   // String#valueOf(String s) -> s
   // str.toString() -> str
   public void removeTrivialConversions(IRCode code) {
+    if (!code.metadata().mayHaveInvokeStatic() && !code.metadata().mayHaveInvokeVirtual()) {
+      return;
+    }
     Set<Value> affectedValues = Sets.newIdentityHashSet();
     InstructionListIterator it = code.instructionListIterator();
     while (it.hasNext()) {
@@ -525,8 +530,7 @@ public class StringOptimizer {
           Value nullStringValue =
               code.createValue(
                   TypeElement.stringClassType(appView, definitelyNotNull()), invoke.getLocalInfo());
-          ConstString nullString = new ConstString(nullStringValue, factory.createString("null"));
-          it.replaceCurrentInstruction(nullString);
+          it.replaceCurrentInstruction(new ConstString(nullStringValue, nullString));
           numberOfSimplifiedConversions++;
         } else if (inType.nullability().isDefinitelyNotNull()
             && inType.isClassType()
@@ -3,6 +3,7 @@
 // BSD-style license that can be found in the LICENSE file.
 package com.android.tools.r8.jar;
 
+import static com.android.tools.r8.utils.ExceptionUtils.unwrapExecutionException;
 import static com.android.tools.r8.utils.InternalOptions.ASM_VERSION;
 import static com.android.tools.r8.utils.LineNumberOptimizer.runAndWriteMap;
 
@@ -53,9 +54,11 @@ import com.android.tools.r8.utils.InternalGlobalSyntheticsProgramConsumer.Intern
 import com.android.tools.r8.utils.InternalOptions;
 import com.android.tools.r8.utils.OriginalSourceFiles;
 import com.android.tools.r8.utils.PredicateUtils;
+import com.android.tools.r8.utils.ThreadUtils;
 import com.android.tools.r8.utils.structural.Ordered;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
+import com.google.common.collect.Iterables;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
@@ -63,6 +66,8 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Predicate;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
@@ -95,6 +100,10 @@ public class CfApplicationWriter {
 
   private static final CfVersion MIN_VERSION_FOR_COMPILER_GENERATED_CODE = CfVersion.V1_6;
 
+  // Maximal number of classes that are generated concurrently before they are supplied to the
+  // consumer. This bounds the number of class files that are held in memory.
+  private static final int MAX_CLASSES_PER_BATCH = 1024;
+
   public CfApplicationWriter(AppView<?> appView, Marker marker) {
     this.application = appView.appInfo().app();
     this.appView = appView;
@@ -111,13 +120,34 @@ public class CfApplicationWriter {
 
   public void write(ClassFileConsumer consumer) {
     assert options.proguardMapConsumer == null;
-    write(consumer, null);
+    application.timing.begin("CfApplicationWriter.write");
+    try {
+      writeApplication(consumer, null, null);
+    } catch (ExecutionException e) {
+      throw unwrapExecutionException(e);
+    } finally {
+      application.timing.end();
+    }
   }
 
-  public void write(ClassFileConsumer consumer, AndroidApp inputApp) {
+  public void write(
+      ClassFileConsumer consumer, ExecutorService executorService, AndroidApp inputApp)
+      throws ExecutionException {
     application.timing.begin("CfApplicationWriter.write");
     try {
-      writeApplication(inputApp, consumer);
+      ProguardMapId proguardMapId = null;
+      if (options.proguardMapConsumer != null) {
+        proguardMapId =
+            runAndWriteMap(
+                inputApp,
+                appView,
+                application.timing,
+                OriginalSourceFiles.fromClasses(),
+                DebugRepresentation.none(options),
+                executorService);
+        marker.setPgMapId(proguardMapId.getId());
+      }
+      writeApplication(consumer, proguardMapId, executorService);
     } finally {
       application.timing.end();
     }
@@ -134,23 +164,16 @@ public class CfApplicationWriter {
     return true;
   }
 
-  private void writeApplication(AndroidApp inputApp, ClassFileConsumer consumer) {
-    ProguardMapId proguardMapId = null;
-    if (options.proguardMapConsumer != null) {
-      proguardMapId =
-          runAndWriteMap(
-              inputApp,
-              appView,
-              application.timing,
-              OriginalSourceFiles.fromClasses(),
-              DebugRepresentation.none(options));
-      marker.setPgMapId(proguardMapId.getId());
-    }
+  private void writeApplication(
+      ClassFileConsumer consumer, ProguardMapId proguardMapId, ExecutorService executorService)
+      throws ExecutionException {
     Optional<String> markerString =
         includeMarker(marker) ? Optional.of(marker.toString()) : Optional.empty();
-    SourceFileEnvironment sourceFileEnvironment = null;
+    String providedSourceFile = null;
     if (options.sourceFileProvider != null) {
-      sourceFileEnvironment = ApplicationWriter.createSourceFileEnvironment(proguardMapId);
+      SourceFileEnvironment sourceFileEnvironment =
+          ApplicationWriter.createSourceFileEnvironment(proguardMapId);
+      providedSourceFile = options.sourceFileProvider.get(sourceFileEnvironment);
     }
     LensCodeRewriterUtils rewriter = new LensCodeRewriterUtils(appView);
     Collection<DexProgramClass> classes = application.classes();
@@ -166,30 +189,70 @@ public class CfApplicationWriter {
         }
       }
     }
-    for (DexProgramClass clazz : classes) {
-      writeClassCatchingErrors(clazz, consumer, rewriter, markerString, sourceFileEnvironment);
-    }
+    writeClasses(
+        classes, consumer, rewriter, markerString, providedSourceFile, executorService);
     if (!globalSyntheticClasses.isEmpty()) {
       InternalGlobalSyntheticsCfConsumer globalsConsumer =
           new InternalGlobalSyntheticsCfConsumer(options.getGlobalSyntheticsConsumer(), appView);
-      for (DexProgramClass clazz : globalSyntheticClasses) {
-        writeClassCatchingErrors(
-            clazz, globalsConsumer, rewriter, markerString, sourceFileEnvironment);
-      }
+      writeClasses(
+          globalSyntheticClasses,
+          globalsConsumer,
+          rewriter,
+          markerString,
+          providedSourceFile,
+          executorService);
       globalsConsumer.finished(appView);
     }
     ApplicationWriter.supplyAdditionalConsumers(appView);
   }
 
-  private void writeClassCatchingErrors(
-      DexProgramClass clazz,
+  private void writeClasses(
+      Collection<DexProgramClass> classes,
       ClassFileConsumer consumer,
       LensCodeRewriterUtils rewriter,
       Optional<String> markerString,
-      SourceFileEnvironment sourceFileEnvironment) {
+      String providedSourceFile,
+      ExecutorService executorService)
+      throws ExecutionException {
+    if (executorService == null) {
+      for (DexProgramClass clazz : classes) {
+        supplyClass(
+            consumer,
+            generateClassCatchingErrors(clazz, rewriter, markerString, providedSourceFile));
+      }
+      return;
+    }
+    // Generate the class files concurrently, one batch at a time, and supply them to the consumer
+    // in the order of the classes, such that the output does not depend on the scheduling.
+    for (List<DexProgramClass> batch : Iterables.partition(classes, MAX_CLASSES_PER_BATCH)) {
+      Collection<GeneratedClass> generatedClasses =
+          ThreadUtils.processItemsWithResults(
+              batch,
+              clazz ->
+                  generateClassCatchingErrors(clazz, rewriter, markerString, providedSourceFile),
+              executorService);
+      for (GeneratedClass generatedClass : generatedClasses) {
+        supplyClass(consumer, generatedClass);
+      }
+    }
+  }
+
+  private void supplyClass(ClassFileConsumer consumer, GeneratedClass generatedClass) {
+    ExceptionUtils.withConsumeResourceHandler(
+        options.reporter,
+        handler ->
+            consumer.accept(
+                ByteDataView.of(generatedClass.bytes), generatedClass.descriptor, handler));
+  }
+
+  private GeneratedClass generateClassCatchingErrors(
+      DexProgramClass clazz,
+      LensCodeRewriterUtils rewriter,
+      Optional<String> markerString,
+      String providedSourceFile) {
     assert SyntheticNaming.verifyNotInternalSynthetic(clazz.getType());
     try {
-      writeClass(clazz, consumer, rewriter, markerString, sourceFileEnvironment);
+      return generateClass(clazz, rewriter, markerString, providedSourceFile);
     } catch (ClassTooLargeException e) {
       throw appView
           .options()
@@ -214,12 +277,11 @@ public class CfApplicationWriter {
     }
   }
 
-  private void writeClass(
+  private GeneratedClass generateClass(
       DexProgramClass clazz,
-      ClassFileConsumer consumer,
       LensCodeRewriterUtils rewriter,
       Optional<String> markerString,
-      SourceFileEnvironment sourceFileEnvironment) {
+      String providedSourceFile) {
     ClassWriter writer = new ClassWriter(0);
     if (markerString.isPresent()) {
       int markerStringPoolIndex = writer.newConst(markerString.get());
@@ -229,7 +291,7 @@ public class CfApplicationWriter {
     if (options.sourceFileProvider == null) {
       sourceFile = clazz.sourceFile != null ? clazz.sourceFile.toString() : null;
     } else {
-      sourceFile = options.sourceFileProvider.get(sourceFileEnvironment);
+      sourceFile = providedSourceFile;
     }
     String sourceDebug = getSourceDebugExtension(clazz.annotations());
     writer.visitSource(sourceFile, sourceDebug);
@@ -336,8 +398,18 @@ public class CfApplicationWriter {
       // so don't assert that verifyCf() returns true.
       verifyCf(result);
     }
-    ExceptionUtils.withConsumeResourceHandler(
-        options.reporter, handler -> consumer.accept(ByteDataView.of(result), desc, handler));
+    return new GeneratedClass(result, desc);
+  }
+
+  private static class GeneratedClass {
+
+    private final byte[] bytes;
+    private final String descriptor;
+
+    GeneratedClass(byte[] bytes, String descriptor) {
+      this.bytes = bytes;
+      this.descriptor = descriptor;
+    }
   }
 
   private int compareTypesThroughLens(DexType a, DexType b) {
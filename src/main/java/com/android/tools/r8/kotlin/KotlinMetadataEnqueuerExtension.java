@@ -26,8 +26,15 @@ import com.android.tools.r8.ir.optimize.info.OptimizationFeedbackSimple;
 import com.android.tools.r8.shaking.Enqueuer;
 import com.android.tools.r8.shaking.Enqueuer.EnqueuerDefinitionSupplier;
 import com.android.tools.r8.shaking.KeepClassInfo;
+import com.android.tools.r8.utils.ThreadUtils;
+import com.android.tools.r8.utils.Timing;
 import com.google.common.collect.Sets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 public class KotlinMetadataEnqueuerExtension extends EnqueuerAnalysis {
 
@@ -51,7 +58,8 @@ public class KotlinMetadataEnqueuerExtension extends EnqueuerAnalysis {
   }
 
   @Override
-  public void done(Enqueuer enqueuer) {
+  public void done(Enqueuer enqueuer, ExecutorService executorService, Timing timing)
+      throws ExecutionException {
     // In the first round of tree shaking build up all metadata such that it can be traced later.
     boolean keepKotlinMetadata =
         KeepClassInfo.isKotlinMetadataClassKept(
@@ -61,8 +69,11 @@ public class KotlinMetadataEnqueuerExtension extends EnqueuerAnalysis {
             enqueuer::getKeepInfo);
     // In the first round of tree shaking build up all metadata such that it can be traced later.
     if (enqueuer.getMode().isInitialTreeShaking()) {
-      Set<DexMethod> keepByteCodeFunctions = Sets.newIdentityHashSet();
+      Set<DexMethod> keepByteCodeFunctions = ConcurrentHashMap.newKeySet();
       Set<DexProgramClass> localOrAnonymousClasses = Sets.newIdentityHashSet();
+      // The metadata is only decoded for the live classes where it is kept. The metadata of all
+      // other classes is removed without being decoded.
+      List<DexProgramClass> classesWithKeptKotlinMetadata = new ArrayList<>();
       enqueuer.forAllLiveClasses(
           clazz -> {
             assert clazz.getKotlinInfo().isNoKotlinInformation();
@@ -79,15 +90,23 @@ public class KotlinMetadataEnqueuerExtension extends EnqueuerAnalysis {
                       annotation.getAnnotationType()
                           == appView.dexItemFactory().kotlinMetadataType);
             } else {
-              clazz.setKotlinInfo(
-                  KotlinClassMetadataReader.getKotlinInfo(
-                      clazz, appView, method -> keepByteCodeFunctions.add(method.getReference())));
+              classesWithKeptKotlinMetadata.add(clazz);
               if (clazz.getEnclosingMethodAttribute() != null
                   && clazz.getEnclosingMethodAttribute().getEnclosingMethod() != null) {
                 localOrAnonymousClasses.add(clazz);
               }
             }
           });
+      timing.begin("Decode kotlin metadata");
+      ThreadUtils.processItems(
+          classesWithKeptKotlinMetadata,
+          clazz ->
+              clazz.setKotlinInfo(
+                  KotlinClassMetadataReader.getKotlinInfo(
+                      clazz, appView, method -> keepByteCodeFunctions.add(method.getReference()))),
+          executorService);
+      timing.count("Decoded kotlin metadata", classesWithKeptKotlinMetadata.size());
+      timing.end();
       for (DexProgramClass localOrAnonymousClass : localOrAnonymousClasses) {
         EnclosingMethodAttribute enclosingAttribute =
             localOrAnonymousClass.getEnclosingMethodAttribute();
@@ -23,10 +23,12 @@ import com.android.tools.r8.graph.DexValue.DexValueString;
 import com.android.tools.r8.utils.ConsumerUtils;
 import com.android.tools.r8.utils.Pair;
 import com.android.tools.r8.utils.ThreadUtils;
+import com.android.tools.r8.utils.Timing;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import kotlinx.metadata.jvm.KotlinClassHeader;
 
 public class KotlinMetadataRewriter {
@@ -83,7 +85,8 @@ public class KotlinMetadataRewriter {
     return annotation.annotation.type != kotlinMetadataType;
   }
 
-  public void runForR8(ExecutorService executorService) throws ExecutionException {
+  public void runForR8(ExecutorService executorService, Timing timing)
+      throws ExecutionException {
     DexType rewrittenMetadataType = appView.graphLens().lookupClassType(factory.kotlinMetadataType);
     DexClass kotlinMetadata = appView.definitionFor(rewrittenMetadataType);
     WriteMetadataFieldInfo writeMetadataFieldInfo =
@@ -96,6 +99,7 @@ public class KotlinMetadataRewriter {
             kotlinMetadataFieldExists(kotlinMetadata, appView, kotlin.metadata.extraString),
             kotlinMetadataFieldExists(kotlinMetadata, appView, kotlin.metadata.packageName),
             kotlinMetadataFieldExists(kotlinMetadata, appView, kotlin.metadata.extraInt));
+    AtomicInteger rewrittenClasses = new AtomicInteger();
     ThreadUtils.processItems(
         appView.appInfo().classes(),
         clazz -> {
@@ -122,8 +126,10 @@ public class KotlinMetadataRewriter {
             return;
           }
           writeKotlinInfoToAnnotation(clazz, kotlinInfo, oldMeta, writeMetadataFieldInfo);
+          rewrittenClasses.incrementAndGet();
         },
         executorService);
+    timing.count("Rewritten kotlin metadata", rewrittenClasses.get());
   }
 
   public void runForD8(ExecutorService executorService) throws ExecutionException {
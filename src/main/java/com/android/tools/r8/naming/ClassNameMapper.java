@@ -49,15 +49,20 @@ public class ClassNameMapper implements ProguardMap {
     private LinkedHashSet<MapVersionMappingInformation> mapVersions = new LinkedHashSet<>();
     private final Map<String, String> originalSourceFiles = new HashMap<>();
 
+    // Synchronized since the line number optimizer creates class naming builders concurrently.
     @Override
-    public ClassNamingForNameMapper.Builder classNamingBuilder(
+    public synchronized ClassNamingForNameMapper.Builder classNamingBuilder(
         String renamedName, String originalName, Position position) {
       ClassNamingForNameMapper.Builder classNamingBuilder =
-          ClassNamingForNameMapper.builder(renamedName, originalName, originalSourceFiles::put);
+          ClassNamingForNameMapper.builder(renamedName, originalName, this::addOriginalSourceFile);
       mapping.put(renamedName, classNamingBuilder);
       return classNamingBuilder;
     }
 
+    private synchronized void addOriginalSourceFile(String originalName, String sourceFile) {
+      originalSourceFiles.put(originalName, sourceFile);
+    }
+
     @Override
     public ClassNameMapper build() {
       return new ClassNameMapper(buildClassNameMappings(), mapVersions, originalSourceFiles);
@@ -14,11 +14,17 @@ import com.android.tools.r8.utils.ChainableStringConsumer;
 import com.android.tools.r8.utils.ExceptionUtils;
 import com.android.tools.r8.utils.InternalOptions;
 import com.android.tools.r8.utils.Reporter;
+import com.android.tools.r8.utils.ThreadUtils;
 import com.android.tools.r8.utils.VersionProperties;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 public class ProguardMapSupplier {
 
@@ -33,6 +39,10 @@ public class ProguardMapSupplier {
 
   public static int PG_MAP_ID_LENGTH = 7;
 
+  // Number of classes rendered concurrently before the rendered mappings are passed on to the
+  // consumer. This bounds the amount of rendered mapping text held in memory.
+  private static final int RENDER_BATCH_SIZE = 1024;
+
   // Hash of the Proguard map (excluding the header up to and including the hash marker).
   public static class ProguardMapId {
     private final String id;
@@ -76,22 +86,48 @@ public class ProguardMapSupplier {
     return new ProguardMapSupplier(classNameMapper, options);
   }
 
-  public ProguardMapId writeProguardMap() {
-    ProguardMapId id = computeProguardMapId();
+  public ProguardMapId writeProguardMap(ExecutorService executorService)
+      throws ExecutionException {
+    ProguardMapId id = computeProguardMapId(executorService);
     writeMarker(id);
-    writeBody();
+    writeBody(executorService);
     ExceptionUtils.withFinishedResourceHandler(reporter, consumer);
     return id;
   }
 
-  private ProguardMapId computeProguardMapId() {
+  private ProguardMapId computeProguardMapId(ExecutorService executorService)
+      throws ExecutionException {
     ProguardMapIdBuilder builder = new ProguardMapIdBuilder();
-    classNameMapper.write(builder);
+    write(builder, executorService);
     return builder.build(options.mapIdProvider);
   }
 
-  private void writeBody() {
-    classNameMapper.write(new ProguardMapWriter());
+  private void writeBody(ExecutorService executorService) throws ExecutionException {
+    write(new ProguardMapWriter(), executorService);
+  }
+
+  // Renders the mapping for each class in parallel and streams the rendered mappings to the
+  // consumer in the sorted order of the classes. The map is rendered in batches such that the
+  // complete rendered map is never held in memory.
+  private void write(ChainableStringConsumer consumer, ExecutorService executorService)
+      throws ExecutionException {
+    assert classNameMapper.verifyIsSorted();
+    List<ClassNamingForNameMapper> classNamings =
+        new ArrayList<>(classNameMapper.getClassNameMappings().values());
+    for (int start = 0; start < classNamings.size(); start += RENDER_BATCH_SIZE) {
+      List<ClassNamingForNameMapper> batch =
+          classNamings.subList(start, Math.min(start + RENDER_BATCH_SIZE, classNamings.size()));
+      Collection<String> renderedClassNamings =
+          ThreadUtils.processItemsWithResults(
+              batch,
+              classNaming -> {
+                StringBuilder builder = new StringBuilder();
+                classNaming.write(ChainableStringConsumer.wrap(builder::append));
+                return builder.toString();
+              },
+              executorService);
+      renderedClassNamings.forEach(consumer::accept);
+    }
   }
 
   private void writeMarker(ProguardMapId id) {
@@ -25,14 +25,17 @@ import com.android.tools.r8.optimize.argumentpropagation.codescanner.StateCloner
 import com.android.tools.r8.optimize.argumentpropagation.utils.BidirectedGraph;
 import com.android.tools.r8.shaking.AppInfoWithLiveness;
 import com.android.tools.r8.utils.Action;
+import com.android.tools.r8.utils.InternalOptions.CallSiteOptimizationOptions;
 import com.android.tools.r8.utils.ThreadUtils;
 import com.google.common.collect.Sets;
 import it.unimi.dsi.fastutil.ints.Int2ReferenceMap;
 import it.unimi.dsi.fastutil.ints.Int2ReferenceOpenHashMap;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,6 +49,14 @@ public class InParameterFlowPropagator {
   final IRConverter converter;
   final MethodStateCollectionByReference methodStates;
 
+  // Components of the flow graph with at least this many nodes are partitioned into independent
+  // parts that are processed in parallel. Cycles with at least this many nodes are split into
+  // partitions that are iterated in parallel until a fixed point is reached.
+  private final int parallelProcessingThreshold;
+
+  // The number of nodes in each partition of a large cycle.
+  private final int cyclePartitionSize;
+
   public InParameterFlowPropagator(
       AppView<AppInfoWithLiveness> appView,
       IRConverter converter,
@@ -53,6 +64,9 @@ public class InParameterFlowPropagator {
     this.appView = appView;
     this.converter = converter;
     this.methodStates = methodStates;
+    CallSiteOptimizationOptions options = appView.options().callSiteOptimizationOptions();
+    this.parallelProcessingThreshold = options.getInParameterFlowParallelProcessingThreshold();
+    this.cyclePartitionSize = options.getInParameterFlowCyclePartitionSize();
   }
 
   public void run(ExecutorService executorService) throws ExecutionException {
@@ -62,7 +76,19 @@ public class InParameterFlowPropagator {
 
     List<Set<ParameterNode>> stronglyConnectedComponents =
         flowGraph.computeStronglyConnectedComponents();
+    List<Set<ParameterNode>> largeStronglyConnectedComponents = new ArrayList<>();
+    stronglyConnectedComponents.removeIf(
+        stronglyConnectedComponent -> {
+          if (stronglyConnectedComponent.size() >= parallelProcessingThreshold) {
+            largeStronglyConnectedComponents.add(stronglyConnectedComponent);
+            return true;
+          }
+          return false;
+        });
     ThreadUtils.processItems(stronglyConnectedComponents, this::process, executorService);
+    for (Set<ParameterNode> stronglyConnectedComponent : largeStronglyConnectedComponents) {
+      processInParallel(stronglyConnectedComponent, executorService);
+    }
 
     // The algorithm only changes the parameter states of each monomorphic method state. In case any
     // of these method states have effectively become unknown, we replace them by the canonicalized
@@ -71,24 +97,71 @@ public class InParameterFlowPropagator {
   }
 
   private void process(Set<ParameterNode> stronglyConnectedComponent) {
-    // Build a worklist containing all the parameter nodes.
-    Deque<ParameterNode> worklist = new ArrayDeque<>(stronglyConnectedComponent);
-
-    // Repeatedly propagate argument information through edges in the flow graph until there are no
-    // more changes.
-    // TODO(b/190154391): Consider a path p1 -> p2 -> p3 in the graph. If we process p2 first, then
-    //  p3, and then p1, then the processing of p1 could cause p2 to change, which means that we
-    //  need to reprocess p2 and then p3. If we always process leaves in the graph first, we would
-    //  process p1, then p2, then p3, and then be done.
+    // Process the cycles of the component in topological order, such that the argument information
+    // for all predecessors of a cycle is final when the cycle is processed.
+    for (FlowGraphCycle cycle : computeTopologicallySortedCycles(stronglyConnectedComponent)) {
+      processCycle(cycle);
+    }
+  }
+
+  private void processInParallel(
+      Set<ParameterNode> stronglyConnectedComponent, ExecutorService executorService)
+      throws ExecutionException {
+    // There are no edges between cycles that have the same depth in the topological order. The
+    // cycles of each depth can therefore be processed in parallel once all cycles of smaller depth
+    // have been processed. Since each cycle only reads the (final) argument information from its
+    // predecessors, the result does not depend on the scheduling.
+    for (List<FlowGraphCycle> cycles :
+        groupByDepth(computeTopologicallySortedCycles(stronglyConnectedComponent))) {
+      List<FlowGraphCycle> largeCycles = new ArrayList<>();
+      cycles.removeIf(
+          cycle -> {
+            if (cycle.getNodes().size() >= parallelProcessingThreshold) {
+              largeCycles.add(cycle);
+              return true;
+            }
+            return false;
+          });
+      if (cycles.size() == 1) {
+        processCycle(cycles.get(0));
+      } else if (!cycles.isEmpty()) {
+        ThreadUtils.processItems(cycles, this::processCycle, executorService);
+      }
+      for (FlowGraphCycle largeCycle : largeCycles) {
+        processCycleInParallel(largeCycle, executorService);
+      }
+    }
+  }
+
+  private void processCycle(FlowGraphCycle cycle) {
+    // Join the argument information from the predecessors outside the cycle into the nodes of the
+    // cycle. These predecessors have already been processed.
+    for (ParameterNode parameterNode : cycle.getNodes()) {
+      joinPredecessorsOutsideCycle(parameterNode, cycle);
+    }
+
+    if (cycle.isTrivial()) {
+      return;
+    }
+
+    // Build a worklist containing all the parameter nodes of the cycle.
+    Deque<ParameterNode> worklist = new ArrayDeque<>(cycle.getNodes());
+    for (ParameterNode parameterNode : worklist) {
+      parameterNode.setPending();
+    }
+
+    // Repeatedly propagate argument information through the edges of the cycle until there are no
+    // more changes. Successors outside the cycle pull the argument information when they are
+    // processed.
     while (!worklist.isEmpty()) {
       ParameterNode parameterNode = worklist.removeLast();
       parameterNode.unsetPending();
       propagate(
           parameterNode,
+          cycle,
           affectedNode -> {
-            // No need to enqueue the affected node if it is already in the worklist or if it does
-            // not have any successors (i.e., the successor is a leaf).
-            if (!affectedNode.isPending() && affectedNode.hasSuccessors()) {
+            // No need to enqueue the affected node if it is already in the worklist.
+            if (!affectedNode.isPending()) {
               worklist.add(affectedNode);
               affectedNode.setPending();
             }
@@ -96,26 +169,167 @@ public class InParameterFlowPropagator {
     }
   }
 
+  /**
+   * Processes a large cycle by splitting it into partitions.
+   *
+   * <p>The processing proceeds in rounds. In each round, the partitions are processed in parallel.
+   * Each partition propagates argument information along its own edges until there are no more
+   * changes. It only reads and writes the state of its own nodes. Between rounds, the argument
+   * information of the nodes that changed is propagated along the edges between partitions on the
+   * calling thread. The fixed point is reached when no partition has pending nodes after this
+   * exchange. Since no state is shared between partitions during a round, the result does not
+   * depend on the scheduling.
+   */
+  private void processCycleInParallel(FlowGraphCycle cycle, ExecutorService executorService)
+      throws ExecutionException {
+    List<FlowGraphCyclePartition> partitions = new ArrayList<>();
+    List<ParameterNode> nodes = cycle.getNodes();
+    for (int start = 0; start < nodes.size(); start += cyclePartitionSize) {
+      int end = Math.min(start + cyclePartitionSize, nodes.size());
+      partitions.add(new FlowGraphCyclePartition(cycle, nodes.subList(start, end)));
+    }
+    ThreadUtils.processItems(
+        partitions, FlowGraphCyclePartition::joinPredecessorsOutsideCycle, executorService);
+    do {
+      ThreadUtils.processItems(partitions, FlowGraphCyclePartition::process, executorService);
+    } while (propagateBetweenPartitions(partitions));
+  }
+
+  /**
+   * Propagates the argument information of the nodes that changed in the last round along the
+   * edges to other partitions. Returns true if this changed the state of any node, in which case
+   * another round is needed.
+   */
+  private boolean propagateBetweenPartitions(List<FlowGraphCyclePartition> partitions) {
+    boolean changed = false;
+    for (FlowGraphCyclePartition partition : partitions) {
+      for (ParameterNode parameterNode : partition.changedBoundaryNodes) {
+        parameterNode.unsetBoundaryChanged();
+        ParameterState parameterState = parameterNode.getState();
+        for (ParameterNode successorNode : parameterNode.getSuccessors()) {
+          if (successorNode.getCycle() == partition.cycle
+              && successorNode.getPartition() != partition) {
+            successorNode.addState(
+                appView,
+                parameterState.asNonEmpty(),
+                () -> successorNode.getPartition().enqueue(successorNode));
+          }
+        }
+      }
+      partition.changedBoundaryNodes.clear();
+    }
+    for (FlowGraphCyclePartition partition : partitions) {
+      changed |= !partition.worklist.isEmpty();
+    }
+    return changed;
+  }
+
+  private void joinPredecessorsOutsideCycle(ParameterNode parameterNode, FlowGraphCycle cycle) {
+    for (ParameterNode predecessorNode : parameterNode.getPredecessors()) {
+      if (parameterNode.getState().isUnknown()) {
+        break;
+      }
+      if (predecessorNode.getCycle() != cycle) {
+        ParameterState predecessorState = predecessorNode.getState();
+        if (!predecessorState.isBottom()) {
+          parameterNode.addState(appView, predecessorState.asNonEmpty(), Action.empty());
+        }
+      }
+    }
+  }
+
   private void propagate(
-      ParameterNode parameterNode, Consumer<ParameterNode> affectedNodeConsumer) {
+      ParameterNode parameterNode,
+      FlowGraphCycle cycle,
+      Consumer<ParameterNode> affectedNodeConsumer) {
     ParameterState parameterState = parameterNode.getState();
     if (parameterState.isBottom()) {
       return;
     }
-    List<ParameterNode> newlyUnknownParameterNodes = new ArrayList<>();
     for (ParameterNode successorNode : parameterNode.getSuccessors()) {
-      ParameterState newParameterState =
-          successorNode.addState(
-              appView,
-              parameterState.asNonEmpty(),
-              () -> affectedNodeConsumer.accept(successorNode));
-      if (newParameterState.isUnknown()) {
-        newlyUnknownParameterNodes.add(successorNode);
+      if (successorNode.getCycle() == cycle) {
+        successorNode.addState(
+            appView,
+            parameterState.asNonEmpty(),
+            () -> affectedNodeConsumer.accept(successorNode));
       }
     }
-    for (ParameterNode newlyUnknownParameterNode : newlyUnknownParameterNodes) {
-      newlyUnknownParameterNode.clearPredecessors();
+  }
+
+  /**
+   * Computes the strongly connected components of the directed flow graph restricted to the given
+   * nodes using Tarjan's algorithm, and returns them in topological order.
+   */
+  private static List<FlowGraphCycle> computeTopologicallySortedCycles(
+      Set<ParameterNode> nodes) {
+    List<FlowGraphCycle> cycles = new ArrayList<>();
+    Deque<ParameterNode> stack = new ArrayDeque<>();
+    Deque<Iterator<ParameterNode>> successorIterators = new ArrayDeque<>();
+    Deque<ParameterNode> path = new ArrayDeque<>();
+    int nextIndex = 0;
+    for (ParameterNode root : nodes) {
+      if (root.isVisited()) {
+        continue;
+      }
+      root.visit(nextIndex++);
+      stack.push(root);
+      path.push(root);
+      successorIterators.push(root.getSuccessors().iterator());
+      while (!path.isEmpty()) {
+        ParameterNode node = path.peek();
+        Iterator<ParameterNode> successorIterator = successorIterators.peek();
+        if (successorIterator.hasNext()) {
+          ParameterNode successor = successorIterator.next();
+          if (!successor.isVisited()) {
+            successor.visit(nextIndex++);
+            stack.push(successor);
+            path.push(successor);
+            successorIterators.push(successor.getSuccessors().iterator());
+          } else if (successor.isOnStack()) {
+            node.updateLowLink(successor.getIndex());
+          }
+          continue;
+        }
+        path.pop();
+        successorIterators.pop();
+        if (!path.isEmpty()) {
+          path.peek().updateLowLink(node.getLowLink());
+        }
+        if (node.getLowLink() == node.getIndex()) {
+          List<ParameterNode> cycleNodes = new ArrayList<>();
+          ParameterNode cycleNode;
+          do {
+            cycleNode = stack.pop();
+            cycleNode.unsetOnStack();
+            cycleNodes.add(cycleNode);
+          } while (cycleNode != node);
+          cycles.add(new FlowGraphCycle(cycleNodes));
+        }
+      }
+    }
+    // Tarjan's algorithm finds the strongly connected components in reverse topological order.
+    Collections.reverse(cycles);
+    return cycles;
+  }
+
+  private static List<List<FlowGraphCycle>> groupByDepth(List<FlowGraphCycle> cycles) {
+    List<List<FlowGraphCycle>> cyclesByDepth = new ArrayList<>();
+    for (FlowGraphCycle cycle : cycles) {
+      // All predecessors of the cycle precede it in the topological order, so its depth is final.
+      int depth = cycle.getDepth();
+      if (depth == cyclesByDepth.size()) {
+        cyclesByDepth.add(new ArrayList<>());
+      }
+      cyclesByDepth.get(depth).add(cycle);
+      for (ParameterNode node : cycle.getNodes()) {
+        for (ParameterNode successor : node.getSuccessors()) {
+          if (successor.getCycle() != cycle) {
+            successor.getCycle().updateDepth(depth + 1);
+          }
+        }
+      }
     }
+    return cyclesByDepth;
   }
 
   private void postProcessMethodStates(ExecutorService executorService) throws ExecutionException {
@@ -273,6 +487,101 @@ public class InParameterFlowPropagator {
     }
   }
 
+  /** A strongly connected component of the directed flow graph. */
+  static class FlowGraphCycle {
+
+    private final List<ParameterNode> nodes;
+    private int depth = 0;
+
+    FlowGraphCycle(List<ParameterNode> nodes) {
+      this.nodes = nodes;
+      for (ParameterNode node : nodes) {
+        node.setCycle(this);
+      }
+    }
+
+    int getDepth() {
+      return depth;
+    }
+
+    List<ParameterNode> getNodes() {
+      return nodes;
+    }
+
+    boolean isTrivial() {
+      if (nodes.size() > 1) {
+        return false;
+      }
+      ParameterNode node = nodes.get(0);
+      return !node.getSuccessors().contains(node);
+    }
+
+    void updateDepth(int depth) {
+      this.depth = Math.max(this.depth, depth);
+    }
+  }
+
+  /** A part of a large cycle, see {@link #processCycleInParallel}. */
+  private class FlowGraphCyclePartition {
+
+    private final FlowGraphCycle cycle;
+    private final List<ParameterNode> nodes;
+    private final Deque<ParameterNode> worklist = new ArrayDeque<>();
+
+    // The nodes that changed in the current round and have successors in other partitions.
+    private final List<ParameterNode> changedBoundaryNodes = new ArrayList<>();
+
+    FlowGraphCyclePartition(FlowGraphCycle cycle, List<ParameterNode> nodes) {
+      this.cycle = cycle;
+      this.nodes = nodes;
+      for (ParameterNode node : nodes) {
+        node.setPartition(this);
+      }
+    }
+
+    void enqueue(ParameterNode node) {
+      assert node.getPartition() == this;
+      if (!node.isPending()) {
+        worklist.add(node);
+        node.setPending();
+      }
+    }
+
+    void joinPredecessorsOutsideCycle() {
+      for (ParameterNode node : nodes) {
+        InParameterFlowPropagator.this.joinPredecessorsOutsideCycle(node, cycle);
+        enqueue(node);
+      }
+    }
+
+    void process() {
+      while (!worklist.isEmpty()) {
+        ParameterNode parameterNode = worklist.removeLast();
+        parameterNode.unsetPending();
+        ParameterState parameterState = parameterNode.getState();
+        if (parameterState.isBottom()) {
+          continue;
+        }
+        boolean hasSuccessorInOtherPartition = false;
+        for (ParameterNode successorNode : parameterNode.getSuccessors()) {
+          if (successorNode.getCycle() != cycle) {
+            continue;
+          }
+          if (successorNode.getPartition() == this) {
+            successorNode.addState(
+                appView, parameterState.asNonEmpty(), () -> enqueue(successorNode));
+          } else {
+            hasSuccessorInOtherPartition = true;
+          }
+        }
+        if (hasSuccessorInOtherPartition && !parameterNode.isBoundaryChanged()) {
+          parameterNode.setBoundaryChanged();
+          changedBoundaryNodes.add(parameterNode);
+        }
+      }
+    }
+  }
+
   static class ParameterNode {
 
     private final ConcreteMonomorphicMethodState methodState;
@@ -282,7 +591,17 @@ public class InParameterFlowPropagator {
     private final Set<ParameterNode> predecessors = Sets.newIdentityHashSet();
     private final Set<ParameterNode> successors = Sets.newIdentityHashSet();
 
-    private boolean pending = true;
+    private boolean pending = false;
+
+    // Bookkeeping for processing large cycles in partitions.
+    private FlowGraphCyclePartition partition;
+    private boolean boundaryChanged = false;
+
+    // Bookkeeping for computing the strongly connected components of the flow graph.
+    private FlowGraphCycle cycle;
+    private int index = -1;
+    private int lowLink;
+    private boolean onStack;
 
     ParameterNode(
         ConcreteMonomorphicMethodState methodState, int parameterIndex, DexType parameterType) {
@@ -303,6 +622,22 @@ public class InParameterFlowPropagator {
       predecessors.clear();
     }
 
+    FlowGraphCycle getCycle() {
+      return cycle;
+    }
+
+    int getIndex() {
+      return index;
+    }
+
+    FlowGraphCyclePartition getPartition() {
+      return partition;
+    }
+
+    int getLowLink() {
+      return lowLink;
+    }
+
     Set<ParameterNode> getPredecessors() {
       return predecessors;
     }
@@ -319,10 +654,22 @@ public class InParameterFlowPropagator {
       return !successors.isEmpty();
     }
 
+    boolean isBoundaryChanged() {
+      return boundaryChanged;
+    }
+
+    boolean isOnStack() {
+      return onStack;
+    }
+
     boolean isPending() {
       return pending;
     }
 
+    boolean isVisited() {
+      return index >= 0;
+    }
+
     ParameterState addState(
         AppView<AppInfoWithLiveness> appView,
         NonEmptyParameterState parameterStateToAdd,
@@ -342,6 +689,19 @@ public class InParameterFlowPropagator {
       return newParameterState;
     }
 
+    void setBoundaryChanged() {
+      assert !boundaryChanged;
+      boundaryChanged = true;
+    }
+
+    void setCycle(FlowGraphCycle cycle) {
+      this.cycle = cycle;
+    }
+
+    void setPartition(FlowGraphCyclePartition partition) {
+      this.partition = partition;
+    }
+
     void setPending() {
       assert !isPending();
       pending = true;
@@ -351,9 +711,28 @@ public class InParameterFlowPropagator {
       methodState.setParameterState(parameterIndex, parameterState);
     }
 
+    void unsetBoundaryChanged() {
+      assert boundaryChanged;
+      boundaryChanged = false;
+    }
+
+    void unsetOnStack() {
+      onStack = false;
+    }
+
     void unsetPending() {
       assert pending;
       pending = false;
     }
+
+    void updateLowLink(int value) {
+      lowLink = Math.min(lowLink, value);
+    }
+
+    void visit(int index) {
+      this.index = index;
+      this.lowLink = index;
+      this.onStack = true;
+    }
   }
 }
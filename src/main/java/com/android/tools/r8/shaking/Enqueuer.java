@@ -248,6 +248,15 @@ public class Enqueuer {
   private final Mode mode;
 
   private final Set<EnqueuerAnalysis> analyses = new LinkedHashSet<>();
+
+  // Analyses that process newly live items concurrently, and the newly live items that have not yet
+  // been processed by these analyses.
+  private final List<EnqueuerAnalysis> threadSafeAnalyses = new ArrayList<>();
+  private final List<DexProgramClass> newlyLiveClassesForThreadSafeAnalyses = new ArrayList<>();
+  private final List<Pair<ProgramField, ProgramDefinition>> newlyLiveFieldsForThreadSafeAnalyses =
+      new ArrayList<>();
+  private final List<Pair<ProgramMethod, ProgramDefinition>>
+      newlyLiveMethodsForThreadSafeAnalyses = new ArrayList<>();
   private final Set<EnqueuerFieldAccessAnalysis> fieldAccessAnalyses = new LinkedHashSet<>();
   private final Set<EnqueuerInvokeAnalysis> invokeAnalyses = new LinkedHashSet<>();
   private final Set<EnqueuerInstanceOfAnalysis> instanceOfAnalyses = new LinkedHashSet<>();
@@ -545,7 +554,9 @@ public class Enqueuer {
   }
 
   public Enqueuer registerAnalysis(EnqueuerAnalysis analysis) {
-    analyses.add(analysis);
+    if (analyses.add(analysis) && analysis.isThreadSafe()) {
+      threadSafeAnalyses.add(analysis);
+    }
     return this;
   }
 
@@ -2175,7 +2186,14 @@ public class Enqueuer {
     compatEnqueueHolderIfDependentNonStaticMember(
         clazz, rootSet.getDependentKeepClassCompatRule(clazz.getType()));
 
-    analyses.forEach(analysis -> analysis.processNewlyLiveClass(clazz, workList));
+    if (!threadSafeAnalyses.isEmpty()) {
+      newlyLiveClassesForThreadSafeAnalyses.add(clazz);
+    }
+    for (EnqueuerAnalysis analysis : analyses) {
+      if (!analysis.isThreadSafe()) {
+        analysis.processNewlyLiveClass(clazz, workList);
+      }
+    }
   }
 
   private void processDeferredAnnotations(
@@ -3112,7 +3130,14 @@ public class Enqueuer {
     }
 
     // Notify analyses.
-    analyses.forEach(analysis -> analysis.processNewlyLiveField(field, context, workList));
+    if (!threadSafeAnalyses.isEmpty()) {
+      newlyLiveFieldsForThreadSafeAnalyses.add(new Pair<>(field, context));
+    }
+    for (EnqueuerAnalysis analysis : analyses) {
+      if (!analysis.isThreadSafe()) {
+        analysis.processNewlyLiveField(field, context, workList);
+      }
+    }
   }
 
   // Package protected due to entry point from worklist.
@@ -3585,7 +3610,9 @@ public class Enqueuer {
     trace(executorService, timing);
     options.reporter.failIfPendingErrors();
     finalizeLibraryMethodOverrideInformation();
-    analyses.forEach(analyses -> analyses.done(this));
+    for (EnqueuerAnalysis analysis : analyses) {
+      analysis.done(this, executorService, timing);
+    }
     assert verifyKeptGraph();
     if (mode.isInitialTreeShaking() && forceProguardCompatibility) {
       appView.setProguardCompatibilityActions(proguardCompatibilityActionsBuilder.build());
@@ -4397,9 +4424,15 @@ public class Enqueuer {
           continue;
         }
 
+        processNewlyLiveItemsInThreadSafeAnalyses(executorService, timing);
+
         // Notify each analysis that a fixpoint has been reached, and give each analysis an
         // opportunity to add items to the worklist.
-        analyses.forEach(analysis -> analysis.notifyFixpoint(this, workList, timing));
+        for (EnqueuerAnalysis analysis : analyses) {
+          timing.begin(analysis.getClass().getSimpleName());
+          analysis.notifyFixpoint(this, workList, timing);
+          timing.end();
+        }
         if (!workList.isEmpty()) {
           continue;
         }
@@ -4433,6 +4466,9 @@ public class Enqueuer {
         postProcessingDesugaring();
       }
 
+      // Items may have become live after the last fixpoint notification.
+      processNewlyLiveItemsInThreadSafeAnalyses(executorService, timing);
+
       if (Log.ENABLED) {
         Set<DexEncodedMethod> allLive = Sets.newIdentityHashSet();
         Set<DexEncodedMethod> reachableNotLive = Sets.difference(allLive, liveMethods.getItems());
@@ -4448,6 +4484,45 @@ public class Enqueuer {
     }
   }
 
+  private void processNewlyLiveItemsInThreadSafeAnalyses(
+      ExecutorService executorService, Timing timing) throws ExecutionException {
+    if (newlyLiveClassesForThreadSafeAnalyses.isEmpty()
+        && newlyLiveFieldsForThreadSafeAnalyses.isEmpty()
+        && newlyLiveMethodsForThreadSafeAnalyses.isEmpty()) {
+      return;
+    }
+    EnqueuerWorklist nonPushableWorklist = workList.nonPushable();
+    for (EnqueuerAnalysis analysis : threadSafeAnalyses) {
+      timing.begin(analysis.getClass().getSimpleName());
+      ThreadUtils.processItems(
+          newlyLiveClassesForThreadSafeAnalyses,
+          clazz -> analysis.processNewlyLiveClass(clazz, nonPushableWorklist),
+          executorService);
+      ThreadUtils.processItems(
+          newlyLiveFieldsForThreadSafeAnalyses,
+          fieldAndContext ->
+              analysis.processNewlyLiveField(
+                  fieldAndContext.getFirst(), fieldAndContext.getSecond(), nonPushableWorklist),
+          executorService);
+      ThreadUtils.processItems(
+          newlyLiveMethodsForThreadSafeAnalyses,
+          methodAndContext ->
+              analysis.processNewlyLiveMethod(
+                  methodAndContext.getFirst(),
+                  methodAndContext.getSecond(),
+                  this,
+                  nonPushableWorklist),
+          executorService);
+      timing.end();
+    }
+    timing.count("Newly live classes", newlyLiveClassesForThreadSafeAnalyses.size());
+    timing.count("Newly live fields", newlyLiveFieldsForThreadSafeAnalyses.size());
+    timing.count("Newly live methods", newlyLiveMethodsForThreadSafeAnalyses.size());
+    newlyLiveClassesForThreadSafeAnalyses.clear();
+    newlyLiveFieldsForThreadSafeAnalyses.clear();
+    newlyLiveMethodsForThreadSafeAnalyses.clear();
+  }
+
   private void postProcessingDesugaring() throws ExecutionException {
     desugaring.withDesugaredLibraryAPIConverter(
         DesugaredLibraryAPIConverter::generateTrackingWarnings);
@@ -4709,7 +4784,14 @@ public class Enqueuer {
     }
 
     // Notify analyses.
-    analyses.forEach(analysis -> analysis.processNewlyLiveMethod(method, context, this, workList));
+    if (!threadSafeAnalyses.isEmpty()) {
+      newlyLiveMethodsForThreadSafeAnalyses.add(new Pair<>(method, context));
+    }
+    for (EnqueuerAnalysis analysis : analyses) {
+      if (!analysis.isThreadSafe()) {
+        analysis.processNewlyLiveMethod(method, context, this, workList);
+      }
+    }
   }
 
   private void markMethodAsTargeted(ProgramMethod method, KeepReason reason) {
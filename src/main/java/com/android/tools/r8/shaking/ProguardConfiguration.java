@@ -10,7 +10,10 @@ import com.android.tools.r8.origin.Origin;
 import com.android.tools.r8.position.Position;
 import com.android.tools.r8.utils.InternalOptions.PackageObfuscationMode;
 import com.android.tools.r8.utils.Reporter;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Sets;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -47,6 +50,8 @@ public class ProguardConfiguration {
     private final ProguardClassFilter.Builder dontWarnPatterns = ProguardClassFilter.builder();
     private final ProguardClassFilter.Builder dontNotePatterns = ProguardClassFilter.builder();
     protected final Set<ProguardConfigurationRule> rules = Sets.newLinkedHashSet();
+    private final ListMultimap<ProguardConfigurationRule, Origin> duplicateRuleOrigins =
+        ArrayListMultimap.create();
     private final DexItemFactory dexItemFactory;
     private boolean printSeeds;
     private Path seedFile;
@@ -190,7 +195,12 @@ public class ProguardConfiguration {
     }
 
     public void addRule(ProguardConfigurationRule rule) {
-      this.rules.add(rule);
+      // Structurally identical rules, e.g., from the consumer rules of different libraries, are
+      // only retained once, such that the root set only needs to process each rule once. The
+      // origins of the duplicates are recorded, such that diagnostics can refer to all of them.
+      if (!this.rules.add(rule)) {
+        duplicateRuleOrigins.put(rule, rule.getOrigin());
+      }
     }
 
     public void addKeepPackageNamesPattern(boolean isNegated, ProguardPackageMatcher pattern) {
@@ -353,7 +363,8 @@ public class ProguardConfiguration {
               configurationDebugging,
               dontUseMixedCaseClassnames,
               protoShrinking,
-              getMaxRemovedAndroidLogLevelOrDefault(1));
+              getMaxRemovedAndroidLogLevelOrDefault(1),
+              ImmutableListMultimap.copyOf(duplicateRuleOrigins));
 
       reporter.failIfPendingErrors();
 
@@ -414,6 +425,7 @@ public class ProguardConfiguration {
   private final boolean dontUseMixedCaseClassnames;
   private final boolean protoShrinking;
   private final int maxRemovedAndroidLogLevel;
+  private final ListMultimap<ProguardConfigurationRule, Origin> duplicateRuleOrigins;
 
   private ProguardConfiguration(
       String parsedConfiguration,
@@ -455,7 +467,8 @@ public class ProguardConfiguration {
       boolean configurationDebugging,
       boolean dontUseMixedCaseClassnames,
       boolean protoShrinking,
-      int maxRemovedAndroidLogLevel) {
+      int maxRemovedAndroidLogLevel,
+      ListMultimap<ProguardConfigurationRule, Origin> duplicateRuleOrigins) {
     this.parsedConfiguration = parsedConfiguration;
     this.dexItemFactory = factory;
     this.injars = ImmutableList.copyOf(injars);
@@ -496,6 +509,7 @@ public class ProguardConfiguration {
     this.dontUseMixedCaseClassnames = dontUseMixedCaseClassnames;
     this.protoShrinking = protoShrinking;
     this.maxRemovedAndroidLogLevel = maxRemovedAndroidLogLevel;
+    this.duplicateRuleOrigins = duplicateRuleOrigins;
   }
 
   /**
@@ -675,6 +689,23 @@ public class ProguardConfiguration {
     return maxRemovedAndroidLogLevel;
   }
 
+  /** Returns the number of parsed rules that were removed as duplicates of a previous rule. */
+  public int getNumberOfDuplicateRules() {
+    return duplicateRuleOrigins.size();
+  }
+
+  /**
+   * Returns the origins of the given rule, i.e., the origin of the rule itself followed by the
+   * origins of the structurally identical rules that were removed as duplicates of it.
+   */
+  public List<Origin> getOrigins(ProguardConfigurationRule rule) {
+    List<Origin> duplicateOrigins = duplicateRuleOrigins.get(rule);
+    if (duplicateOrigins.isEmpty()) {
+      return ImmutableList.of(rule.getOrigin());
+    }
+    return ImmutableList.<Origin>builder().add(rule.getOrigin()).addAll(duplicateOrigins).build();
+  }
+
   @Override
   public String toString() {
     StringBuilder builder = new StringBuilder();
@@ -5,6 +5,7 @@ package com.android.tools.r8.shaking;
 
 import com.android.tools.r8.errors.Unreachable;
 import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.DecodedStringCache;
 import com.android.tools.r8.graph.DexClassAndField;
 import com.android.tools.r8.graph.DexClassAndMethod;
 import com.android.tools.r8.graph.DexField;
@@ -184,7 +185,7 @@ public class ProguardMemberRule {
       DexClassAndField field,
       AppView<?> appView,
       Consumer<AnnotationMatchResult> matchedAnnotationsConsumer,
-      DexStringCache stringCache) {
+      DecodedStringCache stringCache) {
     DexField originalSignature =
         appView.graphLens().getOriginalFieldSignature(field.getReference());
     switch (getRuleType()) {
@@ -204,8 +205,7 @@ public class ProguardMemberRule {
       case FIELD:
         {
           // Name check.
-          String name = stringCache.lookupString(originalSignature.name);
-          if (!getName().matches(name)) {
+          if (!getName().matches(originalSignature.name, stringCache)) {
             break;
           }
           // Access flags check.
@@ -236,7 +236,7 @@ public class ProguardMemberRule {
       DexClassAndMethod method,
       AppView<?> appView,
       Consumer<AnnotationMatchResult> matchedAnnotationsConsumer,
-      DexStringCache stringCache) {
+      DecodedStringCache stringCache) {
     DexMethod originalSignature =
         appView.graphLens().getOriginalMethodSignature(method.getReference());
     switch (getRuleType()) {
@@ -270,8 +270,7 @@ public class ProguardMemberRule {
       case CLINIT:
         {
           // Name check.
-          String name = stringCache.lookupString(originalSignature.name);
-          if (!getName().matches(name)) {
+          if (!getName().matches(originalSignature.name, stringCache)) {
             break;
           }
           // Access flags check.
@@ -3,6 +3,8 @@
 // BSD-style license that can be found in the LICENSE file.
 package com.android.tools.r8.shaking;
 
+import com.android.tools.r8.graph.DecodedStringCache;
+import com.android.tools.r8.graph.DexString;
 import com.android.tools.r8.shaking.ProguardConfigurationParser.IdentifierPatternWithWildcards;
 import com.android.tools.r8.shaking.ProguardWildcard.BackReference;
 import com.android.tools.r8.shaking.ProguardWildcard.Pattern;
@@ -89,6 +91,10 @@ public abstract class ProguardNameMatcher {
 
   public abstract boolean matches(String name);
 
+  public boolean matches(DexString name, DecodedStringCache stringCache) {
+    return matches(stringCache.lookupString(name));
+  }
+
   protected Iterable<ProguardWildcard> getWildcards() {
     return Collections::emptyIterator;
   }
@@ -199,6 +205,11 @@ public abstract class ProguardNameMatcher {
       return this.name.equals(name);
     }
 
+    @Override
+    public boolean matches(DexString name, DecodedStringCache stringCache) {
+      return name.equalsString(this.name);
+    }
+
     @Override
     public String toString() {
       return name;
@@ -16,6 +16,7 @@ import com.android.tools.r8.errors.Unreachable;
 import com.android.tools.r8.graph.AppInfoWithClassHierarchy;
 import com.android.tools.r8.graph.AppView;
 import com.android.tools.r8.graph.BottomUpClassHierarchyTraversal;
+import com.android.tools.r8.graph.DecodedStringCache;
 import com.android.tools.r8.graph.Definition;
 import com.android.tools.r8.graph.DexAnnotation;
 import com.android.tools.r8.graph.DexAnnotation.AnnotatedKind;
@@ -53,6 +54,7 @@ import com.android.tools.r8.ir.desugar.itf.InterfaceMethodDesugaringBaseEventCon
 import com.android.tools.r8.ir.optimize.info.OptimizationFeedbackSimple;
 import com.android.tools.r8.ir.optimize.membervaluepropagation.assume.AssumeInfo;
 import com.android.tools.r8.logging.Log;
+import com.android.tools.r8.origin.Origin;
 import com.android.tools.r8.shaking.AnnotationMatchResult.AnnotationsIgnoredMatchResult;
 import com.android.tools.r8.shaking.AnnotationMatchResult.ConcreteAnnotationMatchResult;
 import com.android.tools.r8.shaking.AnnotationMatchResult.MatchedAnnotation;
@@ -138,7 +140,7 @@ public class RootSetUtils {
         new ConcurrentLinkedQueue<>();
     private final InternalOptions options;
 
-    private final DexStringCache dexStringCache = new DexStringCache();
+    private final DecodedStringCache dexStringCache;
     private final Set<ProguardIfRule> ifRules = Sets.newIdentityHashSet();
 
     private final Map<OriginWithPosition, Set<DexMethod>> assumeNoSideEffectsWarnings =
@@ -160,6 +162,7 @@ public class RootSetUtils {
       this.application = appView.appInfo().app().asDirect();
       this.rules = rules;
       this.options = appView.options();
+      this.dexStringCache = new DecodedStringCache(numberOfProgramMembers(application));
       interfaceDesugaringSyntheticHelper =
           options.isInterfaceMethodDesugaringEnabled()
               ? new InterfaceDesugaringSyntheticHelper(appView)
@@ -171,6 +174,17 @@ public class RootSetUtils {
       this(appView, subtypingInfo, null);
     }
 
+    private static int numberOfProgramMembers(DirectMappedDexApplication application) {
+      int numberOfProgramMembers = 0;
+      for (DexProgramClass clazz : application.classes()) {
+        numberOfProgramMembers +=
+            clazz.getMethodCollection().size()
+                + clazz.staticFields().size()
+                + clazz.instanceFields().size();
+      }
+      return numberOfProgramMembers;
+    }
+
     boolean isMainDexRootSetBuilder() {
       return false;
     }
@@ -1857,7 +1871,8 @@ public class RootSetUtils {
     }
 
     public void checkAllRulesAreUsed(InternalOptions options) {
-      List<ProguardConfigurationRule> rules = options.getProguardConfiguration().getRules();
+      ProguardConfiguration configuration = options.getProguardConfiguration();
+      List<ProguardConfigurationRule> rules = configuration.getRules();
       if (rules == null) {
         return;
       }
@@ -1875,8 +1890,10 @@ public class RootSetUtils {
         }
         if (!rule.isUsed() && options.testing.reportUnusedProguardConfigurationRules) {
           String message = "Proguard configuration rule does not match anything: `" + rule + "`";
-          StringDiagnostic diagnostic = new StringDiagnostic(message, rule.getOrigin());
-          options.reporter.info(diagnostic);
+          // Report the rule for each of the sources that contain it.
+          for (Origin origin : configuration.getOrigins(rule)) {
+            options.reporter.info(new StringDiagnostic(message, origin));
+          }
         }
       }
     }
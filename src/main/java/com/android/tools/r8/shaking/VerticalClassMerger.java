@@ -2038,6 +2038,12 @@ public class VerticalClassMerger {
       return previous == source ? target.type : mergedClasses.getOrDefault(previous, previous);
     }
 
+    @Override
+    protected boolean isLookupCacheEnabled() {
+      // The merged classes are updated while this lens is in use.
+      return false;
+    }
+
     @Override
     public DexMethod getPreviousMethodSignature(DexMethod method) {
       throw new Unreachable();
@@ -3,6 +3,8 @@
 // BSD-style license that can be found in the LICENSE file.
 package com.android.tools.r8.tracereferences;
 
+import static com.android.tools.r8.utils.ExceptionUtils.unwrapExecutionException;
+
 import com.android.tools.r8.CompilationFailedException;
 import com.android.tools.r8.Keep;
 import com.android.tools.r8.ProgramResource;
@@ -17,11 +19,14 @@ import com.android.tools.r8.utils.AndroidApp;
 import com.android.tools.r8.utils.ExceptionUtils;
 import com.android.tools.r8.utils.InternalOptions;
 import com.android.tools.r8.utils.StringUtils;
+import com.android.tools.r8.utils.ThreadUtils;
 import com.android.tools.r8.utils.Timing;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
 @Keep
@@ -76,8 +81,17 @@ public class TraceReferences {
     for (ProgramResourceProvider provider : command.getSource()) {
       forEachDescriptor(provider, targetDescriptors::remove);
     }
-    Tracer tracer = new Tracer(targetDescriptors, builder.build(), command.getReporter(), options);
-    tracer.run(command.getConsumer());
+    ExecutorService executorService = ThreadUtils.getExecutorService(options);
+    try {
+      Tracer tracer =
+          new Tracer(
+              targetDescriptors, builder.build(), command.getReporter(), options, executorService);
+      tracer.run(command.getConsumer(), executorService);
+    } catch (ExecutionException e) {
+      throw unwrapExecutionException(e);
+    } finally {
+      executorService.shutdown();
+    }
   }
 
   public static void run(String... args) throws CompilationFailedException {
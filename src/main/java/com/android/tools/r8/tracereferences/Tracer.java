@@ -7,6 +7,7 @@ import com.android.tools.r8.DiagnosticsHandler;
 import com.android.tools.r8.dex.ApplicationReader;
 import com.android.tools.r8.diagnostic.DefinitionContext;
 import com.android.tools.r8.diagnostic.internal.DefinitionContextUtils;
+import com.android.tools.r8.errors.Unreachable;
 import com.android.tools.r8.experimental.startup.StartupOrder;
 import com.android.tools.r8.features.ClassToFeatureSplitMap;
 import com.android.tools.r8.graph.AppInfoWithClassHierarchy;
@@ -40,9 +41,13 @@ import com.android.tools.r8.ir.desugar.LambdaDescriptor;
 import com.android.tools.r8.references.ClassReference;
 import com.android.tools.r8.references.FieldReference;
 import com.android.tools.r8.references.MethodReference;
+import com.android.tools.r8.references.PackageReference;
 import com.android.tools.r8.references.Reference;
 import com.android.tools.r8.shaking.MainDexInfo;
 import com.android.tools.r8.synthesis.SyntheticItems.GlobalSyntheticsStrategy;
+import com.android.tools.r8.tracereferences.TraceReferencesConsumer.TracedClass;
+import com.android.tools.r8.tracereferences.TraceReferencesConsumer.TracedField;
+import com.android.tools.r8.tracereferences.TraceReferencesConsumer.TracedMethod;
 import com.android.tools.r8.tracereferences.TraceReferencesConsumer.TracedReference;
 import com.android.tools.r8.tracereferences.internal.TracedClassImpl;
 import com.android.tools.r8.tracereferences.internal.TracedFieldImpl;
@@ -50,10 +55,17 @@ import com.android.tools.r8.tracereferences.internal.TracedMethodImpl;
 import com.android.tools.r8.utils.AndroidApp;
 import com.android.tools.r8.utils.BooleanBox;
 import com.android.tools.r8.utils.InternalOptions;
+import com.android.tools.r8.utils.ThreadUtils;
 import com.android.tools.r8.utils.Timing;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -67,12 +79,15 @@ public class Tracer {
       Set<String> targetDescriptors,
       AndroidApp inputApp,
       DiagnosticsHandler diagnostics,
-      InternalOptions options)
+      InternalOptions options,
+      ExecutorService executorService)
       throws IOException {
     this(
         AppView.createForTracer(
             AppInfoWithClassHierarchy.createInitialAppInfoWithClassHierarchy(
-                new ApplicationReader(inputApp, options, Timing.empty()).read().toDirect(),
+                new ApplicationReader(inputApp, options, Timing.empty())
+                    .read(executorService)
+                    .toDirect(),
                 ClassToFeatureSplitMap.createEmptyClassToFeatureSplitMap(),
                 MainDexInfo.none(),
                 GlobalSyntheticsStrategy.forSingleOutputMode(),
@@ -90,26 +105,78 @@ public class Tracer {
     this.targetPredicate = targetPredicate;
   }
 
-  public void run(TraceReferencesConsumer consumer) {
-    UseCollector useCollector = new UseCollector(appView, consumer, diagnostics, targetPredicate);
-    for (DexProgramClass clazz : appView.appInfo().classes()) {
-      DefinitionContext classContext = DefinitionContextUtils.create(clazz);
-      if (clazz.superType != null) {
-        useCollector.registerSuperType(clazz, clazz.superType, classContext);
-      }
-      for (DexType implementsType : clazz.getInterfaces()) {
-        useCollector.registerSuperType(clazz, implementsType, classContext);
-      }
-      clazz.forEachProgramField(useCollector::registerField);
-      clazz.forEachProgramMethod(
-          method -> {
-            useCollector.registerMethod(method);
-            useCollector.traceCode(method);
-          });
+  public void run(TraceReferencesConsumer consumer, ExecutorService executorService)
+      throws ExecutionException {
+    // Trace the classes in parallel. The references traced from each class are buffered and
+    // passed on to the consumer in the order of the classes, such that the consumer receives the
+    // same sequence of callbacks as when tracing the classes one by one.
+    Collection<TracedReferencesBuffer> buffers =
+        ThreadUtils.processItemsWithResults(
+            appView.appInfo().classes(),
+            clazz -> {
+              TracedReferencesBuffer buffer = new TracedReferencesBuffer();
+              traceClass(
+                  clazz, new UseCollector(appView, buffer, diagnostics, targetPredicate));
+              return buffer;
+            },
+            executorService);
+    for (TracedReferencesBuffer buffer : buffers) {
+      buffer.replayTo(consumer);
     }
     consumer.finished(diagnostics);
   }
 
+  private static void traceClass(DexProgramClass clazz, UseCollector useCollector) {
+    DefinitionContext classContext = DefinitionContextUtils.create(clazz);
+    if (clazz.superType != null) {
+      useCollector.registerSuperType(clazz, clazz.superType, classContext);
+    }
+    for (DexType implementsType : clazz.getInterfaces()) {
+      useCollector.registerSuperType(clazz, implementsType, classContext);
+    }
+    clazz.forEachProgramField(useCollector::registerField);
+    clazz.forEachProgramMethod(
+        method -> {
+          useCollector.registerMethod(method);
+          useCollector.traceCode(method);
+        });
+  }
+
+  // Consumer that records the callbacks for a single class to be replayed to the actual consumer.
+  private static class TracedReferencesBuffer implements TraceReferencesConsumer {
+
+    private final List<Consumer<TraceReferencesConsumer>> callbacks = new ArrayList<>();
+
+    @Override
+    public void acceptType(TracedClass tracedClass, DiagnosticsHandler handler) {
+      callbacks.add(consumer -> consumer.acceptType(tracedClass, handler));
+    }
+
+    @Override
+    public void acceptField(TracedField tracedField, DiagnosticsHandler handler) {
+      callbacks.add(consumer -> consumer.acceptField(tracedField, handler));
+    }
+
+    @Override
+    public void acceptMethod(TracedMethod tracedMethod, DiagnosticsHandler handler) {
+      callbacks.add(consumer -> consumer.acceptMethod(tracedMethod, handler));
+    }
+
+    @Override
+    public void acceptPackage(PackageReference pkg, DiagnosticsHandler handler) {
+      callbacks.add(consumer -> consumer.acceptPackage(pkg, handler));
+    }
+
+    @Override
+    public void finished(DiagnosticsHandler handler) {
+      throw new Unreachable();
+    }
+
+    void replayTo(TraceReferencesConsumer consumer) {
+      callbacks.forEach(callback -> callback.accept(consumer));
+    }
+  }
+
   // The graph lens is intentionally only made accessible to the MethodUseCollector, since the
   // graph lens should only be applied to the code.
   static class UseCollector {
@@ -264,7 +331,8 @@ public class Tracer {
     }
 
     private void traceCode(ProgramMethod method) {
-      method.registerCodeReferences(new MethodUseCollector(method));
+      // The code is not needed after tracing, so avoid materializing it.
+      method.registerCodeReferencesWithoutParsing(new MethodUseCollector(method));
     }
 
     private void registerSuperType(
@@ -4,10 +4,16 @@
 
 package com.android.tools.r8.utils;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.util.BitSet;
 
 public class BitSetUtils {
 
+  // Weak interner so that equal bit sets stored in long-lived side tables, such as the method
+  // optimization info, share a single instance without retaining them after the compilation.
+  private static final Interner<BitSet> INTERNER = Interners.newWeakInterner();
+
   public static BitSet createFilled(boolean value, int length) {
     BitSet bitSet = new BitSet(length);
     for (int i = 0; i < length; i++) {
@@ -16,6 +22,14 @@ public class BitSetUtils {
     return bitSet;
   }
 
+  /**
+   * Returns a canonical bit set equal to the given bit set. The returned bit set may be shared and
+   * must not be mutated.
+   */
+  public static BitSet intern(BitSet bitSet) {
+    return bitSet != null ? INTERNER.intern(bitSet) : null;
+  }
+
   @SuppressWarnings("unchecked")
   public static BitSet or(BitSet bitSet, BitSet other) {
     BitSet newBitSet = (BitSet) bitSet.clone();
@@ -26,7 +26,7 @@ public class CfLineToMethodMapper {
     this.inputApp = inputApp;
   }
 
-  public String lookupNameAndDescriptor(String binaryName, int lineNumber)
+  public synchronized String lookupNameAndDescriptor(String binaryName, int lineNumber)
       throws ResourceException {
     if (sourceMethodMapping == null) {
       sourceMethodMapping = new HashMap<>();
@@ -5,7 +5,9 @@ package com.android.tools.r8.utils;
 
 import com.android.tools.r8.ClassFileResourceProvider;
 import com.android.tools.r8.ProgramResource;
+import com.android.tools.r8.ProgramResource.Kind;
 import com.android.tools.r8.ResourceException;
+import com.android.tools.r8.dex.DexClassIndex;
 import com.android.tools.r8.errors.CompilationError;
 import com.android.tools.r8.graph.ClassKind;
 import com.android.tools.r8.graph.DexClass;
@@ -16,10 +18,13 @@ import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /** Represents a provider for classes loaded from different sources. */
@@ -86,6 +91,11 @@ public abstract class ClassProvider<T extends DexClass> {
     private final ClassFileResourceProvider provider;
     private final JarApplicationReader reader;
 
+    // Index of the DEX resource that defines each type, for the DEX resources seen by this reader.
+    // A DEX resource typically defines many classes, so it is indexed once, independently of its
+    // origin, and each class is read when it is first requested.
+    private final Map<DexType, DexClassIndex<T>> dexClassIndices = new ConcurrentHashMap<>();
+
     private ClassFileResourceReader(
         ClassKind<T> classKind, ClassFileResourceProvider provider, JarApplicationReader reader) {
       super(classKind);
@@ -99,6 +109,13 @@ public abstract class ClassProvider<T extends DexClass> {
       String descriptor = type.descriptor.toString();
       ProgramResource resource = provider.getProgramResource(descriptor);
       if (resource != null) {
+        if (resource.getKind() == Kind.DEX) {
+          T clazz = getDexClassIndex(type, resource).createClass(type);
+          if (clazz != null) {
+            classConsumer.accept(clazz);
+          }
+          return;
+        }
         try {
           JarClassFileReader<T> classReader =
               new JarClassFileReader<>(reader, classConsumer, classKind);
@@ -109,6 +126,30 @@ public abstract class ClassProvider<T extends DexClass> {
       }
     }
 
+    private DexClassIndex<T> getDexClassIndex(DexType type, ProgramResource resource) {
+      DexClassIndex<T> index = dexClassIndices.get(type);
+      if (index != null) {
+        return index;
+      }
+      synchronized (dexClassIndices) {
+        index = dexClassIndices.get(type);
+        if (index == null) {
+          index = createDexClassIndex(resource);
+          DexClassIndex<T> newIndex = index;
+          newIndex.forEachType(definedType -> dexClassIndices.putIfAbsent(definedType, newIndex));
+        }
+      }
+      return index;
+    }
+
+    private DexClassIndex<T> createDexClassIndex(ProgramResource resource) {
+      try {
+        return DexClassIndex.create(resource, classKind, reader.options);
+      } catch (IOException | ResourceException e) {
+        throw new CompilationError("Failed to read dex resource", e, resource.getOrigin());
+      }
+    }
+
     @Override
     public Collection<DexType> collectTypes() {
       List<DexType> types = new ArrayList<>();
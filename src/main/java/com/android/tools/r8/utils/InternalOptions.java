@@ -1360,6 +1360,11 @@ public class InternalOptions implements GlobalKeepInfoConfiguration {
 
     private boolean forceSyntheticsForInstanceInitializers = false;
 
+    // Components and cycles of the in-parameter flow graph with at least this many nodes are
+    // processed in parallel, and large cycles are split into partitions of the given size.
+    private int inParameterFlowParallelProcessingThreshold = 10_000;
+    private int inParameterFlowCyclePartitionSize = 2_500;
+
     public void disableOptimization() {
       enabled = false;
     }
@@ -1368,6 +1373,14 @@ public class InternalOptions implements GlobalKeepInfoConfiguration {
       return 10;
     }
 
+    public int getInParameterFlowParallelProcessingThreshold() {
+      return inParameterFlowParallelProcessingThreshold;
+    }
+
+    public int getInParameterFlowCyclePartitionSize() {
+      return inParameterFlowCyclePartitionSize;
+    }
+
     public boolean isEnabled() {
       if (!isOptimizing() || !isShrinking()) {
         return false;
@@ -1402,6 +1415,14 @@ public class InternalOptions implements GlobalKeepInfoConfiguration {
       this.enableMethodStaticizing = enableMethodStaticizing;
       return this;
     }
+
+    public CallSiteOptimizationOptions setInParameterFlowParallelProcessing(
+        int parallelProcessingThreshold, int cyclePartitionSize) {
+      assert 0 < cyclePartitionSize;
+      this.inParameterFlowParallelProcessingThreshold = parallelProcessingThreshold;
+      this.inParameterFlowCyclePartitionSize = cyclePartitionSize;
+      return this;
+    }
   }
 
   public static class CfCodeAnalysisOptions {
@@ -1825,6 +1846,8 @@ public class InternalOptions implements GlobalKeepInfoConfiguration {
 
     public Consumer<String> processingContextsConsumer = null;
 
+    public Consumer<DexType> onDemandDexClassCreatedConsumer = null;
+
     public Function<AppView<AppInfoWithLiveness>, RepackagingConfiguration>
         repackagingConfigurationFactory = DefaultRepackagingConfiguration::new;
 
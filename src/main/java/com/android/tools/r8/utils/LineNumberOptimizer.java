@@ -83,6 +83,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 
 public class LineNumberOptimizer {
@@ -332,21 +335,20 @@ public class LineNumberOptimizer {
       AppView<?> appView,
       Timing timing,
       OriginalSourceFiles originalSourceFiles,
-      DebugRepresentationPredicate representation) {
+      DebugRepresentationPredicate representation,
+      ExecutorService executorService)
+      throws ExecutionException {
     assert appView.options().proguardMapConsumer != null;
     // When line number optimization is turned off the identity mapping for line numbers is
     // used. We still run the line number optimizer to collect line numbers and inline frame
     // information for the mapping file.
     timing.begin("Line number remapping");
     ClassNameMapper mapper =
-        run(
-            appView,
-            inputApp,
-            originalSourceFiles,
-            representation);
+        run(appView, inputApp, originalSourceFiles, representation, executorService);
     timing.end();
     timing.begin("Write proguard map");
-    ProguardMapId mapId = ProguardMapSupplier.create(mapper, appView.options()).writeProguardMap();
+    ProguardMapId mapId =
+        ProguardMapSupplier.create(mapper, appView.options()).writeProguardMap(executorService);
     timing.end();
     return mapId;
   }
@@ -413,7 +415,7 @@ public class LineNumberOptimizer {
       return pc + 1;
     }
 
-    private boolean cantAddToClearSet(ProgramMethod method) {
+    private synchronized boolean cantAddToClearSet(ProgramMethod method) {
       assert method.getDefinition().getCode().isDexCode();
       if (singleLineCodesToClear == null) {
         return true;
@@ -423,7 +425,7 @@ public class LineNumberOptimizer {
     }
 
     @Override
-    public void recordPcMappingFor(ProgramMethod method, int maxEncodingPc) {
+    public synchronized void recordPcMappingFor(ProgramMethod method, int maxEncodingPc) {
       assert method.getDefinition().getCode().isDexCode();
       int parameterCount = method.getParameters().size();
       DexCode code = method.getDefinition().getCode().asDexCode();
@@ -493,315 +495,341 @@ public class LineNumberOptimizer {
       AppView<?> appView,
       AndroidApp inputApp,
       OriginalSourceFiles originalSourceFiles,
-      DebugRepresentationPredicate representation) {
+      DebugRepresentationPredicate representation,
+      ExecutorService executorService)
+      throws ExecutionException {
     // For finding methods in kotlin files based on SourceDebugExtensions, we use a line method map.
-    // We create it here to ensure it is only reading class files once.
-    // TODO(b/220999985): Make this threaded per virtual file. Possibly pull the kotlin line mapping
-    //  onto main thread before threading.
+    // We create it here to ensure it is only reading class files once. The mapper is shared by all
+    // threads and reads the class files on the first lookup.
     CfLineToMethodMapper cfLineToMethodMapper = new CfLineToMethodMapper(inputApp);
     ClassNameMapper.Builder classNameMapperBuilder = ClassNameMapper.builder();
 
-    Map<DexMethod, OutlineFixupBuilder> outlinesToFix = new IdentityHashMap<>();
-    Map<DexType, String> prunedInlinedClasses = new IdentityHashMap<>();
+    Map<DexMethod, OutlineFixupBuilder> outlinesToFix = new ConcurrentHashMap<>();
+    Map<DexType, String> prunedInlinedClasses = new ConcurrentHashMap<>();
 
     PcBasedDebugInfoRecorder pcBasedDebugInfo =
         appView.options().canUseNativeDexPcInsteadOfDebugInfo()
             ? new NativePcSupport()
             : new Pc2PcMappingSupport(appView.options().allowDiscardingResidualDebugInfo());
 
-    // Collect which files contain which classes that need to have their line numbers optimized.
-    for (DexProgramClass clazz : appView.appInfo().classes()) {
-      boolean isSyntheticClass = appView.getSyntheticItems().isSyntheticClass(clazz);
-
-      IdentityHashMap<DexString, List<ProgramMethod>> methodsByRenamedName =
-          groupMethodsByRenamedName(appView, clazz);
-
-      // At this point we don't know if we really need to add this class to the builder.
-      // It depends on whether any methods/fields are renamed or some methods contain positions.
-      // Create a supplier which creates a new, cached ClassNaming.Builder on-demand.
-      DexType originalType = appView.graphLens().getOriginalType(clazz.type);
-      DexString renamedDescriptor = appView.getNamingLens().lookupDescriptor(clazz.getType());
-      LazyBox<ClassNaming.Builder> onDemandClassNamingBuilder =
-          new LazyBox<>(
-              () ->
-                  classNameMapperBuilder.classNamingBuilder(
-                      DescriptorUtils.descriptorToJavaType(renamedDescriptor.toString()),
-                      originalType.toSourceString(),
-                      com.android.tools.r8.position.Position.UNKNOWN));
-
-      // Check if source file should be added to the map
-      DexString originalSourceFile = originalSourceFiles.getOriginalSourceFile(clazz);
-      if (originalSourceFile != null) {
-        String sourceFile = originalSourceFile.toString();
-        if (!RetraceUtils.hasPredictableSourceFileName(clazz.toSourceString(), sourceFile)) {
-          onDemandClassNamingBuilder
-              .computeIfAbsent()
+    // Remap the positions of each class in parallel. The result for each class only depends on the
+    // class itself, so the mapping is deterministic regardless of the processing order.
+    ThreadUtils.processItems(
+        appView.appInfo().classes(),
+        clazz ->
+            processClass(
+                appView,
+                clazz,
+                classNameMapperBuilder,
+                cfLineToMethodMapper,
+                originalSourceFiles,
+                representation,
+                pcBasedDebugInfo,
+                outlinesToFix,
+                prunedInlinedClasses),
+        executorService);
+
+    // Fixup all outline positions
+    outlinesToFix.values().forEach(OutlineFixupBuilder::fixup);
+
+    // Update all the debug-info objects.
+    pcBasedDebugInfo.updateDebugInfoInCodeObjects();
+
+    // Add all pruned inline classes to the mapping to recover source files.
+    List<Entry<DexType, String>> prunedEntries = new ArrayList<>(prunedInlinedClasses.entrySet());
+    prunedEntries.sort(Entry.comparingByKey());
+    prunedEntries.forEach(
+        entry -> {
+          DexType holder = entry.getKey();
+          assert appView.appInfo().definitionForWithoutExistenceAssert(holder) == null;
+          String typeName = holder.toSourceString();
+          String sourceFile = entry.getValue();
+          assert !RetraceUtils.hasPredictableSourceFileName(typeName, sourceFile);
+          classNameMapperBuilder
+              .classNamingBuilder(
+                  typeName, typeName, com.android.tools.r8.position.Position.UNKNOWN)
               .addMappingInformation(FileNameInformation.build(sourceFile), Unreachable::raise);
-        }
-      }
+        });
+
+    return classNameMapperBuilder.build();
+  }
 
-      if (isSyntheticClass) {
+  private static void processClass(
+      AppView<?> appView,
+      DexProgramClass clazz,
+      ClassNameMapper.Builder classNameMapperBuilder,
+      CfLineToMethodMapper cfLineToMethodMapper,
+      OriginalSourceFiles originalSourceFiles,
+      DebugRepresentationPredicate representation,
+      PcBasedDebugInfoRecorder pcBasedDebugInfo,
+      Map<DexMethod, OutlineFixupBuilder> outlinesToFix,
+      Map<DexType, String> prunedInlinedClasses) {
+    boolean isSyntheticClass = appView.getSyntheticItems().isSyntheticClass(clazz);
+
+    IdentityHashMap<DexString, List<ProgramMethod>> methodsByRenamedName =
+        groupMethodsByRenamedName(appView, clazz);
+
+    // At this point we don't know if we really need to add this class to the builder.
+    // It depends on whether any methods/fields are renamed or some methods contain positions.
+    // Create a supplier which creates a new, cached ClassNaming.Builder on-demand.
+    DexType originalType = appView.graphLens().getOriginalType(clazz.type);
+    DexString renamedDescriptor = appView.getNamingLens().lookupDescriptor(clazz.getType());
+    LazyBox<ClassNaming.Builder> onDemandClassNamingBuilder =
+        new LazyBox<>(
+            () ->
+                classNameMapperBuilder.classNamingBuilder(
+                    DescriptorUtils.descriptorToJavaType(renamedDescriptor.toString()),
+                    originalType.toSourceString(),
+                    com.android.tools.r8.position.Position.UNKNOWN));
+
+    // Check if source file should be added to the map
+    DexString originalSourceFile = originalSourceFiles.getOriginalSourceFile(clazz);
+    if (originalSourceFile != null) {
+      String sourceFile = originalSourceFile.toString();
+      if (!RetraceUtils.hasPredictableSourceFileName(clazz.toSourceString(), sourceFile)) {
         onDemandClassNamingBuilder
             .computeIfAbsent()
-            .addMappingInformation(
-                CompilerSynthesizedMappingInformation.builder().build(), Unreachable::raise);
+            .addMappingInformation(FileNameInformation.build(sourceFile), Unreachable::raise);
       }
+    }
 
-      // If the class is renamed add it to the classNamingBuilder.
-      addClassToClassNaming(originalType, renamedDescriptor, onDemandClassNamingBuilder);
-
-      // First transfer renamed fields to classNamingBuilder.
-      addFieldsToClassNaming(appView, clazz, originalType, onDemandClassNamingBuilder);
-
-      // Then process the methods, ordered by renamed name.
-      List<DexString> renamedMethodNames = new ArrayList<>(methodsByRenamedName.keySet());
-      renamedMethodNames.sort(DexString::compareTo);
-      for (DexString methodName : renamedMethodNames) {
-        List<ProgramMethod> methods = methodsByRenamedName.get(methodName);
-        if (methods.size() > 1) {
-          // If there are multiple methods with the same name (overloaded) then sort them for
-          // deterministic behaviour: the algorithm will assign new line numbers in this order.
-          // Methods with different names can share the same line numbers, that's why they don't
-          // need to be sorted.
-          // If we are compiling to DEX we will try to not generate overloaded names. This saves
-          // space by allowing more debug-information to be canonicalized. If we have overloaded
-          // methods, we either did not rename them, we renamed them according to a supplied map or
-          // they may be bridges for interface methods with covariant return types.
-          sortMethods(methods);
-          assert verifyMethodsAreKeptDirectlyOrIndirectly(appView, methods);
-        }
+    if (isSyntheticClass) {
+      onDemandClassNamingBuilder
+          .computeIfAbsent()
+          .addMappingInformation(
+              CompilerSynthesizedMappingInformation.builder().build(), Unreachable::raise);
+    }
 
-        boolean identityMapping =
-            appView.options().lineNumberOptimization == LineNumberOptimization.OFF;
-        PositionRemapper positionRemapper =
-            identityMapping
-                ? new IdentityPositionRemapper()
-                : new OptimizingPositionRemapper(appView.options());
-
-        // Kotlin inline functions and arguments have their inlining information stored in the
-        // source debug extension annotation. Instantiate the kotlin remapper on top of the original
-        // remapper to allow for remapping original positions to kotlin inline positions.
-        KotlinInlineFunctionPositionRemapper kotlinRemapper =
-            new KotlinInlineFunctionPositionRemapper(
-                appView, positionRemapper, cfLineToMethodMapper);
-
-        for (ProgramMethod method : methods) {
-          DexEncodedMethod definition = method.getDefinition();
-          kotlinRemapper.currentMethod = definition;
-          List<MappedPosition> mappedPositions;
-          Code code = definition.getCode();
-          int pcEncodingCutoff =
-              methods.size() == 1 ? representation.getDexPcEncodingCutoff(method) : -1;
-          boolean canUseDexPc = pcEncodingCutoff > 0;
-          if (code != null) {
-            if (code.isDexCode()
-                && mustHaveResidualDebugInfo(code.asDexCode(), appView.options())) {
-              if (canUseDexPc) {
-                mappedPositions =
-                    optimizeDexCodePositionsForPc(
-                        method, pcEncodingCutoff, appView, kotlinRemapper, pcBasedDebugInfo);
-              } else {
-                mappedPositions =
-                    optimizeDexCodePositions(
-                        definition, appView, kotlinRemapper, identityMapping, methods.size() != 1);
-              }
-            } else if (code.isCfCode()
-                && mustHaveResidualDebugInfo(code.asCfCode())
-                && !appView.isCfByteCodePassThrough(definition)) {
-              mappedPositions = optimizeCfCodePositions(method, kotlinRemapper, appView);
+    // If the class is renamed add it to the classNamingBuilder.
+    addClassToClassNaming(originalType, renamedDescriptor, onDemandClassNamingBuilder);
+
+    // First transfer renamed fields to classNamingBuilder.
+    addFieldsToClassNaming(appView, clazz, originalType, onDemandClassNamingBuilder);
+
+    // Then process the methods, ordered by renamed name.
+    List<DexString> renamedMethodNames = new ArrayList<>(methodsByRenamedName.keySet());
+    renamedMethodNames.sort(DexString::compareTo);
+    for (DexString methodName : renamedMethodNames) {
+      List<ProgramMethod> methods = methodsByRenamedName.get(methodName);
+      if (methods.size() > 1) {
+        // If there are multiple methods with the same name (overloaded) then sort them for
+        // deterministic behaviour: the algorithm will assign new line numbers in this order.
+        // Methods with different names can share the same line numbers, that's why they don't
+        // need to be sorted.
+        // If we are compiling to DEX we will try to not generate overloaded names. This saves
+        // space by allowing more debug-information to be canonicalized. If we have overloaded
+        // methods, we either did not rename them, we renamed them according to a supplied map or
+        // they may be bridges for interface methods with covariant return types.
+        sortMethods(methods);
+        assert verifyMethodsAreKeptDirectlyOrIndirectly(appView, methods);
+      }
+
+      boolean identityMapping =
+          appView.options().lineNumberOptimization == LineNumberOptimization.OFF;
+      PositionRemapper positionRemapper =
+          identityMapping
+              ? new IdentityPositionRemapper()
+              : new OptimizingPositionRemapper(appView.options());
+
+      // Kotlin inline functions and arguments have their inlining information stored in the
+      // source debug extension annotation. Instantiate the kotlin remapper on top of the original
+      // remapper to allow for remapping original positions to kotlin inline positions.
+      KotlinInlineFunctionPositionRemapper kotlinRemapper =
+          new KotlinInlineFunctionPositionRemapper(
+              appView, positionRemapper, cfLineToMethodMapper);
+
+      for (ProgramMethod method : methods) {
+        DexEncodedMethod definition = method.getDefinition();
+        kotlinRemapper.currentMethod = definition;
+        List<MappedPosition> mappedPositions;
+        Code code = definition.getCode();
+        int pcEncodingCutoff =
+            methods.size() == 1 ? representation.getDexPcEncodingCutoff(method) : -1;
+        boolean canUseDexPc = pcEncodingCutoff > 0;
+        if (code != null) {
+          if (code.isDexCode()
+              && mustHaveResidualDebugInfo(code.asDexCode(), appView.options())) {
+            if (canUseDexPc) {
+              mappedPositions =
+                  optimizeDexCodePositionsForPc(
+                      method, pcEncodingCutoff, appView, kotlinRemapper, pcBasedDebugInfo);
             } else {
-              mappedPositions = new ArrayList<>();
+              mappedPositions =
+                  optimizeDexCodePositions(
+                      definition, appView, kotlinRemapper, identityMapping, methods.size() != 1);
             }
+          } else if (code.isCfCode()
+              && mustHaveResidualDebugInfo(code.asCfCode())
+              && !appView.isCfByteCodePassThrough(definition)) {
+            mappedPositions = optimizeCfCodePositions(method, kotlinRemapper, appView);
           } else {
             mappedPositions = new ArrayList<>();
           }
+        } else {
+          mappedPositions = new ArrayList<>();
+        }
 
-          DexMethod originalMethod =
-              appView.graphLens().getOriginalMethodSignature(method.getReference());
-          MethodSignature originalSignature =
-              MethodSignature.fromDexMethod(originalMethod, originalMethod.holder != originalType);
-
-          DexString obfuscatedNameDexString =
-              appView.getNamingLens().lookupName(method.getReference());
-          String obfuscatedName = obfuscatedNameDexString.toString();
+        DexMethod originalMethod =
+            appView.graphLens().getOriginalMethodSignature(method.getReference());
+        MethodSignature originalSignature =
+            MethodSignature.fromDexMethod(originalMethod, originalMethod.holder != originalType);
 
-          List<MappingInformation> methodMappingInfo = new ArrayList<>();
-          if (definition.isD8R8Synthesized()) {
-            methodMappingInfo.add(CompilerSynthesizedMappingInformation.builder().build());
-          }
+        DexString obfuscatedNameDexString =
+            appView.getNamingLens().lookupName(method.getReference());
+        String obfuscatedName = obfuscatedNameDexString.toString();
 
-          // Don't emit pure identity mappings.
-          if (mappedPositions.isEmpty()
-              && methodMappingInfo.isEmpty()
-              && obfuscatedNameDexString == originalMethod.name
-              && originalMethod.holder == originalType) {
-            assert appView.options().lineNumberOptimization == LineNumberOptimization.OFF
-                || hasAtMostOnePosition(definition, appView.options())
-                || appView.isCfByteCodePassThrough(definition);
-            continue;
-          }
+        List<MappingInformation> methodMappingInfo = new ArrayList<>();
+        if (definition.isD8R8Synthesized()) {
+          methodMappingInfo.add(CompilerSynthesizedMappingInformation.builder().build());
+        }
 
-          MemberNaming memberNaming = new MemberNaming(originalSignature, obfuscatedName);
-          onDemandClassNamingBuilder.computeIfAbsent().addMemberEntry(memberNaming);
-
-          // Add simple "a() -> b" mapping if we won't have any other with concrete line numbers
-          if (mappedPositions.isEmpty()) {
-            MappedRange range =
-                onDemandClassNamingBuilder
-                    .computeIfAbsent()
-                    .addMappedRange(null, originalSignature, null, obfuscatedName);
-            methodMappingInfo.forEach(
-                info -> range.addMappingInformation(info, Unreachable::raise));
-            continue;
-          }
+        // Don't emit pure identity mappings.
+        if (mappedPositions.isEmpty()
+            && methodMappingInfo.isEmpty()
+            && obfuscatedNameDexString == originalMethod.name
+            && originalMethod.holder == originalType) {
+          assert appView.options().lineNumberOptimization == LineNumberOptimization.OFF
+              || hasAtMostOnePosition(definition, appView.options())
+              || appView.isCfByteCodePassThrough(definition);
+          continue;
+        }
 
-          Map<DexMethod, MethodSignature> signatures = new IdentityHashMap<>();
-          signatures.put(originalMethod, originalSignature);
-          Function<DexMethod, MethodSignature> getOriginalMethodSignature =
-              m ->
-                  signatures.computeIfAbsent(
-                      m, key -> MethodSignature.fromDexMethod(m, m.holder != clazz.getType()));
+        MemberNaming memberNaming = new MemberNaming(originalSignature, obfuscatedName);
+        onDemandClassNamingBuilder.computeIfAbsent().addMemberEntry(memberNaming);
+
+        // Add simple "a() -> b" mapping if we won't have any other with concrete line numbers
+        if (mappedPositions.isEmpty()) {
+          MappedRange range =
+              onDemandClassNamingBuilder
+                  .computeIfAbsent()
+                  .addMappedRange(null, originalSignature, null, obfuscatedName);
+          methodMappingInfo.forEach(
+              info -> range.addMappingInformation(info, Unreachable::raise));
+          continue;
+        }
 
-          // Check if mapped position is an outline
-          DexMethod outlineMethod = getOutlineMethod(mappedPositions.get(0));
-          if (outlineMethod != null) {
-            outlinesToFix
-                .computeIfAbsent(outlineMethod, ignored -> new OutlineFixupBuilder())
-                .setMappedPositionsOutline(mappedPositions);
-            methodMappingInfo.add(OutlineMappingInformation.builder().build());
-          }
+        Map<DexMethod, MethodSignature> signatures = new IdentityHashMap<>();
+        signatures.put(originalMethod, originalSignature);
+        Function<DexMethod, MethodSignature> getOriginalMethodSignature =
+            m ->
+                signatures.computeIfAbsent(
+                    m, key -> MethodSignature.fromDexMethod(m, m.holder != clazz.getType()));
+
+        // Check if mapped position is an outline
+        DexMethod outlineMethod = getOutlineMethod(mappedPositions.get(0));
+        if (outlineMethod != null) {
+          outlinesToFix
+              .computeIfAbsent(outlineMethod, ignored -> new OutlineFixupBuilder())
+              .setMappedPositionsOutline(mappedPositions);
+          methodMappingInfo.add(OutlineMappingInformation.builder().build());
+        }
 
-          // Update memberNaming with the collected positions, merging multiple positions into a
-          // single region whenever possible.
-          for (int i = 0; i < mappedPositions.size(); /* updated in body */ ) {
-            MappedPosition firstPosition = mappedPositions.get(i);
-            int j = i + 1;
-            MappedPosition lastPosition = firstPosition;
-            for (; j < mappedPositions.size(); j++) {
-              // Break if this position cannot be merged with lastPosition.
-              MappedPosition currentPosition = mappedPositions.get(j);
-              // We allow for ranges being mapped to the same line but not to other ranges:
-              //   1:10:void foo():42:42 -> a
-              // is OK since retrace(a(:7)) = 42, however, the following is not OK:
-              //   1:10:void foo():42:43 -> a
-              // since retrace(a(:7)) = 49, which is not correct.
-              boolean isSingleLine = currentPosition.originalLine == firstPosition.originalLine;
-              boolean differentDelta =
-                  currentPosition.originalLine - lastPosition.originalLine
-                      != currentPosition.obfuscatedLine - lastPosition.obfuscatedLine;
-              boolean isMappingRangeToSingleLine =
-                  firstPosition.obfuscatedLine != lastPosition.obfuscatedLine
-                      && firstPosition.originalLine == lastPosition.originalLine;
-              // Note that currentPosition.caller and lastPosition.class must be deep-compared since
-              // multiple inlining passes lose the canonical property of the positions.
-              if (currentPosition.method != lastPosition.method
-                  || (!isSingleLine && differentDelta)
-                  || (!isSingleLine && isMappingRangeToSingleLine)
-                  || !Objects.equals(currentPosition.caller, lastPosition.caller)
-                  // Break when we see a mapped outline
-                  || currentPosition.outlineCallee != null
-                  // Ensure that we break when we start iterating with an outline caller again.
-                  || firstPosition.outlineCallee != null) {
-                break;
-              }
-              // The mapped positions are not guaranteed to be in order, so maintain first and last
-              // position.
-              if (firstPosition.obfuscatedLine > currentPosition.obfuscatedLine) {
-                firstPosition = currentPosition;
-              }
-              if (lastPosition.obfuscatedLine < currentPosition.obfuscatedLine) {
-                lastPosition = currentPosition;
-              }
+        // Update memberNaming with the collected positions, merging multiple positions into a
+        // single region whenever possible.
+        for (int i = 0; i < mappedPositions.size(); /* updated in body */ ) {
+          MappedPosition firstPosition = mappedPositions.get(i);
+          int j = i + 1;
+          MappedPosition lastPosition = firstPosition;
+          for (; j < mappedPositions.size(); j++) {
+            // Break if this position cannot be merged with lastPosition.
+            MappedPosition currentPosition = mappedPositions.get(j);
+            // We allow for ranges being mapped to the same line but not to other ranges:
+            //   1:10:void foo():42:42 -> a
+            // is OK since retrace(a(:7)) = 42, however, the following is not OK:
+            //   1:10:void foo():42:43 -> a
+            // since retrace(a(:7)) = 49, which is not correct.
+            boolean isSingleLine = currentPosition.originalLine == firstPosition.originalLine;
+            boolean differentDelta =
+                currentPosition.originalLine - lastPosition.originalLine
+                    != currentPosition.obfuscatedLine - lastPosition.obfuscatedLine;
+            boolean isMappingRangeToSingleLine =
+                firstPosition.obfuscatedLine != lastPosition.obfuscatedLine
+                    && firstPosition.originalLine == lastPosition.originalLine;
+            // Note that currentPosition.caller and lastPosition.class must be deep-compared since
+            // multiple inlining passes lose the canonical property of the positions.
+            if (currentPosition.method != lastPosition.method
+                || (!isSingleLine && differentDelta)
+                || (!isSingleLine && isMappingRangeToSingleLine)
+                || !Objects.equals(currentPosition.caller, lastPosition.caller)
+                // Break when we see a mapped outline
+                || currentPosition.outlineCallee != null
+                // Ensure that we break when we start iterating with an outline caller again.
+                || firstPosition.outlineCallee != null) {
+              break;
             }
-            Range obfuscatedRange;
-            if (definition.getCode().isDexCode()
-                && definition.getCode().asDexCode().getDebugInfo()
-                    == DexDebugInfoForSingleLineMethod.getInstance()) {
-              assert firstPosition.originalLine == lastPosition.originalLine;
-              obfuscatedRange = new Range(0, MAX_LINE_NUMBER);
-            } else {
-              obfuscatedRange =
-                  new Range(firstPosition.obfuscatedLine, lastPosition.obfuscatedLine);
-            }
-            ClassNaming.Builder classNamingBuilder = onDemandClassNamingBuilder.computeIfAbsent();
-            MappedRange lastMappedRange =
-                getMappedRangesForPosition(
-                    appView,
-                    getOriginalMethodSignature,
-                    classNamingBuilder,
-                    firstPosition.method,
-                    obfuscatedName,
-                    obfuscatedRange,
-                    new Range(firstPosition.originalLine, lastPosition.originalLine),
-                    firstPosition.caller,
-                    prunedInlinedClasses);
-            for (MappingInformation info : methodMappingInfo) {
-              lastMappedRange.addMappingInformation(info, Unreachable::raise);
+            // The mapped positions are not guaranteed to be in order, so maintain first and last
+            // position.
+            if (firstPosition.obfuscatedLine > currentPosition.obfuscatedLine) {
+              firstPosition = currentPosition;
             }
-            // firstPosition will contain a potential outline caller.
-            if (firstPosition.outlineCallee != null) {
-              Int2IntMap positionMap = new Int2IntArrayMap();
-              int maxPc = ListUtils.last(mappedPositions).obfuscatedLine;
-              firstPosition.outlinePositions.forEach(
-                  (line, position) -> {
-                    int placeHolderLineToBeFixed;
-                    if (canUseDexPc) {
-                      placeHolderLineToBeFixed = maxPc + line + 1;
-                    } else {
-                      placeHolderLineToBeFixed =
-                          positionRemapper.createRemappedPosition(position).getSecond().getLine();
-                    }
-                    positionMap.put((int) line, placeHolderLineToBeFixed);
-                    getMappedRangesForPosition(
-                        appView,
-                        getOriginalMethodSignature,
-                        classNamingBuilder,
-                        position.getMethod(),
-                        obfuscatedName,
-                        new Range(placeHolderLineToBeFixed, placeHolderLineToBeFixed),
-                        new Range(position.getLine(), position.getLine()),
-                        position.getCallerPosition(),
-                        prunedInlinedClasses);
-                  });
-              outlinesToFix
-                  .computeIfAbsent(
-                      firstPosition.outlineCallee, ignored -> new OutlineFixupBuilder())
-                  .addMappedRangeForOutlineCallee(lastMappedRange, positionMap);
+            if (lastPosition.obfuscatedLine < currentPosition.obfuscatedLine) {
+              lastPosition = currentPosition;
             }
-            i = j;
           }
+          Range obfuscatedRange;
           if (definition.getCode().isDexCode()
               && definition.getCode().asDexCode().getDebugInfo()
                   == DexDebugInfoForSingleLineMethod.getInstance()) {
-            pcBasedDebugInfo.recordSingleLineFor(method, pcEncodingCutoff);
+            assert firstPosition.originalLine == lastPosition.originalLine;
+            obfuscatedRange = new Range(0, MAX_LINE_NUMBER);
+          } else {
+            obfuscatedRange =
+                new Range(firstPosition.obfuscatedLine, lastPosition.obfuscatedLine);
           }
-        } // for each method of the group
-      } // for each method group, grouped by name
-    } // for each class
-
-    // Fixup all outline positions
-    outlinesToFix.values().forEach(OutlineFixupBuilder::fixup);
-
-    // Update all the debug-info objects.
-    pcBasedDebugInfo.updateDebugInfoInCodeObjects();
-
-    // Add all pruned inline classes to the mapping to recover source files.
-    List<Entry<DexType, String>> prunedEntries = new ArrayList<>(prunedInlinedClasses.entrySet());
-    prunedEntries.sort(Entry.comparingByKey());
-    prunedEntries.forEach(
-        entry -> {
-          DexType holder = entry.getKey();
-          assert appView.appInfo().definitionForWithoutExistenceAssert(holder) == null;
-          String typeName = holder.toSourceString();
-          String sourceFile = entry.getValue();
-          assert !RetraceUtils.hasPredictableSourceFileName(typeName, sourceFile);
-          classNameMapperBuilder
-              .classNamingBuilder(
-                  typeName, typeName, com.android.tools.r8.position.Position.UNKNOWN)
-              .addMappingInformation(FileNameInformation.build(sourceFile), Unreachable::raise);
-        });
-
-    return classNameMapperBuilder.build();
+          ClassNaming.Builder classNamingBuilder = onDemandClassNamingBuilder.computeIfAbsent();
+          MappedRange lastMappedRange =
+              getMappedRangesForPosition(
+                  appView,
+                  getOriginalMethodSignature,
+                  classNamingBuilder,
+                  firstPosition.method,
+                  obfuscatedName,
+                  obfuscatedRange,
+                  new Range(firstPosition.originalLine, lastPosition.originalLine),
+                  firstPosition.caller,
+                  prunedInlinedClasses);
+          for (MappingInformation info : methodMappingInfo) {
+            lastMappedRange.addMappingInformation(info, Unreachable::raise);
+          }
+          // firstPosition will contain a potential outline caller.
+          if (firstPosition.outlineCallee != null) {
+            Int2IntMap positionMap = new Int2IntArrayMap();
+            int maxPc = ListUtils.last(mappedPositions).obfuscatedLine;
+            firstPosition.outlinePositions.forEach(
+                (line, position) -> {
+                  int placeHolderLineToBeFixed;
+                  if (canUseDexPc) {
+                    placeHolderLineToBeFixed = maxPc + line + 1;
+                  } else {
+                    placeHolderLineToBeFixed =
+                        positionRemapper.createRemappedPosition(position).getSecond().getLine();
+                  }
+                  positionMap.put((int) line, placeHolderLineToBeFixed);
+                  getMappedRangesForPosition(
+                      appView,
+                      getOriginalMethodSignature,
+                      classNamingBuilder,
+                      position.getMethod(),
+                      obfuscatedName,
+                      new Range(placeHolderLineToBeFixed, placeHolderLineToBeFixed),
+                      new Range(position.getLine(), position.getLine()),
+                      position.getCallerPosition(),
+                      prunedInlinedClasses);
+                });
+            outlinesToFix
+                .computeIfAbsent(
+                    firstPosition.outlineCallee, ignored -> new OutlineFixupBuilder())
+                .addMappedRangeForOutlineCallee(lastMappedRange, positionMap);
+          }
+          i = j;
+        }
+        if (definition.getCode().isDexCode()
+            && definition.getCode().asDexCode().getDebugInfo()
+                == DexDebugInfoForSingleLineMethod.getInstance()) {
+          pcBasedDebugInfo.recordSingleLineFor(method, pcEncodingCutoff);
+        }
+      } // for each method of the group
+    } // for each method group, grouped by name
   }
 
   private static boolean hasAtMostOnePosition(
@@ -1394,11 +1422,12 @@ public class LineNumberOptimizer {
     private final List<Pair<MappedRange, Int2IntMap>> mappedOutlineCalleePositions =
         new ArrayList<>();
 
-    public void setMappedPositionsOutline(List<MappedPosition> mappedPositionsOutline) {
+    public synchronized void setMappedPositionsOutline(
+        List<MappedPosition> mappedPositionsOutline) {
       this.mappedOutlinePositions = mappedPositionsOutline;
     }
 
-    public void addMappedRangeForOutlineCallee(
+    public synchronized void addMappedRangeForOutlineCallee(
         MappedRange mappedRangeForOutline, Int2IntMap calleePositions) {
       mappedOutlineCalleePositions.add(Pair.create(mappedRangeForOutline, calleePositions));
     }
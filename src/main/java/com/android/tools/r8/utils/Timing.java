@@ -10,6 +10,8 @@ package com.android.tools.r8.utils;
 //     try { ... } finally { t.end(); }
 // or alternatively:
 //     t.scope("My task", () -> { ... });
+// Counters, such as the number of items processed, can be attached to the current node by:
+//     t.count("My counter", value);
 // Finally a report is printed by:
 //     t.report();
 
@@ -48,6 +50,11 @@ public class Timing {
           // Ignore.
         }
 
+        @Override
+        public void count(String title, long value) {
+          // Ignore.
+        }
+
         @Override
         public void end() {
           // Ignore.
@@ -111,6 +118,7 @@ public class Timing {
     final boolean trackMemory;
 
     final Map<String, Node> children = new LinkedHashMap<>();
+    final Map<String, Long> counters = new LinkedHashMap<>();
     long duration = 0;
     long start_time;
     Map<String, MemInfo> startMemory;
@@ -166,6 +174,7 @@ public class Timing {
       if (trackMemory) {
         printMemory(depth);
       }
+      printCounters(depth);
       if (children.isEmpty()) {
         return;
       }
@@ -196,6 +205,14 @@ public class Timing {
       }
     }
 
+    void printCounters(int depth) {
+      counters.forEach(
+          (title, value) -> {
+            printPrefix(depth + 1);
+            System.out.println(title + ": " + prettyNumber(value));
+          });
+    }
+
     void printMemory(int depth) {
       for (Entry<String, MemInfo> start : startMemory.entrySet()) {
         if (start.getKey().equals("Memory")) {
@@ -249,6 +266,7 @@ public class Timing {
               if (trackMemory) {
                 printMemory(depth);
               }
+              printCounters(depth);
               // Report children with this merge node as "top" so times are relative to the total
               // merge.
               children.forEach((title, node) -> node.report(depth + 1, this));
@@ -287,6 +305,8 @@ public class Timing {
         assert timing.stack.isEmpty() : "Expected sub-timing to have completed prior to merge";
         ++taskCount;
         merged.duration += timing.top.duration;
+        timing.top.counters.forEach(
+            (counter, value) -> merged.counters.merge(counter, value, Long::sum));
         if (timing.top.duration > slowest.duration) {
           slowest = timing.top;
         }
@@ -299,6 +319,8 @@ public class Timing {
               Node mergeTarget =
                   item.mergeTarget.children.computeIfAbsent(title, t -> new Node(t, trackMemory));
               mergeTarget.duration += child.duration;
+              child.counters.forEach(
+                  (counter, value) -> mergeTarget.counters.merge(counter, value, Long::sum));
               if (!child.children.isEmpty()) {
                 worklist.addLast(new Item(mergeTarget, child));
               }
@@ -365,6 +387,11 @@ public class Timing {
     stack.push(child);
   }
 
+  /** Adds the given value to the counter with the given title on the current timing node. */
+  public void count(String title, long value) {
+    stack.peek().counters.merge(title, value, Long::sum);
+  }
+
   public <E extends Exception> void time(String title, ThrowingAction<E> action) throws E {
     begin(title);
     try {
@@ -0,0 +1,265 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.utils.collections;
+
+import com.android.tools.r8.graph.DexEncodedMethod;
+import com.android.tools.r8.graph.DexMethod;
+import com.android.tools.r8.graph.ProgramMethod;
+import com.android.tools.r8.graph.ProgramMethodNumbering;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link ProgramMethodSet} that represents the methods of a {@link ProgramMethodNumbering} as a
+ * bit set. Methods that are not part of the numbering, e.g., methods that have been synthesized
+ * after the numbering was created, are stored in the backing map of the {@link ProgramMethodSet}.
+ * Membership tests and insertions of {@link ProgramMethod}s use the id stored on the method
+ * definition and do not hash.
+ *
+ * <p>The bit set only spans the ids starting from a given offset, such that a set of the methods
+ * with ids in [from; to) only requires (to - from) bits. Iteration is in the order of the ids and
+ * uses the method array of the numbering.
+ *
+ * <p>This set is not thread safe for concurrent modifications.
+ */
+public class DenseProgramMethodSet extends ProgramMethodSet {
+
+  private final ProgramMethodNumbering numbering;
+  private final int offset;
+  private final BitSet bits;
+  private int numberOfMethodsInBits;
+
+  private DenseProgramMethodSet(ProgramMethodNumbering numbering, int offset, BitSet bits) {
+    super(IdentityHashMap::new);
+    this.numbering = numbering;
+    this.offset = offset;
+    this.bits = bits;
+    this.numberOfMethodsInBits = bits.cardinality();
+  }
+
+  public static DenseProgramMethodSet create(ProgramMethodNumbering numbering) {
+    return new DenseProgramMethodSet(numbering, 0, new BitSet(numbering.size()));
+  }
+
+  /** Returns a set that contains the methods with ids in [fromId; toId) in the given numbering. */
+  public static DenseProgramMethodSet create(
+      ProgramMethodNumbering numbering, int fromId, int toId) {
+    assert 0 <= fromId && fromId <= toId && toId <= numbering.size();
+    BitSet bits = new BitSet(toId - fromId);
+    bits.set(0, toId - fromId);
+    return new DenseProgramMethodSet(numbering, fromId, bits);
+  }
+
+  private int getIndex(DexEncodedMethod definition) {
+    return toIndex(numbering.getId(definition));
+  }
+
+  private int getIndex(DexMethod method) {
+    return toIndex(numbering.getId(method));
+  }
+
+  private int toIndex(int id) {
+    return id >= offset ? id - offset : -1;
+  }
+
+  @Override
+  public boolean add(ProgramMethod method) {
+    int index = getIndex(method.getDefinition());
+    if (index < 0) {
+      return super.add(method);
+    }
+    assert numbering.getMethod(index + offset).isStructurallyEqualTo(method);
+    if (bits.get(index)) {
+      return false;
+    }
+    bits.set(index);
+    numberOfMethodsInBits++;
+    return true;
+  }
+
+  @Override
+  public void addAll(ProgramMethodSet methods) {
+    methods.forEach(this::add);
+  }
+
+  @Override
+  void addAllTo(Map<DexMethod, ProgramMethod> target) {
+    for (int index = bits.nextSetBit(0); index >= 0; index = bits.nextSetBit(index + 1)) {
+      ProgramMethod method = numbering.getMethod(index + offset);
+      target.put(method.getReference(), method);
+    }
+    super.addAllTo(target);
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends ProgramMethod> methods) {
+    boolean changed = false;
+    for (ProgramMethod method : methods) {
+      changed |= add(method);
+    }
+    return changed;
+  }
+
+  @Override
+  public ProgramMethod get(DexMethod method) {
+    int index = getIndex(method);
+    if (index < 0) {
+      return super.get(method);
+    }
+    return bits.get(index) ? numbering.getMethod(index + offset) : null;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (o instanceof ProgramMethod) {
+      return contains((ProgramMethod) o);
+    }
+    return super.contains(o);
+  }
+
+  @Override
+  public boolean contains(DexMethod method) {
+    int index = getIndex(method);
+    return index < 0 ? super.contains(method) : bits.get(index);
+  }
+
+  @Override
+  public boolean contains(DexEncodedMethod definition) {
+    int index = getIndex(definition);
+    return index < 0 ? super.contains(definition.getReference()) : bits.get(index);
+  }
+
+  @Override
+  public boolean contains(ProgramMethod method) {
+    return contains(method.getDefinition());
+  }
+
+  @Override
+  public void clear() {
+    bits.clear();
+    numberOfMethodsInBits = 0;
+    super.clear();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return numberOfMethodsInBits == 0 && super.isEmpty();
+  }
+
+  @Override
+  public Iterator<ProgramMethod> iterator() {
+    return Iterators.concat(new BitsIterator(), super.iterator());
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    if (o instanceof ProgramMethod) {
+      return remove(((ProgramMethod) o).getDefinition());
+    }
+    return super.remove(o);
+  }
+
+  @Override
+  public boolean remove(DexMethod method) {
+    int index = getIndex(method);
+    return index < 0 ? super.remove(method) : removeIndex(index);
+  }
+
+  @Override
+  public boolean remove(DexEncodedMethod definition) {
+    int index = getIndex(definition);
+    return index < 0 ? super.remove(definition.getReference()) : removeIndex(index);
+  }
+
+  private boolean removeIndex(int index) {
+    if (!bits.get(index)) {
+      return false;
+    }
+    bits.clear(index);
+    numberOfMethodsInBits--;
+    return true;
+  }
+
+  @Override
+  public boolean removeIf(Predicate<? super ProgramMethod> predicate) {
+    boolean changed = false;
+    Iterator<ProgramMethod> iterator = iterator();
+    while (iterator.hasNext()) {
+      if (predicate.test(iterator.next())) {
+        iterator.remove();
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> collection) {
+    return removeIf(method -> !collection.contains(method));
+  }
+
+  @Override
+  public int size() {
+    return numberOfMethodsInBits + super.size();
+  }
+
+  @Override
+  public Stream<ProgramMethod> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  @Override
+  public Object[] toArray() {
+    return Iterators.toArray(iterator(), Object.class);
+  }
+
+  @Override
+  public <S> S[] toArray(S[] ss) {
+    return Lists.newArrayList(iterator()).toArray(ss);
+  }
+
+  @Override
+  public Collection<ProgramMethod> toCollection() {
+    return this;
+  }
+
+  private class BitsIterator implements Iterator<ProgramMethod> {
+
+    private int current = -1;
+    private int next = bits.nextSetBit(0);
+
+    @Override
+    public boolean hasNext() {
+      return next >= 0;
+    }
+
+    @Override
+    public ProgramMethod next() {
+      if (next < 0) {
+        throw new NoSuchElementException();
+      }
+      current = next;
+      next = bits.nextSetBit(next + 1);
+      return numbering.getMethod(current + offset);
+    }
+
+    @Override
+    public void remove() {
+      assert current >= 0 && bits.get(current);
+      bits.clear(current);
+      numberOfMethodsInBits--;
+      current = -1;
+    }
+  }
+}
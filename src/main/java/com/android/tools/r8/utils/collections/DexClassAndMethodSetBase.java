@@ -73,11 +73,11 @@ public abstract class DexClassAndMethodSetBase<T extends DexClassAndMethod>
   }
 
   public boolean contains(DexEncodedMethod method) {
-    return backing.containsKey(method.getReference());
+    return contains(method.getReference());
   }
 
   public boolean contains(T method) {
-    return backing.containsKey(method.getReference());
+    return contains(method.getReference());
   }
 
   @Override
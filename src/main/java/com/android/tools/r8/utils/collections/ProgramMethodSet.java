@@ -74,7 +74,11 @@ public class ProgramMethodSet extends DexClassAndMethodSetBase<ProgramMethod> {
   }
 
   public void addAll(ProgramMethodSet methods) {
-    backing.putAll(methods.backing);
+    methods.addAllTo(backing);
+  }
+
+  void addAllTo(Map<DexMethod, ProgramMethod> target) {
+    target.putAll(backing);
   }
 
   public boolean createAndAdd(DexProgramClass clazz, DexEncodedMethod definition) {
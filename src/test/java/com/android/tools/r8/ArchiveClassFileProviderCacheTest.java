@@ -0,0 +1,136 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import com.android.tools.r8.ArchiveClassFileProviderCache.Provider;
+import com.android.tools.r8.utils.AndroidApiLevel;
+import com.android.tools.r8.utils.StringUtils;
+import com.google.common.collect.ImmutableSet;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class ArchiveClassFileProviderCacheTest extends TestBase {
+
+  private static final String EXPECTED = StringUtils.lines("Hello, world");
+
+  private final TestParameters parameters;
+
+  @Parameterized.Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withDexRuntimes().withAllApiLevels().build();
+  }
+
+  public ArchiveClassFileProviderCacheTest(TestParameters parameters) {
+    this.parameters = parameters;
+  }
+
+  @Test
+  public void testReuseAcrossCompilations() throws Exception {
+    Path androidJar = ToolHelper.getAndroidJar(AndroidApiLevel.LATEST);
+    Path androidJarCopy = temp.newFolder().toPath().resolve("android.jar");
+    Files.copy(androidJar, androidJarCopy);
+    try (ArchiveClassFileProviderCache cache = ArchiveClassFileProviderCache.create()) {
+      for (Path library : new Path[] {androidJar, androidJar, androidJarCopy}) {
+        try (Provider provider = cache.getProvider(library)) {
+          testForD8(parameters.getBackend())
+              .addProgramClasses(TestClass.class)
+              .addLibraryProvider(provider)
+              .setMinApi(parameters.getApiLevel())
+              .run(parameters.getRuntime(), TestClass.class)
+              .assertSuccessWithOutput(EXPECTED);
+        }
+      }
+      // The copy has the same content and is therefore shared with the original.
+      assertEquals(1, cache.size());
+      try (Provider provider = cache.getProvider(androidJar);
+          Provider copyProvider = cache.getProvider(androidJarCopy)) {
+        assertSame(provider.getClassDescriptors(), copyProvider.getClassDescriptors());
+      }
+    }
+  }
+
+  @Test
+  public void testModifiedArchiveReplacesStaleEntry() throws Exception {
+    Path archive = temp.newFolder().toPath().resolve("archive.jar");
+    Files.copy(jarTestClasses(TestClass.class), archive);
+    try (ArchiveClassFileProviderCache cache = ArchiveClassFileProviderCache.create();
+        Provider provider = cache.getProvider(archive)) {
+      assertEquals(ImmutableSet.of(descriptor(TestClass.class)), provider.getClassDescriptors());
+      Files.copy(jarTestClasses(OtherClass.class), archive, StandardCopyOption.REPLACE_EXISTING);
+      Files.setLastModifiedTime(
+          archive,
+          FileTime.fromMillis(Files.getLastModifiedTime(archive).toMillis() + 10_000));
+      try (Provider newProvider = cache.getProvider(archive)) {
+        assertEquals(
+            ImmutableSet.of(descriptor(OtherClass.class)), newProvider.getClassDescriptors());
+      }
+      // The entry for the previous content is no longer referenced and has been removed.
+      assertEquals(1, cache.size());
+    }
+  }
+
+  @Test
+  public void testLeastRecentlyUsedArchiveIsEvicted() throws Exception {
+    Path first = jarTestClasses(TestClass.class, OtherClassInFirst.class);
+    Path second = jarTestClasses(OtherClass.class);
+    try (ArchiveClassFileProviderCache cache = ArchiveClassFileProviderCache.create(1);
+        Provider firstProvider = cache.getProvider(first)) {
+      assertNotNull(firstProvider.getProgramResource(descriptor(TestClass.class)));
+      cache.getProvider(second).close();
+      assertEquals(1, cache.size());
+      // The evicted archive remains open for the provider that still uses it.
+      assertNotNull(firstProvider.getProgramResource(descriptor(OtherClassInFirst.class)));
+      // The first archive is reopened when requested again.
+      try (Provider provider = cache.getProvider(first)) {
+        assertEquals(
+            ImmutableSet.of(descriptor(TestClass.class), descriptor(OtherClassInFirst.class)),
+            provider.getClassDescriptors());
+      }
+      assertEquals(1, cache.size());
+    }
+  }
+
+  @Test
+  public void testOpenProviderOutlivesCache() throws Exception {
+    Path archive = jarTestClasses(TestClass.class);
+    Provider provider;
+    try (ArchiveClassFileProviderCache cache = ArchiveClassFileProviderCache.create()) {
+      provider = cache.getProvider(archive);
+    }
+    try {
+      assertNotNull(provider.getProgramResource(descriptor(TestClass.class)));
+    } finally {
+      provider.close();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonArchiveIsRejected() throws Exception {
+    try (ArchiveClassFileProviderCache cache = ArchiveClassFileProviderCache.create()) {
+      cache.getProvider(temp.newFile("classes.txt").toPath());
+    }
+  }
+
+  static class TestClass {
+
+    public static void main(String[] args) {
+      System.out.println("Hello, world");
+    }
+  }
+
+  static class OtherClass {}
+
+  static class OtherClassInFirst {}
+}
@@ -49,6 +49,13 @@ public class D8TestBuilder
     return addProgramResourceProviders(Arrays.asList(providers));
   }
 
+  public D8TestBuilder addClasspathResourceProviders(ClassFileResourceProvider... providers) {
+    for (ClassFileResourceProvider provider : providers) {
+      builder.addClasspathResourceProvider(provider);
+    }
+    return self();
+  }
+
   @Override
   public D8TestBuilder addClasspathClasses(Collection<Class<?>> classes) {
     builder.addClasspathResourceProvider(ClassFileResourceProviderFromClasses(classes));
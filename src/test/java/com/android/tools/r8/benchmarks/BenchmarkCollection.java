@@ -5,10 +5,15 @@ package com.android.tools.r8.benchmarks;
 
 import static java.util.Collections.emptyList;
 
+import com.android.tools.r8.benchmarks.apimodeling.ApiModelingBenchmark;
 import com.android.tools.r8.benchmarks.appdumps.TiviBenchmarks;
+import com.android.tools.r8.benchmarks.argumentpropagation.InParameterFlowBenchmark;
+import com.android.tools.r8.benchmarks.dataflow.BitVectorDataflowBenchmark;
 import com.android.tools.r8.benchmarks.desugaredlib.L8Benchmark;
 import com.android.tools.r8.benchmarks.desugaredlib.LegacyDesugaredLibraryBenchmark;
+import com.android.tools.r8.benchmarks.desugaring.D8DesugaringBenchmark;
 import com.android.tools.r8.benchmarks.helloworld.HelloWorldBenchmark;
+import com.android.tools.r8.benchmarks.keeprules.KeepRuleMatchingBenchmark;
 import com.android.tools.r8.benchmarks.retrace.RetraceStackTraceBenchmark;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -51,6 +56,11 @@ public class BenchmarkCollection {
     L8Benchmark.configs().forEach(collection::addBenchmark);
     TiviBenchmarks.configs().forEach(collection::addBenchmark);
     RetraceStackTraceBenchmark.configs().forEach(collection::addBenchmark);
+    ApiModelingBenchmark.configs().forEach(collection::addBenchmark);
+    D8DesugaringBenchmark.configs().forEach(collection::addBenchmark);
+    KeepRuleMatchingBenchmark.configs().forEach(collection::addBenchmark);
+    InParameterFlowBenchmark.configs().forEach(collection::addBenchmark);
+    BitVectorDataflowBenchmark.configs().forEach(collection::addBenchmark);
     return collection;
   }
 
@@ -18,6 +18,10 @@ import java.util.concurrent.TimeUnit;
 
 public class BenchmarkConfig {
 
+  // Golem revision of benchmarks that have not landed yet. Golem does not run a benchmark before
+  // its from-revision, so the golem owner must replace this with the revision that landed it.
+  public static final int NOT_LANDED_REVISION = Integer.MAX_VALUE;
+
   public static void checkBenchmarkConsistency(BenchmarkConfig benchmark, BenchmarkConfig other) {
     if (benchmark.getTarget().equals(other.getTarget())) {
       throw new BenchmarkConfigError("Duplicate benchmark name and target: " + benchmark);
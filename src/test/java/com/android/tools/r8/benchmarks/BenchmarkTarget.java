@@ -10,7 +10,8 @@ public enum BenchmarkTarget {
   D8("d8", "D8"),
   R8_COMPAT("r8-compat", "R8"),
   R8_NON_COMPAT("r8-full", "R8-full"),
-  R8_FORCE_OPT("r8-force", "R8-full-minify-optimize-shrink");
+  R8_FORCE_OPT("r8-force", "R8-full-minify-optimize-shrink"),
+  TRACE_REFERENCES("tracereferences", "TraceReferences");
 
   private final String idName;
   private final String golemName;
@@ -0,0 +1,112 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.benchmarks.apimodeling;
+
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.benchmarks.BenchmarkBase;
+import com.android.tools.r8.benchmarks.BenchmarkConfig;
+import com.android.tools.r8.benchmarks.BenchmarkDependency;
+import com.android.tools.r8.benchmarks.BenchmarkEnvironment;
+import com.android.tools.r8.benchmarks.BenchmarkMethod;
+import com.android.tools.r8.benchmarks.BenchmarkMetric;
+import com.android.tools.r8.benchmarks.BenchmarkResults;
+import com.android.tools.r8.benchmarks.BenchmarkSuite;
+import com.android.tools.r8.benchmarks.BenchmarkTarget;
+import com.android.tools.r8.dump.CompilerDump;
+import com.android.tools.r8.dump.DumpOptions;
+import com.android.tools.r8.utils.InternalOptions;
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Benchmark for the cost of api level modeling, i.e., the lookups in the api database done by
+ * {@code AndroidApiLevelCompute} and the stubbing done by {@code ApiReferenceStubber}.
+ *
+ * <p>The same app is compiled with and without api modeling. The difference between the two
+ * sub-benchmarks is the cost of the modeling. Each iteration runs in the same JVM, so after the
+ * warmup the database is shared with the previous compilations.
+ */
+@RunWith(Parameterized.class)
+public class ApiModelingBenchmark extends BenchmarkBase {
+
+  private static final String NAME = "ApiModeling";
+  private static final String ENABLED = NAME + "Enabled";
+  private static final String DISABLED = NAME + "Disabled";
+
+  private static final BenchmarkDependency dump =
+      new BenchmarkDependency("appdump", "tivi", Paths.get("third_party", "opensource-apps"));
+
+  public ApiModelingBenchmark(BenchmarkConfig config, TestParameters parameters) {
+    super(config, parameters);
+  }
+
+  @Parameters(name = "{0}")
+  public static List<Object[]> data() {
+    return parametersFromConfigs(configs());
+  }
+
+  public static List<BenchmarkConfig> configs() {
+    return ImmutableList.of(
+        BenchmarkConfig.builder()
+            .setName(NAME)
+            .setTarget(BenchmarkTarget.R8_NON_COMPAT)
+            .setSuite(BenchmarkSuite.OPENSOURCE_BENCHMARKS)
+            .setMethod(run())
+            .setFromRevision(BenchmarkConfig.NOT_LANDED_REVISION)
+            .addDependency(dump)
+            .addSubBenchmark(ENABLED, BenchmarkMetric.RunTimeRaw)
+            .addSubBenchmark(DISABLED, BenchmarkMetric.RunTimeRaw)
+            .setTimeout(10, TimeUnit.MINUTES)
+            .build());
+  }
+
+  private static BenchmarkMethod run() {
+    return environment ->
+        runner(environment.getConfig())
+            .setWarmupIterations(1)
+            .setBenchmarkIterations(4)
+            .reportResultSum()
+            .run(
+                results -> {
+                  runR8(environment, results.getSubResults(ENABLED), options -> {});
+                  runR8(
+                      environment,
+                      results.getSubResults(DISABLED),
+                      options -> {
+                        options.apiModelingOptions().disableApiCallerIdentification();
+                        options.apiModelingOptions().disableMissingApiModeling();
+                      });
+                });
+  }
+
+  private static void runR8(
+      BenchmarkEnvironment environment,
+      BenchmarkResults results,
+      Consumer<InternalOptions> optionsModification)
+      throws Exception {
+    CompilerDump compilerDump =
+        CompilerDump.fromArchive(
+            dump.getRoot(environment).resolve("dump_app.zip"),
+            environment.getTemp().newFolder().toPath());
+    DumpOptions dumpProperties = compilerDump.getBuildProperties();
+    testForR8(environment.getTemp(), Backend.DEX)
+        .addProgramFiles(compilerDump.getProgramArchive())
+        .addLibraryFiles(compilerDump.getLibraryArchive())
+        .addKeepRuleFiles(compilerDump.getProguardConfigFile())
+        .setMinApi(dumpProperties.getMinApi())
+        .allowUnusedDontWarnPatterns()
+        .allowUnusedProguardConfigurationRules()
+        .allowDiagnosticMessages()
+        .addOptionsModification(
+            options -> options.getOpenClosedInterfacesOptions().suppressAllOpenInterfaces())
+        .addOptionsModification(optionsModification)
+        .benchmarkCompile(results);
+  }
+}
@@ -3,6 +3,7 @@
 // BSD-style license that can be found in the LICENSE file.
 package com.android.tools.r8.benchmarks.appdumps;
 
+import com.android.tools.r8.StringConsumer;
 import com.android.tools.r8.TestBase;
 import com.android.tools.r8.TestBase.Backend;
 import com.android.tools.r8.benchmarks.BenchmarkBase;
@@ -16,6 +17,9 @@ import com.android.tools.r8.benchmarks.BenchmarkSuite;
 import com.android.tools.r8.benchmarks.BenchmarkTarget;
 import com.android.tools.r8.dump.CompilerDump;
 import com.android.tools.r8.dump.DumpOptions;
+import com.android.tools.r8.tracereferences.TraceReferences;
+import com.android.tools.r8.tracereferences.TraceReferencesCommand;
+import com.android.tools.r8.tracereferences.TraceReferencesKeepRules;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -129,6 +133,20 @@ public class AppDumpBenchmarkBuilder {
         .build();
   }
 
+  public BenchmarkConfig buildTraceReferences() {
+    verify();
+    return BenchmarkConfig.builder()
+        .setName(name)
+        .setTarget(BenchmarkTarget.TRACE_REFERENCES)
+        .setSuite(BenchmarkSuite.OPENSOURCE_BENCHMARKS)
+        .setMethod(runTraceReferences(this))
+        .setFromRevision(fromRevision)
+        .addDependency(dumpDependency)
+        .measureRunTime()
+        .setTimeout(10, TimeUnit.MINUTES)
+        .build();
+  }
+
   private String nameForLibraryPart() {
     return name + "Library";
   }
@@ -188,6 +206,29 @@ public class AppDumpBenchmarkBuilder {
                 });
   }
 
+  private static BenchmarkMethod runTraceReferences(AppDumpBenchmarkBuilder builder) {
+    return environment ->
+        BenchmarkBase.runner(environment.getConfig())
+            .setWarmupIterations(1)
+            .run(
+                results -> {
+                  CompilerDump dump = builder.getExtractedDump(environment);
+                  long start = System.nanoTime();
+                  TraceReferences.run(
+                      TraceReferencesCommand.builder()
+                          .addSourceFiles(dump.getProgramArchive())
+                          .addLibraryFiles(dump.getLibraryArchive())
+                          .addTargetFiles(dump.getLibraryArchive())
+                          .setConsumer(
+                              TraceReferencesKeepRules.builder()
+                                  .setOutputConsumer(StringConsumer.emptyConsumer())
+                                  .build())
+                          .build());
+                  long end = System.nanoTime();
+                  results.addRuntimeResult(end - start);
+                });
+  }
+
   private static BenchmarkMethod runIncrementalD8(AppDumpBenchmarkBuilder builder) {
     return environment ->
         BenchmarkBase.runner(environment.getConfig())
@@ -45,6 +45,11 @@ public class TiviBenchmarks extends BenchmarkBase {
             .setDumpDependencyPath(dump)
             .setFromRevision(12370)
             .addProgramPackages("app/tivi")
-            .buildIncrementalD8());
+            .buildIncrementalD8(),
+        AppDumpBenchmarkBuilder.builder()
+            .setName("TiviTraceReferences")
+            .setDumpDependencyPath(dump)
+            .setFromRevision(BenchmarkConfig.NOT_LANDED_REVISION)
+            .buildTraceReferences());
   }
 }
@@ -0,0 +1,203 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.benchmarks.argumentpropagation;
+
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARRAYLENGTH;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.ICONST_2;
+import static org.objectweb.asm.Opcodes.IFLE;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.ISTORE;
+import static org.objectweb.asm.Opcodes.ISUB;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.benchmarks.BenchmarkBase;
+import com.android.tools.r8.benchmarks.BenchmarkConfig;
+import com.android.tools.r8.benchmarks.BenchmarkMethod;
+import com.android.tools.r8.benchmarks.BenchmarkTarget;
+import com.android.tools.r8.utils.AndroidApiLevel;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+/**
+ * Benchmark for the propagation of arguments through a huge flow graph.
+ *
+ * <p>The program consists of many static methods that pass their parameters on to other methods.
+ * The calls form a single large cycle with additional chords, which results in one strongly
+ * connected component with tens of thousands of parameter nodes in the flow graph of the {@link
+ * com.android.tools.r8.optimize.argumentpropagation.propagation.InParameterFlowPropagator}. The
+ * propagator splits such a cycle into partitions that are processed in parallel.
+ */
+@RunWith(Parameterized.class)
+public class InParameterFlowBenchmark extends BenchmarkBase {
+
+  private static final int NUMBER_OF_CLASSES = 50;
+  private static final int NUMBER_OF_METHODS_PER_CLASS = 400;
+  private static final int NUMBER_OF_METHODS = NUMBER_OF_CLASSES * NUMBER_OF_METHODS_PER_CLASS;
+
+  private static final String PACKAGE = "flowgraph/";
+  private static final String MAIN_CLASS = PACKAGE + "Main";
+  private static final String METHOD_DESCRIPTOR = "(Ljava/lang/Object;II)V";
+
+  public InParameterFlowBenchmark(BenchmarkConfig config, TestParameters parameters) {
+    super(config, parameters);
+  }
+
+  @Parameters(name = "{0}")
+  public static List<Object[]> data() {
+    return parametersFromConfigs(configs());
+  }
+
+  public static List<BenchmarkConfig> configs() {
+    return ImmutableList.of(
+        BenchmarkConfig.builder()
+            .setName("InParameterFlow")
+            .setTarget(BenchmarkTarget.R8_NON_COMPAT)
+            .setMethod(run())
+            .setFromRevision(BenchmarkConfig.NOT_LANDED_REVISION)
+            .measureRunTime()
+            .measureWarmup()
+            .build());
+  }
+
+  private static BenchmarkMethod run() {
+    return environment ->
+        runner(environment.getConfig())
+            .setWarmupIterations(1)
+            .setBenchmarkIterations(4)
+            .reportResultSum()
+            .run(
+                results ->
+                    testForR8(environment.getTemp(), Backend.DEX)
+                        .addProgramClassFileData(createProgram())
+                        .addKeepMainRule(MAIN_CLASS.replace('/', '.'))
+                        .addKeepRules("-neverinline class flowgraph.** { *; }")
+                        .addDontWarn("*")
+                        .enableProguardTestOptions()
+                        .setMinApi(AndroidApiLevel.B)
+                        .benchmarkCompile(results));
+  }
+
+  private static List<byte[]> createProgram() {
+    List<byte[]> classes = new ArrayList<>(NUMBER_OF_CLASSES + 1);
+    for (int i = 0; i < NUMBER_OF_CLASSES; i++) {
+      classes.add(createFlowClass(i));
+    }
+    classes.add(createMainClass());
+    return classes;
+  }
+
+  private static String getFlowClassName(int methodIndex) {
+    return PACKAGE + "Flow" + (methodIndex / NUMBER_OF_METHODS_PER_CLASS);
+  }
+
+  private static String getFlowMethodName(int methodIndex) {
+    return "m" + (methodIndex % NUMBER_OF_METHODS_PER_CLASS);
+  }
+
+  private static void invokeFlowMethod(MethodVisitor visitor, int methodIndex) {
+    visitor.visitMethodInsn(
+        INVOKESTATIC,
+        getFlowClassName(methodIndex),
+        getFlowMethodName(methodIndex),
+        METHOD_DESCRIPTOR,
+        false);
+  }
+
+  private static byte[] createFlowClass(int classIndex) {
+    ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+    writer.visit(
+        V1_8,
+        ACC_PUBLIC,
+        getFlowClassName(classIndex * NUMBER_OF_METHODS_PER_CLASS),
+        null,
+        "java/lang/Object",
+        null);
+    for (int i = 0; i < NUMBER_OF_METHODS_PER_CLASS; i++) {
+      int methodIndex = classIndex * NUMBER_OF_METHODS_PER_CLASS + i;
+      // static void m<i>(Object o, int x, int y) {
+      //   if (x > 0) {
+      //     <next>(o, x - 1, y);
+      //     <chord>(o, x - 2, y);
+      //   }
+      //   System.out.println(o);
+      // }
+      MethodVisitor visitor =
+          writer.visitMethod(
+              ACC_PUBLIC | ACC_STATIC,
+              getFlowMethodName(methodIndex),
+              METHOD_DESCRIPTOR,
+              null,
+              null);
+      visitor.visitCode();
+      Label end = new Label();
+      visitor.visitVarInsn(ILOAD, 1);
+      visitor.visitJumpInsn(IFLE, end);
+      visitor.visitVarInsn(ALOAD, 0);
+      visitor.visitVarInsn(ILOAD, 1);
+      visitor.visitInsn(ICONST_1);
+      visitor.visitInsn(ISUB);
+      visitor.visitVarInsn(ILOAD, 2);
+      invokeFlowMethod(visitor, (methodIndex + 1) % NUMBER_OF_METHODS);
+      visitor.visitVarInsn(ALOAD, 0);
+      visitor.visitVarInsn(ILOAD, 1);
+      visitor.visitInsn(ICONST_2);
+      visitor.visitInsn(ISUB);
+      visitor.visitVarInsn(ILOAD, 2);
+      invokeFlowMethod(visitor, (int) ((methodIndex * 31L + 7) % NUMBER_OF_METHODS));
+      visitor.visitLabel(end);
+      visitor.visitFieldInsn(GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+      visitor.visitVarInsn(ALOAD, 0);
+      visitor.visitMethodInsn(
+          INVOKEVIRTUAL, "java/io/PrintStream", "println", "(Ljava/lang/Object;)V", false);
+      visitor.visitInsn(RETURN);
+      visitor.visitMaxs(0, 0);
+      visitor.visitEnd();
+    }
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  private static byte[] createMainClass() {
+    ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+    writer.visit(V1_8, ACC_PUBLIC, MAIN_CLASS, null, "java/lang/Object", null);
+    MethodVisitor visitor =
+        writer.visitMethod(
+            ACC_PUBLIC | ACC_STATIC, "main", "([Ljava/lang/String;)V", null, null);
+    visitor.visitCode();
+    visitor.visitVarInsn(ALOAD, 0);
+    visitor.visitInsn(ARRAYLENGTH);
+    visitor.visitVarInsn(ISTORE, 1);
+    // Enter the flow graph at a few different methods with different arguments.
+    visitor.visitVarInsn(ALOAD, 0);
+    visitor.visitVarInsn(ILOAD, 1);
+    visitor.visitIntInsn(BIPUSH, 42);
+    invokeFlowMethod(visitor, 0);
+    visitor.visitLdcInsn("entry");
+    visitor.visitVarInsn(ILOAD, 1);
+    visitor.visitIntInsn(BIPUSH, 42);
+    invokeFlowMethod(visitor, NUMBER_OF_METHODS / 2);
+    visitor.visitInsn(RETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+}
@@ -0,0 +1,162 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.benchmarks.dataflow;
+
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.ToolHelper;
+import com.android.tools.r8.benchmarks.BenchmarkBase;
+import com.android.tools.r8.benchmarks.BenchmarkConfig;
+import com.android.tools.r8.benchmarks.BenchmarkMethod;
+import com.android.tools.r8.benchmarks.BenchmarkTarget;
+import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.DexEncodedMethod;
+import com.android.tools.r8.graph.DexProgramClass;
+import com.android.tools.r8.ir.analysis.framework.intraprocedural.BitVectorDataflowAnalysis;
+import com.android.tools.r8.ir.analysis.framework.intraprocedural.BitVectorDataflowAnalysis.SuccessfulBitVectorDataflowAnalysisResult;
+import com.android.tools.r8.ir.code.BasicBlock;
+import com.android.tools.r8.ir.code.IRCode;
+import com.android.tools.r8.shaking.AppInfoWithLiveness;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Micro benchmark for the {@link BitVectorDataflowAnalysis}.
+ *
+ * <p>The analysis computes the invoke results that may have been computed upon entry to each block,
+ * which is similar to a reaching definitions analysis. It runs on the IR of methods with nested
+ * loops, catch handlers inside loops and switches, such that the solver needs to iterate back
+ * edges and join the states before throwing instructions into the catch handlers.
+ */
+@RunWith(Parameterized.class)
+public class BitVectorDataflowBenchmark extends BenchmarkBase {
+
+  private static final int NUMBER_OF_ROUNDS = 20_000;
+
+  public BitVectorDataflowBenchmark(BenchmarkConfig config, TestParameters parameters) {
+    super(config, parameters);
+  }
+
+  @Parameters(name = "{0}")
+  public static List<Object[]> data() {
+    return parametersFromConfigs(configs());
+  }
+
+  public static List<BenchmarkConfig> configs() {
+    return ImmutableList.of(
+        BenchmarkConfig.builder()
+            .setName("BitVectorDataflow")
+            .setTarget(BenchmarkTarget.R8_NON_COMPAT)
+            .setMethod(run())
+            .setFromRevision(BenchmarkConfig.NOT_LANDED_REVISION)
+            .measureRunTime()
+            .measureWarmup()
+            .build());
+  }
+
+  private static BenchmarkMethod run() {
+    return environment ->
+        runner(environment.getConfig())
+            .setWarmupIterations(1)
+            .setBenchmarkIterations(10)
+            .reportResultSum()
+            .run(
+                results -> {
+                  List<IRCode> codes = buildIR();
+                  BitVectorDataflowAnalysis analysis =
+                      new BitVectorDataflowAnalysis(
+                          (instruction, state) -> {
+                            if (instruction.isInvokeMethod() && instruction.hasOutValue()) {
+                              state.set(instruction.outValue().getNumber());
+                            }
+                            return true;
+                          });
+                  long start = System.nanoTime();
+                  long reachingInvokes = 0;
+                  for (int round = 0; round < NUMBER_OF_ROUNDS; round++) {
+                    for (IRCode code : codes) {
+                      SuccessfulBitVectorDataflowAnalysisResult result =
+                          (SuccessfulBitVectorDataflowAnalysisResult)
+                              analysis.run(code.entryBlock());
+                      for (BasicBlock block : code.blocks) {
+                        BitSet entryState = result.getBlockEntryState(block);
+                        if (entryState != null) {
+                          reachingInvokes += entryState.cardinality();
+                        }
+                      }
+                    }
+                  }
+                  long end = System.nanoTime();
+                  // Ensure that the analysis is not trivially optimized away.
+                  if (reachingInvokes == 0) {
+                    throw new RuntimeException("Unexpected absence of reaching invokes");
+                  }
+                  results.addRuntimeResult(end - start);
+                });
+  }
+
+  private static List<IRCode> buildIR() throws Exception {
+    AppView<AppInfoWithLiveness> appView =
+        computeAppViewWithLiveness(
+            buildClasses(Input.class).addLibraryFile(ToolHelper.getJava8RuntimeJar()).build());
+    List<IRCode> codes = new ArrayList<>();
+    for (DexProgramClass clazz : appView.appInfo().classes()) {
+      clazz.forEachProgramMethodMatching(
+          DexEncodedMethod::hasCode, method -> codes.add(method.buildIR(appView)));
+    }
+    return codes;
+  }
+
+  static class Input {
+
+    static int nestedLoops(int[][] matrix) {
+      int sum = 0;
+      for (int[] row : matrix) {
+        for (int value : row) {
+          sum += Math.abs(value);
+        }
+        sum = Math.max(sum, row.length);
+      }
+      return Math.min(sum, Integer.MAX_VALUE - 1);
+    }
+
+    static String catchHandlersInLoop(List<String> values) {
+      StringBuilder builder = new StringBuilder();
+      for (String value : values) {
+        try {
+          builder.append(Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+          builder.append(e.getMessage());
+        } finally {
+          builder.append(',');
+        }
+      }
+      return builder.toString();
+    }
+
+    static int switchInLoop(String value) {
+      int result = 0;
+      for (int i = 0; i < value.length(); i++) {
+        switch (value.charAt(i)) {
+          case 'a':
+            result += Character.getNumericValue(value.charAt(0));
+            break;
+          case 'b':
+            result -= Character.getNumericValue(value.charAt(i));
+            break;
+          case 'c':
+            result *= value.indexOf('c', i);
+            break;
+          default:
+            result = Integer.rotateLeft(result, i);
+        }
+      }
+      return result;
+    }
+  }
+}
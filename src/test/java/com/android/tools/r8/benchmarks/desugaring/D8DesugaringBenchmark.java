@@ -0,0 +1,77 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.benchmarks.desugaring;
+
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.benchmarks.BenchmarkBase;
+import com.android.tools.r8.benchmarks.BenchmarkConfig;
+import com.android.tools.r8.benchmarks.BenchmarkDependency;
+import com.android.tools.r8.benchmarks.BenchmarkMethod;
+import com.android.tools.r8.benchmarks.BenchmarkSuite;
+import com.android.tools.r8.benchmarks.BenchmarkTarget;
+import com.android.tools.r8.dump.CompilerDump;
+import com.android.tools.r8.utils.AndroidApiLevel;
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Benchmark for D8 on a desugaring heavy workload.
+ *
+ * <p>The program of the Tivi app dump is compiled with the lowest min api, which requires
+ * desugaring of all lambdas, backports, try-with-resources and default interface methods.
+ */
+@RunWith(Parameterized.class)
+public class D8DesugaringBenchmark extends BenchmarkBase {
+
+  private static final BenchmarkDependency dump =
+      new BenchmarkDependency("appdump", "tivi", Paths.get("third_party", "opensource-apps"));
+
+  public D8DesugaringBenchmark(BenchmarkConfig config, TestParameters parameters) {
+    super(config, parameters);
+  }
+
+  @Parameters(name = "{0}")
+  public static List<Object[]> data() {
+    return parametersFromConfigs(configs());
+  }
+
+  public static List<BenchmarkConfig> configs() {
+    return ImmutableList.of(
+        BenchmarkConfig.builder()
+            .setName("TiviDesugaring")
+            .setTarget(BenchmarkTarget.D8)
+            .setSuite(BenchmarkSuite.OPENSOURCE_BENCHMARKS)
+            .setMethod(run())
+            .setFromRevision(BenchmarkConfig.NOT_LANDED_REVISION)
+            .addDependency(dump)
+            .measureRunTime()
+            .measureCodeSize()
+            .setTimeout(10, TimeUnit.MINUTES)
+            .build());
+  }
+
+  private static BenchmarkMethod run() {
+    return environment ->
+        runner(environment.getConfig())
+            .setWarmupIterations(1)
+            .run(
+                results -> {
+                  CompilerDump compilerDump =
+                      CompilerDump.fromArchive(
+                          dump.getRoot(environment).resolve("dump_app.zip"),
+                          environment.getTemp().newFolder().toPath());
+                  testForD8(environment.getTemp(), Backend.DEX)
+                      .addProgramFiles(compilerDump.getProgramArchive())
+                      .addLibraryFiles(compilerDump.getLibraryArchive())
+                      .setMinApi(AndroidApiLevel.B)
+                      .benchmarkCompile(results)
+                      .benchmarkCodeSize(results);
+                });
+  }
+}
@@ -0,0 +1,124 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.benchmarks.keeprules;
+
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.benchmarks.BenchmarkBase;
+import com.android.tools.r8.benchmarks.BenchmarkConfig;
+import com.android.tools.r8.benchmarks.BenchmarkMethod;
+import com.android.tools.r8.benchmarks.BenchmarkTarget;
+import com.android.tools.r8.graph.DecodedStringCache;
+import com.android.tools.r8.graph.DexItemFactory;
+import com.android.tools.r8.graph.DexString;
+import com.android.tools.r8.shaking.ProguardConfigurationParser;
+import com.android.tools.r8.shaking.ProguardConfigurationRule;
+import com.android.tools.r8.shaking.ProguardConfigurationSourceStrings;
+import com.android.tools.r8.shaking.ProguardMemberRule;
+import com.android.tools.r8.utils.Reporter;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Micro benchmark for matching the member names of keep rules against the names of a program.
+ *
+ * <p>The names are matched through a {@link DecodedStringCache}, as done when computing the root
+ * set, and therefore measures the decoding of names and the matching of both specific names and
+ * wildcard patterns.
+ */
+@RunWith(Parameterized.class)
+public class KeepRuleMatchingBenchmark extends BenchmarkBase {
+
+  private static final int NUMBER_OF_NAMES = 100_000;
+  private static final int NUMBER_OF_ROUNDS = 20;
+
+  private static final List<String> RULES =
+      ImmutableList.of(
+          "-keepclassmembers class * { *** get*(); void set*(***); }",
+          "-keepclassmembers class * { void on*Click(...); }",
+          "-keepclassmembers class * { *** lambda$*$?(...); }",
+          "-keepclassmembers class * { int method42(); int field7; }",
+          "-keepclassmembers class * { *** *\u00e9t\u00e9*(...); }");
+
+  public KeepRuleMatchingBenchmark(BenchmarkConfig config, TestParameters parameters) {
+    super(config, parameters);
+  }
+
+  @Parameters(name = "{0}")
+  public static List<Object[]> data() {
+    return parametersFromConfigs(configs());
+  }
+
+  public static List<BenchmarkConfig> configs() {
+    return ImmutableList.of(
+        BenchmarkConfig.builder()
+            .setName("KeepRuleMatching")
+            .setTarget(BenchmarkTarget.R8_NON_COMPAT)
+            .setMethod(run())
+            .setFromRevision(BenchmarkConfig.NOT_LANDED_REVISION)
+            .measureRunTime()
+            .measureWarmup()
+            .build());
+  }
+
+  private static BenchmarkMethod run() {
+    return environment ->
+        runner(environment.getConfig())
+            .setWarmupIterations(1)
+            .setBenchmarkIterations(10)
+            .reportResultSum()
+            .run(
+                results -> {
+                  DexItemFactory factory = new DexItemFactory();
+                  List<ProguardMemberRule> memberRules = parseMemberRules(factory);
+                  List<DexString> names = createNames(factory);
+                  DecodedStringCache stringCache = new DecodedStringCache(names.size());
+                  long start = System.nanoTime();
+                  int matches = 0;
+                  for (int round = 0; round < NUMBER_OF_ROUNDS; round++) {
+                    for (DexString name : names) {
+                      for (ProguardMemberRule memberRule : memberRules) {
+                        if (memberRule.getName().matches(name, stringCache)) {
+                          matches++;
+                        }
+                      }
+                    }
+                  }
+                  long end = System.nanoTime();
+                  // Ensure that the matching is not trivially optimized away.
+                  if (matches == 0) {
+                    throw new RuntimeException("Unexpected absence of matches");
+                  }
+                  results.addRuntimeResult(end - start);
+                });
+  }
+
+  private static List<ProguardMemberRule> parseMemberRules(DexItemFactory factory) {
+    List<ProguardMemberRule> memberRules = new ArrayList<>();
+    List<ProguardConfigurationRule> rules =
+        ProguardConfigurationParser.parse(
+            ImmutableList.of(
+                ProguardConfigurationSourceStrings.createConfigurationForTesting(RULES)),
+            factory,
+            new Reporter());
+    for (ProguardConfigurationRule rule : rules) {
+      memberRules.addAll(rule.getMemberRules());
+    }
+    return memberRules;
+  }
+
+  private static List<DexString> createNames(DexItemFactory factory) {
+    String[] prefixes = {"get", "set", "on", "lambda$main$", "method", "field", "\u00e9t\u00e9"};
+    List<DexString> names = new ArrayList<>(NUMBER_OF_NAMES);
+    for (int i = 0; i < NUMBER_OF_NAMES; i++) {
+      String prefix = prefixes[i % prefixes.length];
+      String suffix = prefix.equals("on") ? "Click" : "";
+      names.add(factory.createString(prefix + (i % 1000) + suffix));
+    }
+    return names;
+  }
+}
@@ -0,0 +1,117 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.dex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.android.tools.r8.ClassFileResourceProvider;
+import com.android.tools.r8.ProgramResource;
+import com.android.tools.r8.ProgramResource.Kind;
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.utils.StringUtils;
+import com.google.common.collect.ImmutableSet;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class DexClasspathResourceTest extends TestBase {
+
+  private static final String EXPECTED = StringUtils.lines("Hello, world");
+
+  private final TestParameters parameters;
+
+  @Parameterized.Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withDexRuntimes().withAllApiLevels().build();
+  }
+
+  public DexClasspathResourceTest(TestParameters parameters) {
+    this.parameters = parameters;
+  }
+
+  @Test
+  public void test() throws Exception {
+    Path classpathDex = temp.newFolder().toPath().resolve("classes.dex");
+    Path classpathZip =
+        testForD8(parameters.getBackend())
+            .addProgramClasses(Greeter.class, Punctuation.class, Unused.class)
+            .setMinApi(parameters.getApiLevel())
+            .compile()
+            .writeSingleDexOutputToFile(classpathDex)
+            .writeToZip();
+    byte[] bytes = Files.readAllBytes(classpathDex);
+    // All classes are defined in the same DEX file, which is only indexed once, also when the
+    // resource has no origin.
+    Set<String> descriptors =
+        ImmutableSet.of(
+            descriptor(Greeter.class), descriptor(Punctuation.class), descriptor(Unused.class));
+    ClassFileResourceProvider provider =
+        new ClassFileResourceProvider() {
+          @Override
+          public Set<String> getClassDescriptors() {
+            return descriptors;
+          }
+
+          @Override
+          public ProgramResource getProgramResource(String descriptor) {
+            return descriptors.contains(descriptor)
+                ? ProgramResource.fromBytes(Origin.unknown(), Kind.DEX, bytes, descriptors)
+                : null;
+          }
+        };
+    Queue<String> createdClasses = new ConcurrentLinkedQueue<>();
+    testForD8(parameters.getBackend())
+        .addProgramClasses(Main.class)
+        .addClasspathResourceProviders(provider)
+        .addOptionsModification(
+            options ->
+                options.testing.onDemandDexClassCreatedConsumer =
+                    type -> createdClasses.add(type.toDescriptorString()))
+        .setMinApi(parameters.getApiLevel())
+        .compile()
+        .addRunClasspathFiles(classpathZip)
+        .run(parameters.getRuntime(), Main.class)
+        .assertSuccessWithOutput(EXPECTED);
+    // Only the referenced classpath classes are read from the DEX file, and each only once.
+    assertEquals(
+        ImmutableSet.of(descriptor(Greeter.class), descriptor(Punctuation.class)),
+        ImmutableSet.copyOf(createdClasses));
+    assertEquals(2, createdClasses.size());
+    assertFalse(createdClasses.contains(descriptor(Unused.class)));
+  }
+
+  static class Main {
+
+    public static void main(String[] args) {
+      new Greeter().greet(Punctuation.get());
+    }
+  }
+
+  static class Greeter {
+
+    void greet(String punctuation) {
+      System.out.println("Hello, world" + punctuation);
+    }
+  }
+
+  static class Punctuation {
+
+    static String get() {
+      return "";
+    }
+  }
+
+  static class Unused {}
+}
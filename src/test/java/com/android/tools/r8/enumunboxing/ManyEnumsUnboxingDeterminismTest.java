@@ -0,0 +1,306 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.enumunboxing;
+
+import com.android.tools.r8.NeverClassInline;
+import com.android.tools.r8.NeverInline;
+import com.android.tools.r8.R8TestCompileResult;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.utils.StringUtils;
+import java.nio.file.Path;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that the output of enum unboxing does not depend on the number of threads, when many enums
+ * are unboxed and many candidates are invalidated concurrently during the primary optimization
+ * pass.
+ */
+@RunWith(Parameterized.class)
+public class ManyEnumsUnboxingDeterminismTest extends EnumUnboxingTestBase {
+
+  private static final int NUMBER_OF_ENUMS_OF_EACH_KIND = 8;
+
+  @Parameter(0)
+  public TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withDexRuntimes().withAllApiLevels().build();
+  }
+
+  @Test
+  public void test() throws Exception {
+    Path expected = compileWithThreadCount(1);
+    for (int threadCount : new int[] {2, 4, 8}) {
+      assertProgramsEqual(expected, compileWithThreadCount(threadCount));
+    }
+  }
+
+  private Path compileWithThreadCount(int threadCount) throws Exception {
+    R8TestCompileResult compileResult =
+        testForR8(parameters.getBackend())
+            .addInnerClasses(getClass())
+            .addKeepMainRule(Main.class)
+            .addEnumUnboxingInspector(
+                inspector ->
+                    inspector
+                        .assertUnboxed(
+                            UnboxableEnum0.class,
+                            UnboxableEnum1.class,
+                            UnboxableEnum2.class,
+                            UnboxableEnum3.class,
+                            UnboxableEnum4.class,
+                            UnboxableEnum5.class,
+                            UnboxableEnum6.class,
+                            UnboxableEnum7.class)
+                        .assertNotUnboxed(
+                            EscapingEnum0.class,
+                            EscapingEnum1.class,
+                            EscapingEnum2.class,
+                            EscapingEnum3.class,
+                            EscapingEnum4.class,
+                            EscapingEnum5.class,
+                            EscapingEnum6.class,
+                            EscapingEnum7.class))
+            .addOptionsModification(options -> options.threadCount = threadCount)
+            .enableInliningAnnotations()
+            .enableNeverClassInliningAnnotations()
+            .setMinApi(parameters.getApiLevel())
+            .compile();
+    StringBuilder expectedOutput = new StringBuilder();
+    for (int i = 0; i < NUMBER_OF_ENUMS_OF_EACH_KIND; i++) {
+      expectedOutput.append(StringUtils.lines("2", "C"));
+    }
+    compileResult
+        .run(parameters.getRuntime(), Main.class)
+        .assertSuccessWithOutput(expectedOutput.toString());
+    return compileResult.writeToZip();
+  }
+
+  @NeverClassInline
+  enum UnboxableEnum0 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum UnboxableEnum1 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum UnboxableEnum2 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum UnboxableEnum3 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum UnboxableEnum4 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum UnboxableEnum5 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum UnboxableEnum6 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum UnboxableEnum7 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum EscapingEnum0 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum EscapingEnum1 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum EscapingEnum2 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum EscapingEnum3 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum EscapingEnum4 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum EscapingEnum5 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum EscapingEnum6 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  @NeverClassInline
+  enum EscapingEnum7 {
+    A,
+    B,
+    C;
+
+    @NeverInline
+    int twice() {
+      return ordinal() * 2;
+    }
+  }
+
+  static class Main {
+
+    public static void main(String[] args) {
+      System.out.println(UnboxableEnum0.B.twice());
+      escape(EscapingEnum0.C);
+      System.out.println(UnboxableEnum1.B.twice());
+      escape(EscapingEnum1.C);
+      System.out.println(UnboxableEnum2.B.twice());
+      escape(EscapingEnum2.C);
+      System.out.println(UnboxableEnum3.B.twice());
+      escape(EscapingEnum3.C);
+      System.out.println(UnboxableEnum4.B.twice());
+      escape(EscapingEnum4.C);
+      System.out.println(UnboxableEnum5.B.twice());
+      escape(EscapingEnum5.C);
+      System.out.println(UnboxableEnum6.B.twice());
+      escape(EscapingEnum6.C);
+      System.out.println(UnboxableEnum7.B.twice());
+      escape(EscapingEnum7.C);
+    }
+
+    // Passing the enum as an Object invalidates it as an unboxing candidate.
+    @NeverInline
+    static void escape(Object o) {
+      System.out.println(o);
+    }
+  }
+}
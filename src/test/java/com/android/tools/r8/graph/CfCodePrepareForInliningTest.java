@@ -0,0 +1,76 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.graph;
+
+import static org.junit.Assert.assertEquals;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.graph.GraphLens.ClearCodeRewritingGraphLens;
+import com.android.tools.r8.utils.OptionalBool;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that the frame verification cached by {@link CfCode#prepareForInlining} is only reused
+ * for the graph lens and code lens that it was computed for, and that it is dropped by {@link
+ * CfCode#clearInliningCache}.
+ */
+@RunWith(Parameterized.class)
+public class CfCodePrepareForInliningTest extends TestBase {
+
+  @Parameter(0)
+  public TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  @Test
+  public void test() throws Exception {
+    AppView<AppInfoWithClassHierarchy> appView =
+        computeAppViewWithClassHierarchy(buildClasses(Main.class).build());
+    DexItemFactory dexItemFactory = appView.dexItemFactory();
+    ProgramMethod method =
+        appView
+            .definitionForProgramType(toDexType(Main.class, dexItemFactory))
+            .lookupProgramMethod(
+                buildMethod(Main.class.getDeclaredMethod("main", String[].class), dexItemFactory));
+    CfCode code = method.getDefinition().getCode().asCfCode();
+
+    GraphLens firstGraphLens = new ClearCodeRewritingGraphLens(dexItemFactory, appView.graphLens());
+    appView.setGraphLens(firstGraphLens);
+    GraphLens identityLens = GraphLens.getIdentityLens();
+    assertEquals(OptionalBool.FALSE, code.prepareForInlining(method, appView, identityLens));
+    assertEquals(OptionalBool.TRUE, code.prepareForInlining(method, appView, identityLens));
+
+    // A different code lens invalidates the cached verification.
+    assertEquals(OptionalBool.FALSE, code.prepareForInlining(method, appView, firstGraphLens));
+    assertEquals(OptionalBool.TRUE, code.prepareForInlining(method, appView, firstGraphLens));
+
+    // A different graph lens invalidates the cached verification.
+    appView.setGraphLens(new ClearCodeRewritingGraphLens(dexItemFactory, firstGraphLens));
+    assertEquals(OptionalBool.FALSE, code.prepareForInlining(method, appView, firstGraphLens));
+    assertEquals(OptionalBool.TRUE, code.prepareForInlining(method, appView, firstGraphLens));
+
+    // Clearing the cache drops the cached verification.
+    code.clearInliningCache();
+    assertEquals(OptionalBool.FALSE, code.prepareForInlining(method, appView, firstGraphLens));
+  }
+
+  static class Main {
+
+    public static void main(String[] args) {
+      for (String arg : args) {
+        System.out.println(arg);
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+package com.android.tools.r8.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class DecodedStringCacheTest {
+
+  private final DexItemFactory factory = new DexItemFactory();
+
+  @Test
+  public void testCapacity() {
+    assertEquals(16, new DecodedStringCache(0).capacity());
+    assertEquals(2048, new DecodedStringCache(1000).capacity());
+    assertEquals(2048, new DecodedStringCache(1024).capacity());
+    assertEquals(1 << 20, new DecodedStringCache(Integer.MAX_VALUE).capacity());
+  }
+
+  @Test
+  public void testCollidingStringsAreRetained() {
+    // The smallest cache has 8 sets of two entries.
+    DecodedStringCache cache = new DecodedStringCache(0);
+    List<DexString> strings = findStringsInSameSet(8, 3);
+    DexString first = strings.get(0);
+    DexString second = strings.get(1);
+    DexString third = strings.get(2);
+
+    String decodedFirst = cache.lookupString(first);
+    String decodedSecond = cache.lookupString(second);
+    assertEquals(first.toString(), decodedFirst);
+    assertEquals(second.toString(), decodedSecond);
+    assertSame(decodedFirst, cache.lookupString(first));
+    assertSame(decodedSecond, cache.lookupString(second));
+
+    // A third string in the same set evicts the least recently inserted string.
+    String decodedThird = cache.lookupString(third);
+    assertSame(decodedThird, cache.lookupString(third));
+    assertSame(decodedSecond, cache.lookupString(second));
+    assertNotSame(decodedFirst, cache.lookupString(first));
+  }
+
+  private List<DexString> findStringsInSameSet(int numberOfSets, int numberOfStrings) {
+    List<DexString> strings = new ArrayList<>();
+    int set = -1;
+    for (int i = 0; strings.size() < numberOfStrings; i++) {
+      DexString string = factory.createString("name" + i);
+      int hash = string.hashCode();
+      int stringSet = (hash ^ (hash >>> 16)) & (numberOfSets - 1);
+      if (set < 0) {
+        set = stringSet;
+      }
+      if (stringSet == set) {
+        strings.add(string);
+      }
+    }
+    return strings;
+  }
+}
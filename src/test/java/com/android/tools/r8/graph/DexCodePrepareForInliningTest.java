@@ -0,0 +1,78 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.utils.AndroidApiLevel;
+import com.android.tools.r8.utils.AndroidApp;
+import com.android.tools.r8.utils.OptionalBool;
+import java.nio.file.Path;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that the debug entries cached by {@link DexCode#prepareForInlining} are reused until they
+ * are dropped by {@link DexCode#clearInliningCache}.
+ */
+@RunWith(Parameterized.class)
+public class DexCodePrepareForInliningTest extends TestBase {
+
+  @Parameter(0)
+  public TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  @Test
+  public void test() throws Exception {
+    Path dex =
+        testForD8(Backend.DEX)
+            .addProgramClasses(Main.class)
+            .debug()
+            .setMinApi(AndroidApiLevel.B)
+            .compile()
+            .writeToZip();
+    AppView<AppInfoWithClassHierarchy> appView =
+        computeAppViewWithClassHierarchy(AndroidApp.builder().addProgramFiles(dex).build());
+    DexItemFactory dexItemFactory = appView.dexItemFactory();
+    DexMethod reference =
+        buildMethod(Main.class.getDeclaredMethod("main", String[].class), dexItemFactory);
+    ProgramMethod method =
+        appView
+            .definitionForProgramType(toDexType(Main.class, dexItemFactory))
+            .lookupProgramMethod(reference);
+    DexCode code = method.getDefinition().getCode().asDexCode();
+    GraphLens codeLens = GraphLens.getIdentityLens();
+
+    assertNull(code.getCachedDebugEntries(reference));
+    assertEquals(OptionalBool.FALSE, code.prepareForInlining(method, appView, codeLens));
+    assertNotNull(code.getCachedDebugEntries(reference));
+    assertEquals(OptionalBool.TRUE, code.prepareForInlining(method, appView, codeLens));
+
+    code.clearInliningCache();
+    assertNull(code.getCachedDebugEntries(reference));
+    assertEquals(OptionalBool.FALSE, code.prepareForInlining(method, appView, codeLens));
+  }
+
+  static class Main {
+
+    public static void main(String[] args) {
+      for (String arg : args) {
+        System.out.println(arg);
+      }
+    }
+  }
+}
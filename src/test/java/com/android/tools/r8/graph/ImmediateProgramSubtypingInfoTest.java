@@ -0,0 +1,70 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.graph;
+
+import static com.android.tools.r8.graph.ProgramItemNumberingTest.getProgramClass;
+import static com.android.tools.r8.graph.ProgramItemNumberingTest.removeProgramClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class ImmediateProgramSubtypingInfoTest extends TestBase {
+
+  @Parameter(0)
+  public TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  @Test
+  public void test() throws Exception {
+    AppView<AppInfoWithClassHierarchy> appView =
+        computeAppViewWithClassHierarchy(
+            buildClasses(I.class, A.class, B.class, C.class).build());
+    DexProgramClass i = getProgramClass(appView, I.class);
+    DexProgramClass a = getProgramClass(appView, A.class);
+    DexProgramClass b = getProgramClass(appView, B.class);
+    DexProgramClass c = getProgramClass(appView, C.class);
+
+    ImmediateProgramSubtypingInfo subtypingInfo = ImmediateProgramSubtypingInfo.create(appView);
+    assertEquals(ImmutableList.of(a), subtypingInfo.getSubclasses(i));
+    assertEquals(ImmutableSet.of(b, c), ImmutableSet.copyOf(subtypingInfo.getSubclasses(a)));
+    assertTrue(subtypingInfo.getSubclasses(b).isEmpty());
+    assertTrue(subtypingInfo.getSubclasses(c).isEmpty());
+    // The subclass lists are precomputed.
+    assertSame(subtypingInfo.getSubclasses(a), subtypingInfo.getSubclasses(a));
+
+    // Renumbering the program classes does not affect the existing subtyping info.
+    removeProgramClass(appView, C.class);
+    ImmediateProgramSubtypingInfo newSubtypingInfo = ImmediateProgramSubtypingInfo.create(appView);
+    assertEquals(ImmutableList.of(a), newSubtypingInfo.getSubclasses(i));
+    assertEquals(ImmutableList.of(b), newSubtypingInfo.getSubclasses(a));
+    assertTrue(newSubtypingInfo.getSubclasses(b).isEmpty());
+    assertEquals(ImmutableSet.of(b, c), ImmutableSet.copyOf(subtypingInfo.getSubclasses(a)));
+    assertEquals(ImmutableList.of(a), subtypingInfo.getSubclasses(i));
+  }
+
+  interface I {}
+
+  static class A implements I {}
+
+  static class B extends A {}
+
+  static class C extends A {}
+}
@@ -0,0 +1,89 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class ProgramItemNumberingTest extends TestBase {
+
+  @Parameter(0)
+  public TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  @Test
+  public void testNumbering() throws Exception {
+    AppView<AppInfoWithClassHierarchy> appView =
+        computeAppViewWithClassHierarchy(buildClasses(A.class, B.class, C.class).build());
+    ProgramItemNumbering numbering = appView.programItemNumbering();
+    assertSame(numbering, appView.programItemNumbering());
+    assertEquals(3, numbering.numberOfClasses());
+    for (DexProgramClass clazz : appView.appInfo().classes()) {
+      assertSame(clazz, numbering.getClass(numbering.getClassId(clazz)));
+    }
+  }
+
+  @Test
+  public void testRenumbering() throws Exception {
+    AppView<AppInfoWithClassHierarchy> appView =
+        computeAppViewWithClassHierarchy(buildClasses(A.class, B.class, C.class).build());
+    DexProgramClass a = getProgramClass(appView, A.class);
+    DexProgramClass b = getProgramClass(appView, B.class);
+    DexProgramClass c = getProgramClass(appView, C.class);
+    ProgramItemNumbering numbering = appView.programItemNumbering();
+
+    removeProgramClass(appView, A.class);
+    ProgramItemNumbering renumbering = appView.programItemNumbering();
+    assertNotSame(numbering, renumbering);
+    assertEquals(2, renumbering.numberOfClasses());
+    assertEquals(-1, renumbering.getClassId(a));
+    for (DexProgramClass clazz : ImmutableList.of(b, c)) {
+      assertSame(clazz, renumbering.getClass(renumbering.getClassId(clazz)));
+    }
+
+    // The superseded numbering still maps its classes to their ids in that numbering.
+    for (DexProgramClass clazz : ImmutableList.of(a, b, c)) {
+      assertSame(clazz, numbering.getClass(numbering.getClassId(clazz)));
+    }
+  }
+
+  static DexProgramClass getProgramClass(AppView<?> appView, Class<?> clazz) {
+    return appView.definitionForProgramType(toDexType(clazz, appView.dexItemFactory()));
+  }
+
+  static void removeProgramClass(AppView<AppInfoWithClassHierarchy> appView, Class<?> clazz) {
+    DexType type = toDexType(clazz, appView.dexItemFactory());
+    appView.setAppInfo(
+        appView
+            .appInfo()
+            .rebuildWithClassHierarchy(
+                app ->
+                    app.builder()
+                        .removeProgramClasses(programClass -> programClass.getType() == type)
+                        .build()));
+  }
+
+  static class A {}
+
+  static class B {}
+
+  static class C {}
+}
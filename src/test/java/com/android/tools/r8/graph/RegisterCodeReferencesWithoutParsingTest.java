@@ -0,0 +1,193 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.ToolHelper;
+import com.android.tools.r8.utils.AndroidApp;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that scanning the class file for code references reports the same references as parsing
+ * the code and registering the references of the parsed code.
+ */
+@RunWith(Parameterized.class)
+public class RegisterCodeReferencesWithoutParsingTest extends TestBase {
+
+  private static final Path R8_JAR = Paths.get(ToolHelper.THIRD_PARTY_DIR, "r8", "r8.jar");
+
+  @Parameter(0)
+  public TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  @Test
+  public void test() throws Exception {
+    AndroidApp app = AndroidApp.builder().addProgramFiles(R8_JAR).build();
+    Map<String, List<String>> referencesWithoutParsing =
+        collectReferences(computeAppView(app), false);
+    Map<String, List<String>> referencesWithParsing = collectReferences(computeAppView(app), true);
+    assertTrue(referencesWithParsing.size() > 10000);
+    assertEquals(referencesWithParsing.keySet(), referencesWithoutParsing.keySet());
+    referencesWithParsing.forEach(
+        (method, references) ->
+            assertEquals(method, references, referencesWithoutParsing.get(method)));
+  }
+
+  @Test
+  public void testUninitializedNewInFrames() throws Exception {
+    AndroidApp app = readClasses(Flags.class);
+    Map<String, List<String>> referencesWithoutParsing =
+        collectReferences(computeAppView(app), false);
+    Map<String, List<String>> referencesWithParsing = collectReferences(computeAppView(app), true);
+    assertEquals(referencesWithParsing, referencesWithoutParsing);
+    // The uninitialized Flags instances on the stack are live across the conditional, so the
+    // frames of the conditional reference the type of the new-instance instruction.
+    List<String> createReferences =
+        referencesWithParsing.entrySet().stream()
+            .filter(entry -> entry.getKey().contains(".create("))
+            .map(Entry::getValue)
+            .findFirst()
+            .get();
+    assertTrue(Collections.frequency(createReferences, "type " + Flags.class.getTypeName()) >= 2);
+  }
+
+  @Test
+  public void testRepeatedRegistration() throws Exception {
+    AppView<AppInfo> appView = computeAppView(AndroidApp.builder().addProgramFiles(R8_JAR).build());
+    for (DexProgramClass clazz : appView.appInfo().classes()) {
+      clazz.forEachProgramMethodMatching(
+          DexEncodedMethod::hasCode,
+          method -> {
+            // The scanned references are only handed out once, after which the code is parsed.
+            RecordingUseRegistry first = new RecordingUseRegistry(appView, method);
+            method.registerCodeReferencesWithoutParsing(first);
+            RecordingUseRegistry second = new RecordingUseRegistry(appView, method);
+            method.registerCodeReferencesWithoutParsing(second);
+            assertEquals(method.toSourceString(), first.references, second.references);
+          });
+    }
+  }
+
+  private static Map<String, List<String>> collectReferences(
+      AppView<AppInfo> appView, boolean parse) {
+    Map<String, List<String>> result = new HashMap<>();
+    for (DexProgramClass clazz : appView.appInfo().classes()) {
+      clazz.forEachProgramMethodMatching(
+          DexEncodedMethod::hasCode,
+          method -> {
+            RecordingUseRegistry registry = new RecordingUseRegistry(appView, method);
+            if (parse) {
+              method.registerCodeReferences(registry);
+            } else {
+              method.registerCodeReferencesWithoutParsing(registry);
+            }
+            result.put(method.toSourceString(), registry.references);
+          });
+    }
+    return result;
+  }
+
+  static class Flags {
+
+    final int value;
+
+    Flags(int value) {
+      this.value = value;
+    }
+
+    static Flags create(int value, boolean isSet) {
+      return new Flags(value | (isSet ? 1 : 0));
+    }
+  }
+
+  private static class RecordingUseRegistry extends UseRegistry<ProgramMethod> {
+
+    private final List<String> references = new ArrayList<>();
+
+    RecordingUseRegistry(AppView<?> appView, ProgramMethod context) {
+      super(appView, context);
+    }
+
+    private void record(String kind, DexReference reference) {
+      references.add(kind + " " + reference.toSourceString());
+    }
+
+    @Override
+    public void registerInitClass(DexType type) {
+      record("init-class", type);
+    }
+
+    @Override
+    public void registerInvokeVirtual(DexMethod method) {
+      record("invoke-virtual", method);
+    }
+
+    @Override
+    public void registerInvokeDirect(DexMethod method) {
+      record("invoke-direct", method);
+    }
+
+    @Override
+    public void registerInvokeStatic(DexMethod method) {
+      record("invoke-static", method);
+    }
+
+    @Override
+    public void registerInvokeInterface(DexMethod method) {
+      record("invoke-interface", method);
+    }
+
+    @Override
+    public void registerInvokeSuper(DexMethod method) {
+      record("invoke-super", method);
+    }
+
+    @Override
+    public void registerInstanceFieldRead(DexField field) {
+      record("iget", field);
+    }
+
+    @Override
+    public void registerInstanceFieldWrite(DexField field) {
+      record("iput", field);
+    }
+
+    @Override
+    public void registerStaticFieldRead(DexField field) {
+      record("sget", field);
+    }
+
+    @Override
+    public void registerStaticFieldWrite(DexField field) {
+      record("sput", field);
+    }
+
+    @Override
+    public void registerTypeReference(DexType type) {
+      record("type", type);
+    }
+  }
+}
@@ -0,0 +1,181 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.ir.analysis.framework.intraprocedural;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.ir.analysis.AnalysisTestBase;
+import com.android.tools.r8.ir.analysis.framework.intraprocedural.BitVectorDataflowAnalysis.SuccessfulBitVectorDataflowAnalysisResult;
+import com.android.tools.r8.ir.code.BasicBlock;
+import com.android.tools.r8.ir.code.IRCode;
+import com.android.tools.r8.ir.code.Instruction;
+import com.android.tools.r8.ir.code.InvokeStatic;
+import java.util.BitSet;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class BitVectorDataflowAnalysisTest extends AnalysisTestBase {
+
+  @Parameterized.Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withAllRuntimesAndApiLevels().build();
+  }
+
+  public BitVectorDataflowAnalysisTest(TestParameters parameters) throws Exception {
+    super(parameters, TestClass.class.getTypeName(), TestClass.class);
+  }
+
+  @Test
+  public void testLoop() {
+    buildAndCheckIR(
+        "loop",
+        code -> {
+          SuccessfulBitVectorDataflowAnalysisResult result = run(code);
+          // The call to a() reaches the loop body through the back edge, and the loop exit.
+          assertEquals(bits(0), result.getBlockEntryState(getInvokeBlock(code, "a")));
+          assertEquals(bits(0), result.getBlockEntryState(getInvokeBlock(code, "b")));
+        });
+  }
+
+  @Test
+  public void testNestedLoop() {
+    buildAndCheckIR(
+        "nestedLoop",
+        code -> {
+          SuccessfulBitVectorDataflowAnalysisResult result = run(code);
+          // The call to b() in the outer loop reaches the inner loop through the outer back edge.
+          assertEquals(bits(0, 1), result.getBlockEntryState(getInvokeBlock(code, "a")));
+          assertEquals(bits(0, 1), result.getBlockEntryState(getInvokeBlock(code, "c")));
+        });
+  }
+
+  @Test
+  public void testCatchHandler() {
+    buildAndCheckIR(
+        "catchHandler",
+        code -> {
+          SuccessfulBitVectorDataflowAnalysisResult result = run(code);
+          // The handler is reached from the state before each throwing instruction of the try
+          // block, i.e., before and after the call to a(), but not after the call to b().
+          BasicBlock tryBlock = getInvokeBlock(code, "a");
+          assertTrue(tryBlock.hasCatchHandlers());
+          for (BasicBlock handler : tryBlock.getCatchHandlers().getUniqueTargets()) {
+            assertEquals(bits(0), result.getBlockEntryState(handler));
+          }
+          assertEquals(bits(0, 1), result.getBlockEntryState(getInvokeBlock(code, "d")));
+        });
+  }
+
+  @Test
+  public void testAbort() {
+    buildAndCheckIR(
+        "loop",
+        code ->
+            assertTrue(
+                new BitVectorDataflowAnalysis((instruction, state) -> !instruction.isReturn())
+                    .run(code.entryBlock())
+                    .isFailedAnalysisResult()));
+  }
+
+  /** Runs an analysis where the state is the set of a(), b() and c() that may have been called. */
+  private static SuccessfulBitVectorDataflowAnalysisResult run(IRCode code) {
+    DataflowAnalysisResult result =
+        new BitVectorDataflowAnalysis(
+                (instruction, state) -> {
+                  int index = getMarkerIndex(instruction);
+                  if (index >= 0) {
+                    state.set(index);
+                  }
+                  return true;
+                })
+            .run(code.entryBlock());
+    assertTrue(result.isSuccessfulAnalysisResult());
+    return (SuccessfulBitVectorDataflowAnalysisResult) result;
+  }
+
+  private static int getMarkerIndex(Instruction instruction) {
+    if (instruction.isInvokeStatic()) {
+      String name = instruction.asInvokeStatic().getInvokedMethod().getName().toString();
+      if (name.length() == 1 && name.charAt(0) >= 'a' && name.charAt(0) <= 'c') {
+        return name.charAt(0) - 'a';
+      }
+    }
+    return -1;
+  }
+
+  private static BasicBlock getInvokeBlock(IRCode code, String name) {
+    InvokeStatic invoke =
+        getMatchingInstruction(
+            code,
+            instruction ->
+                instruction.isInvokeStatic()
+                    && instruction
+                        .asInvokeStatic()
+                        .getInvokedMethod()
+                        .getName()
+                        .toString()
+                        .equals(name));
+    return invoke.getBlock();
+  }
+
+  private static BitSet bits(int... indices) {
+    BitSet bits = new BitSet();
+    for (int index : indices) {
+      bits.set(index);
+    }
+    return bits;
+  }
+
+  static class TestClass {
+
+    static void loop(int n) {
+      for (int i = 0; i < n; i++) {
+        a();
+      }
+      b();
+    }
+
+    static void nestedLoop(int n) {
+      for (int i = 0; i < n; i++) {
+        for (int j = 0; j < n; j++) {
+          a();
+        }
+        b();
+      }
+      c();
+    }
+
+    static void catchHandler() {
+      try {
+        a();
+        b();
+      } catch (RuntimeException e) {
+        System.out.println(e);
+      }
+      d();
+    }
+
+    static void a() {
+      System.out.println("a");
+    }
+
+    static void b() {
+      System.out.println("b");
+    }
+
+    static void c() {
+      System.out.println("c");
+    }
+
+    static void d() {
+      System.out.println("d");
+    }
+  }
+}
@@ -0,0 +1,129 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.optimize.argumentpropagation;
+
+import static com.android.tools.r8.utils.codeinspector.Matchers.isPresent;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import com.android.tools.r8.NeverInline;
+import com.android.tools.r8.R8TestCompileResult;
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.utils.codeinspector.ClassSubject;
+import com.android.tools.r8.utils.codeinspector.MethodSubject;
+import java.nio.file.Path;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that propagating argument information through a cycle of the in-parameter flow graph gives
+ * the same result when the cycle is split into partitions that are processed in parallel.
+ */
+@RunWith(Parameterized.class)
+public class InParameterFlowCyclePartitioningTest extends TestBase {
+
+  private static final int NUMBER_OF_METHODS_IN_CYCLE = 8;
+
+  @Parameter(0)
+  public TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withAllRuntimesAndApiLevels().build();
+  }
+
+  @Test
+  public void test() throws Exception {
+    // Process the cycle of the first parameters of a0, ..., a7 without partitioning.
+    Path withoutPartitioning = compile(Integer.MAX_VALUE, 1);
+    // Process the cycle in four partitions of two nodes.
+    Path withPartitioning = compile(NUMBER_OF_METHODS_IN_CYCLE, 2);
+    assertProgramsEqual(withoutPartitioning, withPartitioning);
+  }
+
+  private Path compile(int parallelProcessingThreshold, int cyclePartitionSize) throws Exception {
+    R8TestCompileResult compileResult =
+        testForR8(parameters.getBackend())
+            .addInnerClasses(getClass())
+            .addKeepMainRule(Main.class)
+            .addOptionsModification(
+                options ->
+                    options
+                        .callSiteOptimizationOptions()
+                        .setInParameterFlowParallelProcessing(
+                            parallelProcessingThreshold, cyclePartitionSize))
+            .enableInliningAnnotations()
+            .setMinApi(parameters.getApiLevel())
+            .compile()
+            .inspect(
+                inspector -> {
+                  // The constant argument is propagated through the cycle and removed.
+                  ClassSubject mainClassSubject = inspector.clazz(Main.class);
+                  for (int i = 0; i < NUMBER_OF_METHODS_IN_CYCLE; i++) {
+                    MethodSubject methodSubject = mainClassSubject.uniqueMethodWithName("a" + i);
+                    assertThat(methodSubject, isPresent());
+                    assertEquals(1, methodSubject.getProgramMethod().getParameters().size());
+                  }
+                });
+    compileResult.run(parameters.getRuntime(), Main.class).assertSuccessWithOutputLines("42");
+    return compileResult.writeToZip();
+  }
+
+  static class Main {
+
+    public static void main(String[] args) {
+      a0(42, args.length + NUMBER_OF_METHODS_IN_CYCLE);
+    }
+
+    @NeverInline
+    static void a0(int x, int n) {
+      if (n == 0) {
+        System.out.println(x);
+      } else {
+        a1(x, n - 1);
+      }
+    }
+
+    @NeverInline
+    static void a1(int x, int n) {
+      a2(x, n - 1);
+    }
+
+    @NeverInline
+    static void a2(int x, int n) {
+      a3(x, n - 1);
+    }
+
+    @NeverInline
+    static void a3(int x, int n) {
+      a4(x, n - 1);
+    }
+
+    @NeverInline
+    static void a4(int x, int n) {
+      a5(x, n - 1);
+    }
+
+    @NeverInline
+    static void a5(int x, int n) {
+      a6(x, n - 1);
+    }
+
+    @NeverInline
+    static void a6(int x, int n) {
+      a7(x, n - 1);
+    }
+
+    @NeverInline
+    static void a7(int x, int n) {
+      a0(x, n - 1);
+    }
+  }
+}
@@ -28,6 +28,8 @@ import com.android.tools.r8.graph.DexItemFactory;
 import com.android.tools.r8.graph.DexType;
 import com.android.tools.r8.graph.FieldAccessFlags;
 import com.android.tools.r8.graph.MethodAccessFlags;
+import com.android.tools.r8.origin.Origin;
+import com.android.tools.r8.origin.PathOrigin;
 import com.android.tools.r8.position.Position;
 import com.android.tools.r8.position.TextRange;
 import com.android.tools.r8.shaking.ProguardClassNameList.SingleClassNameList;
@@ -784,6 +786,34 @@ public class ProguardConfigurationParserTest extends TestBase {
     assertTrue(config.getRules().get(0) instanceof ConvertCheckNotNullRule);
   }
 
+  @Test
+  public void parseDuplicateRulesFromMultipleSources() {
+    String rule = "-keep class C { void m(); }";
+    String otherRule = "-keep class D";
+    Origin firstOrigin = new PathOrigin(Paths.get("first.pro"));
+    Origin secondOrigin = new PathOrigin(Paths.get("second.pro"));
+    Origin thirdOrigin = new PathOrigin(Paths.get("third.pro"));
+    ProguardConfigurationParser parser =
+        new ProguardConfigurationParser(new DexItemFactory(), reporter);
+    parser.parse(
+        ImmutableList.of(
+            new ProguardConfigurationSourceStrings(ImmutableList.of(rule), null, firstOrigin),
+            new ProguardConfigurationSourceStrings(
+                ImmutableList.of(otherRule, rule), null, secondOrigin),
+            new ProguardConfigurationSourceStrings(ImmutableList.of(rule), null, thirdOrigin)));
+    verifyParserEndsCleanly();
+    ProguardConfiguration config = parser.getConfig();
+    assertEquals(2, config.getRules().size());
+    assertEquals(2, config.getNumberOfDuplicateRules());
+    ProguardConfigurationRule keptRule = config.getRules().get(0);
+    assertEquals(rule, keptRule.getSource());
+    assertEquals(
+        ImmutableList.of(firstOrigin, secondOrigin, thirdOrigin), config.getOrigins(keptRule));
+    ProguardConfigurationRule keptOtherRule = config.getRules().get(1);
+    assertEquals(otherRule, keptOtherRule.getSource());
+    assertEquals(ImmutableList.of(secondOrigin), config.getOrigins(keptOtherRule));
+  }
+
   @Test
   public void parseDontobfuscate() {
     ProguardConfigurationParser parser =
@@ -0,0 +1,163 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.startup;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestDiagnosticMessages;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.ToolHelper;
+import com.android.tools.r8.experimental.startup.StartupClass;
+import com.android.tools.r8.experimental.startup.StartupConfiguration;
+import com.android.tools.r8.experimental.startup.StartupProfileReader;
+import com.android.tools.r8.experimental.startup.StartupProfileRecorder;
+import com.android.tools.r8.graph.DexItemFactory;
+import com.android.tools.r8.graph.DexType;
+import com.android.tools.r8.utils.DescriptorUtils;
+import com.android.tools.r8.utils.Reporter;
+import com.android.tools.r8.utils.StringUtils;
+import com.google.common.collect.ImmutableList;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class StartupMethodInstrumentationTest extends TestBase {
+
+  @Parameter(0)
+  public TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withDexRuntimes().withAllApiLevels().build();
+  }
+
+  @Test
+  public void test() throws Exception {
+    Path profile = temp.newFolder().toPath().resolve("startup.prof");
+    StringBuilder methodIdMap = new StringBuilder();
+    testForD8(parameters.getBackend())
+        .addInnerClasses(getClass())
+        .addOptionsModification(
+            options ->
+                options
+                    .getStartupOptions()
+                    .setEnableStartupMethodInstrumentation()
+                    .setStartupMethodIdMapConsumer(
+                        ToolHelper.consumeString(methodIdMap::append)))
+        .setMinApi(parameters.getApiLevel())
+        .compileWithExpectedDiagnostics(TestDiagnosticMessages::assertNoWarnings)
+        .inspect(
+            inspector ->
+                assertTrue(
+                    inspector
+                        .clazz(
+                            DescriptorUtils.descriptorToJavaType(StartupProfileRecorder.DESCRIPTOR))
+                        .isPresent()))
+        .run(parameters.getRuntime(), Main.class, profile.toString())
+        .assertSuccessWithOutputLines("foo");
+
+    DexItemFactory dexItemFactory = new DexItemFactory();
+    StartupConfiguration startupConfiguration =
+        StartupProfileReader.createStartupConfigurationFromProfile(
+            dexItemFactory,
+            new Reporter(),
+            Files.readAllBytes(profile),
+            StringUtils.splitLines(methodIdMap.toString()));
+    List<DexType> startupClasses =
+        startupConfiguration.getStartupClasses().stream()
+            .map(StartupClass::getReference)
+            .collect(Collectors.toList());
+    assertEquals(
+        ImmutableList.of(
+            dexItemFactory.createType(descriptor(Main.class)),
+            dexItemFactory.createType(descriptor(AStartupClass.class)),
+            dexItemFactory.createType(descriptor(AStartupClass.class))),
+        startupClasses);
+
+    // Check that the profile holds the ids of the entered methods in the order they were entered.
+    List<String> methodDescriptors = StringUtils.splitLines(methodIdMap.toString());
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(profile));
+    assertEquals(StartupProfileRecorder.PROFILE_MAGIC, buffer.getInt());
+    List<String> startupMethods = new ArrayList<>();
+    for (int i = buffer.getInt(); i > 0; i--) {
+      startupMethods.add(methodDescriptors.get(buffer.getInt()));
+    }
+    assertFalse(buffer.hasRemaining());
+    assertEquals(
+        ImmutableList.of(
+            buildMethod(Main.class.getDeclaredMethod("main", String[].class), dexItemFactory)
+                .toSmaliString(),
+            buildMethod(AStartupClass.class.getDeclaredMethod("foo"), dexItemFactory)
+                .toSmaliString(),
+            buildMethod(AStartupClass.class.getDeclaredMethod("bar"), dexItemFactory)
+                .toSmaliString()),
+        startupMethods);
+  }
+
+  @Test
+  public void testDexInput() throws Exception {
+    Path dexInput =
+        testForD8(parameters.getBackend())
+            .addInnerClasses(getClass())
+            .setMinApi(parameters.getApiLevel())
+            .compile()
+            .writeToZip();
+    testForD8(parameters.getBackend())
+        .addProgramFiles(dexInput)
+        .addOptionsModification(
+            options -> options.getStartupOptions().setEnableStartupMethodInstrumentation())
+        .setMinApi(parameters.getApiLevel())
+        .compileWithExpectedDiagnostics(
+            diagnostics ->
+                diagnostics.assertWarningMessageThatMatches(
+                    containsString("only supports class file inputs")));
+  }
+
+  static class Main {
+
+    public static void main(String[] args) throws Exception {
+      AStartupClass.foo();
+      Class.forName("com.android.tools.r8.startup.StartupProfileRecorder")
+          .getDeclaredMethod("dump", String.class)
+          .invoke(null, args[0]);
+    }
+
+    public void onClick() {
+      NonStartupClass.bar();
+    }
+  }
+
+  static class AStartupClass {
+
+    static void foo() {
+      System.out.println("foo");
+      bar();
+      bar();
+    }
+
+    static void bar() {}
+  }
+
+  static class NonStartupClass {
+
+    static void bar() {
+      System.out.println("bar");
+    }
+  }
+}
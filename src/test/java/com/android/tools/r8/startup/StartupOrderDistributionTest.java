@@ -0,0 +1,215 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.startup;
+
+import static com.android.tools.r8.utils.codeinspector.Matchers.isAbsent;
+import static com.android.tools.r8.utils.codeinspector.Matchers.isPresent;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.NeverInline;
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.experimental.startup.StartupClass;
+import com.android.tools.r8.experimental.startup.StartupConfiguration;
+import com.android.tools.r8.graph.DexItemFactory;
+import com.android.tools.r8.graph.DexType;
+import com.android.tools.r8.utils.AndroidApiLevel;
+import com.android.tools.r8.utils.InternalOptions;
+import com.android.tools.r8.utils.codeinspector.ClassSubject;
+import com.android.tools.r8.utils.codeinspector.CodeInspector;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class StartupOrderDistributionTest extends TestBase {
+
+  @Parameter(0)
+  public TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters()
+        .withDexRuntimes()
+        .withApiLevelsStartingAtIncluding(AndroidApiLevel.L)
+        .build();
+  }
+
+  @Test
+  public void test() throws Exception {
+    testForR8(parameters.getBackend())
+        .addInnerClasses(getClass())
+        .addKeepClassAndMembersRules(Main.class)
+        .addOptionsModification(
+            options -> configureStartupOrder(options, Main.class, AStartupClass.class))
+        .enableInliningAnnotations()
+        .setMinApi(parameters.getApiLevel())
+        .compile()
+        .inspectMultiDex(
+            primaryDexInspector -> {
+              assertThat(primaryDexInspector.clazz(Main.class), isPresent());
+              assertThat(primaryDexInspector.clazz(AStartupClass.class), isPresent());
+              assertThat(primaryDexInspector.clazz(NonStartupClass.class), isAbsent());
+            },
+            secondaryDexInspector -> {
+              assertThat(secondaryDexInspector.clazz(NonStartupClass.class), isPresent());
+              // The lambda synthesized from the startup class is placed with the startup classes.
+              assertTrue(
+                  secondaryDexInspector.allClasses().stream()
+                      .noneMatch(ClassSubject::isSynthesizedJavaLambdaClass));
+            })
+        .run(parameters.getRuntime(), Main.class)
+        .assertSuccessWithOutputLines("foo");
+  }
+
+  @Test
+  public void testStartupOrderR8() throws Exception {
+    Path outputDirectory =
+        testForR8(parameters.getBackend())
+            .addProgramClasses(OrderedMain.class, AOrdered.class, BOrdered.class, NotOrdered.class)
+            .addKeepMainRule(OrderedMain.class)
+            .addKeepClassAndMembersRules(AOrdered.class, BOrdered.class, NotOrdered.class)
+            .addOptionsModification(this::configureStartupOrderWithOneClassPerDex)
+            .setMinApi(parameters.getApiLevel())
+            .compile()
+            .writeToDirectory();
+    assertStartupOrder(outputDirectory);
+  }
+
+  @Test
+  public void testStartupOrderD8() throws Exception {
+    Path outputDirectory =
+        testForD8(parameters.getBackend())
+            .addProgramClasses(OrderedMain.class, AOrdered.class, BOrdered.class, NotOrdered.class)
+            .addOptionsModification(this::configureStartupOrderWithOneClassPerDex)
+            .release()
+            .setMinApi(parameters.getApiLevel())
+            .compile()
+            .writeToDirectory();
+    assertStartupOrder(outputDirectory);
+  }
+
+  private void configureStartupOrderWithOneClassPerDex(InternalOptions options) {
+    // BOrdered precedes AOrdered in the startup order, which is the opposite of their order by
+    // name. With a single class per dex file, the dex file of each class reveals its position.
+    configureStartupOrder(options, OrderedMain.class, BOrdered.class, AOrdered.class);
+    options.testing.limitNumberOfClassesPerDex = 1;
+  }
+
+  private static void configureStartupOrder(InternalOptions options, Class<?>... startupClasses) {
+    DexItemFactory dexItemFactory = options.dexItemFactory();
+    StartupConfiguration.Builder builder = StartupConfiguration.builder();
+    for (Class<?> startupClass : startupClasses) {
+      builder.addStartupClass(
+          StartupClass.<DexType>builder()
+              .setReference(toDexType(startupClass, dexItemFactory))
+              .build());
+    }
+    options
+        .getStartupOptions()
+        .setEnableStartupOrderDistribution(true)
+        .setStartupConfiguration(builder.build());
+  }
+
+  private static void assertStartupOrder(Path outputDirectory) throws Exception {
+    List<Set<String>> classesPerDex = new ArrayList<>();
+    for (int i = 1; ; i++) {
+      Path dex = outputDirectory.resolve(i == 1 ? "classes.dex" : "classes" + i + ".dex");
+      if (!dex.toFile().exists()) {
+        break;
+      }
+      classesPerDex.add(
+          new CodeInspector(dex)
+              .allClasses().stream()
+                  .map(ClassSubject::getFinalName)
+                  .collect(Collectors.toSet()));
+    }
+    assertEquals(
+        ImmutableList.of(
+            ImmutableSet.of(OrderedMain.class.getTypeName()),
+            ImmutableSet.of(BOrdered.class.getTypeName()),
+            ImmutableSet.of(AOrdered.class.getTypeName()),
+            ImmutableSet.of(NotOrdered.class.getTypeName())),
+        classesPerDex);
+  }
+
+  static class Main {
+
+    public static void main(String[] args) {
+      AStartupClass.foo();
+    }
+
+    // @Keep
+    public void onClick() {
+      NonStartupClass.bar();
+    }
+  }
+
+  static class AStartupClass {
+
+    @NeverInline
+    static void foo() {
+      run(() -> System.out.println("foo"));
+    }
+
+    @NeverInline
+    static void run(Runnable runnable) {
+      runnable.run();
+    }
+  }
+
+  static class NonStartupClass {
+
+    @NeverInline
+    static void bar() {
+      System.out.println("bar");
+    }
+  }
+
+  static class OrderedMain {
+
+    public static void main(String[] args) {
+      BOrdered.b();
+      AOrdered.a();
+    }
+
+    public void onClick() {
+      NotOrdered.c();
+    }
+  }
+
+  static class AOrdered {
+
+    static void a() {
+      System.out.println("a");
+    }
+  }
+
+  static class BOrdered {
+
+    static void b() {
+      System.out.println("b");
+    }
+  }
+
+  static class NotOrdered {
+
+    static void c() {
+      System.out.println("c");
+    }
+  }
+}
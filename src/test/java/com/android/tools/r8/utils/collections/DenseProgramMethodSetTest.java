@@ -0,0 +1,235 @@
+// Copyright (c) 2022, the R8 project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+package com.android.tools.r8.utils.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.android.tools.r8.TestBase;
+import com.android.tools.r8.TestParameters;
+import com.android.tools.r8.TestParametersCollection;
+import com.android.tools.r8.graph.AppInfoWithClassHierarchy;
+import com.android.tools.r8.graph.AppView;
+import com.android.tools.r8.graph.DexProgramClass;
+import com.android.tools.r8.graph.ProgramMethod;
+import com.android.tools.r8.graph.ProgramMethodNumbering;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import java.util.Iterator;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class DenseProgramMethodSetTest extends TestBase {
+
+  @Parameter(0)
+  public TestParameters parameters;
+
+  @Parameters(name = "{0}")
+  public static TestParametersCollection data() {
+    return getTestParameters().withNoneRuntime().build();
+  }
+
+  private AppView<AppInfoWithClassHierarchy> appView;
+  private ProgramMethod a0;
+  private ProgramMethod a1;
+  private ProgramMethod b0;
+  private ProgramMethod b1;
+  private ProgramMethod b2;
+  private ProgramMethod c0;
+
+  @Before
+  public void setup() throws Exception {
+    appView = computeAppViewWithClassHierarchy(buildClasses(A.class, B.class, C.class).build());
+    a0 = getMethod(A.class, "a0");
+    a1 = getMethod(A.class, "a1");
+    b0 = getMethod(B.class, "b0");
+    b1 = getMethod(B.class, "b1");
+    b2 = getMethod(B.class, "b2");
+    c0 = getMethod(C.class, "c0");
+  }
+
+  private ProgramMethodNumbering createNumbering() {
+    // The methods of C are not part of the numbering.
+    return appView.createProgramMethodNumbering(
+        ImmutableList.of(ImmutableList.of(a0, a1), ImmutableList.of(b0, b1, b2)));
+  }
+
+  @Test
+  public void testNumbering() {
+    ProgramMethodNumbering numbering = createNumbering();
+    assertEquals(5, numbering.size());
+    int id = 0;
+    for (ProgramMethod method : ImmutableList.of(a0, a1, b0, b1, b2)) {
+      assertEquals(id, numbering.getId(method));
+      assertEquals(id, numbering.getId(method.getReference()));
+      assertSame(method, numbering.getMethod(id));
+      id++;
+    }
+    assertEquals(-1, numbering.getId(c0));
+    assertEquals(-1, numbering.getId(c0.getReference()));
+  }
+
+  @Test
+  public void testOffset() {
+    ProgramMethodNumbering numbering = createNumbering();
+    DenseProgramMethodSet wave = DenseProgramMethodSet.create(numbering, 2, 5);
+    assertEquals(3, wave.size());
+    assertEquals(ImmutableList.of(b0, b1, b2), Lists.newArrayList(wave));
+    assertTrue(wave.contains(b1));
+    assertTrue(wave.contains(b1.getReference()));
+    assertSame(b1, wave.get(b1.getReference()));
+    assertFalse(wave.contains(a0));
+    assertFalse(wave.contains(a0.getReference()));
+    assertNull(wave.get(a0.getReference()));
+
+    // Methods with an id before the offset are stored in the backing map.
+    assertTrue(wave.add(a0));
+    assertFalse(wave.add(a0));
+    assertEquals(4, wave.size());
+    assertTrue(wave.contains(a0));
+    assertTrue(wave.contains(a0.getReference()));
+    assertEquals(ImmutableList.of(b0, b1, b2, a0), Lists.newArrayList(wave));
+
+    assertTrue(wave.remove(b1));
+    assertFalse(wave.remove(b1.getReference()));
+    assertTrue(wave.remove(a0.getReference()));
+    assertEquals(ImmutableList.of(b0, b2), Lists.newArrayList(wave));
+  }
+
+  @Test
+  public void testUnnumberedMethods() {
+    DenseProgramMethodSet methods = DenseProgramMethodSet.create(createNumbering());
+    assertTrue(methods.isEmpty());
+    assertTrue(methods.add(c0));
+    assertFalse(methods.add(c0));
+    assertFalse(methods.isEmpty());
+    assertTrue(methods.add(a1));
+    assertEquals(2, methods.size());
+    assertTrue(methods.contains(c0));
+    assertTrue(methods.contains(c0.getReference()));
+    assertSame(c0, methods.get(c0.getReference()));
+    // Numbered methods are iterated before the methods in the backing map.
+    assertEquals(ImmutableList.of(a1, c0), Lists.newArrayList(methods));
+
+    assertTrue(methods.remove(c0));
+    assertFalse(methods.contains(c0));
+    assertEquals(ImmutableList.of(a1), Lists.newArrayList(methods));
+
+    methods.add(c0);
+    methods.clear();
+    assertTrue(methods.isEmpty());
+    assertFalse(methods.contains(a1));
+    assertFalse(methods.contains(c0));
+  }
+
+  @Test
+  public void testIteratorRemove() {
+    DenseProgramMethodSet methods = DenseProgramMethodSet.create(createNumbering(), 0, 5);
+    methods.add(c0);
+    Iterator<ProgramMethod> iterator = methods.iterator();
+    while (iterator.hasNext()) {
+      ProgramMethod method = iterator.next();
+      if (method == a1 || method == b2 || method == c0) {
+        iterator.remove();
+      }
+    }
+    assertEquals(3, methods.size());
+    assertEquals(ImmutableList.of(a0, b0, b1), Lists.newArrayList(methods));
+    assertFalse(methods.contains(a1));
+    assertFalse(methods.contains(b2));
+    assertFalse(methods.contains(c0));
+
+    assertTrue(methods.removeIf(method -> method == b0));
+    assertEquals(ImmutableList.of(a0, b1), Lists.newArrayList(methods));
+  }
+
+  @Test
+  public void testAddAll() {
+    ProgramMethodNumbering numbering = createNumbering();
+    DenseProgramMethodSet dense = DenseProgramMethodSet.create(numbering, 2, 5);
+    dense.add(c0);
+
+    // Hashed set from dense set.
+    ProgramMethodSet hashed = ProgramMethodSet.create();
+    hashed.add(a0);
+    hashed.addAll(dense);
+    assertEquals(5, hashed.size());
+    for (ProgramMethod method : ImmutableList.of(a0, b0, b1, b2, c0)) {
+      assertTrue(hashed.contains(method));
+    }
+
+    // Dense set from hashed set.
+    DenseProgramMethodSet other = DenseProgramMethodSet.create(numbering);
+    other.addAll(hashed);
+    assertEquals(5, other.size());
+    assertEquals(ImmutableList.of(a0, b0, b1, b2, c0), Lists.newArrayList(other));
+
+    // Dense set from dense set.
+    DenseProgramMethodSet copy = DenseProgramMethodSet.create(numbering);
+    copy.addAll(dense);
+    assertEquals(ImmutableList.of(b0, b1, b2, c0), Lists.newArrayList(copy));
+  }
+
+  @Test
+  public void testSupersededNumbering() {
+    ProgramMethodNumbering numbering = createNumbering();
+    DenseProgramMethodSet methods = DenseProgramMethodSet.create(numbering, 0, 5);
+
+    // Renumbering the methods of B overwrites the ids stored on them.
+    ProgramMethodNumbering renumbering =
+        appView.createProgramMethodNumbering(ImmutableList.of(ImmutableList.of(b2, b1, b0)));
+    assertEquals(0, renumbering.getId(b2));
+    assertEquals(-1, renumbering.getId(a0));
+
+    // The superseded numbering still maps its methods to their ids in that numbering.
+    int id = 0;
+    for (ProgramMethod method : ImmutableList.of(a0, a1, b0, b1, b2)) {
+      assertEquals(id, numbering.getId(method));
+      assertTrue(methods.contains(method));
+      id++;
+    }
+    assertEquals(-1, numbering.getId(c0));
+    assertTrue(methods.remove(b0));
+    assertFalse(methods.contains(b0));
+    assertEquals(4, methods.size());
+  }
+
+  private ProgramMethod getMethod(Class<?> clazz, String name) {
+    DexProgramClass programClass =
+        appView.definitionForProgramType(toDexType(clazz, appView.dexItemFactory()));
+    return Iterables.find(
+        programClass.programMethods(), method -> method.getName().toString().equals(name));
+  }
+
+  static class A {
+
+    void a0() {}
+
+    void a1() {}
+  }
+
+  static class B {
+
+    void b0() {}
+
+    void b1() {}
+
+    void b2() {}
+  }
+
+  static class C {
+
+    void c0() {}
+  }
+}
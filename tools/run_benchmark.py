@@ -43,7 +43,8 @@ def parse_options(argv):
                       help='The test target to run',
                       required=True,
                       # These should 1:1 with benchmarks/BenchmarkTarget.java
-                      choices=['d8', 'r8-full', 'r8-force', 'r8-compat'])
+                      choices=['d8', 'r8-full', 'r8-force', 'r8-compat',
+                               'tracereferences'])
   result.add_argument('--nolib', '--no-lib', '--no-r8lib',
                       help='Run the non-lib R8 build (default false)',
                       default=False,